@@ -5,6 +5,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.kormapper.converter.TypeConverter;
+
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface Column {
@@ -19,4 +21,11 @@ public @interface Column {
 	 * @return if it is a primary key or not
 	 */
 	boolean isPrimaryKey() default false;
+	
+	/**
+	 * The converter of the column values. By default the converter of the field type is taken from the ConverterRegistry.
+	 * @return the class of the converter
+	 */
+	@SuppressWarnings("rawtypes")
+	Class<? extends TypeConverter> converter() default TypeConverter.class;
 }
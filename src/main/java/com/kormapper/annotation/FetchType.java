@@ -0,0 +1,14 @@
+package com.kormapper.annotation;
+
+/**
+ * Defines when the KORMapper loads a OneToOne or OneToMany annotated field
+ * @author leonhardmuellauer
+ */
+public enum FetchType {
+	
+	/** The field is loaded together with the object that declares it */
+	EAGER,
+	/** The field is loaded on its first access. OneToMany fields receive a LazyList, OneToOne fields
+	 *  have to be declared as LazyReference */
+	LAZY;
+}
@@ -28,4 +28,11 @@ public @interface OneToOne {
 	 * @return the primary key name
 	 */
 	String referencedColumnName();
+	
+	/**
+	 * Defines whether the objects of the 1:1 relationship are loaded together with the declaring object
+	 * or on the first access of the field
+	 * @return the fetch type
+	 */
+	FetchType fetch() default FetchType.EAGER;
 }
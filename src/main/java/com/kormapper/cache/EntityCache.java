@@ -0,0 +1,371 @@
+package com.kormapper.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.ParamException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+
+/**
+ * EntityCache - A second-level cache of entities which may be shared by several KORMappers <br>
+ * Only classes which have been registered are cached. An entry holds the column values of a single record
+ * keyed by its table and primary key, every hit instantiates a new object of these values, thus cached
+ * objects are never shared between callers. The cache is bounded by its maximal number of entries and
+ * evicts the least recently used entry when it is full. Every registered class has its own time to live. <br>
+ * A KORMapper with a cache removes the entries of the records it inserts, updates or deletes once the
+ * statements have been committed, plain DML by KORMapper.executeUpdate evicts every record of the written
+ * table. Every eviction advances the generation of its table, a record which has been queried while the
+ * generation changed might be stale and is not stored. Writes which bypass the KORMapper are not seen by
+ * the cache, use evictAll or clear after such writes. The KORMappers which share a cache have to work on
+ * the same database.
+ * @author leonhardmuellauer
+ */
+public class EntityCache {
+	
+	private final int maxEntries;
+	private final Map<Class<?>, Long> timeToLive = new ConcurrentHashMap<>();
+	private final LinkedHashMap<List<String>, CacheEntry> entries;
+	private final Map<String, Long> generations = new HashMap<>();
+	private long cleared = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	
+	/**
+	 * The column values of a cached record
+	 */
+	private static final class CacheEntry {
+		private final Class<?> type;
+		private final Object[] values;
+		private final long expiresAt;
+	
+		private CacheEntry(Class<?> type, Object[] values, long expiresAt) {
+			this.type = type;
+			this.values = values;
+			this.expiresAt = expiresAt;
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates an empty cache
+	 * @param maxEntries the maximal number of cached records
+	 */
+	public EntityCache(int maxEntries) {
+		if(maxEntries < 1) {
+			throw new ParamException("Error: The maximal number of entries must be greater than 0");
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<List<String>, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+	
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<String>, CacheEntry> eldest) {
+				if(size() > EntityCache.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Enables the caching of the given class
+	 * @param type the KORBridge-Class to be cached, it has to declare a primary key
+	 * @param timeToLive the time in milliseconds an entry stays valid after it has been loaded, 0 means forever
+	 */
+	public void register(Class<?> type, long timeToLive) {
+		if(type == null) {
+			throw new ParamException("Error: type may not be null");
+		}
+		if(timeToLive < 0) {
+			throw new ParamException("Error: The time to live may not be negative");
+		}
+		if(MetadataRegistry.of(type).getPrimaryKeys().isEmpty()) {
+			throw new ParamException("Error: "+type.getName()+" declares no primary key and can not be cached");
+		}
+		this.timeToLive.put(type, timeToLive);
+	}
+	
+	/**
+	 * Says whether the given class is cached
+	 * @param type the KORBridge-Class
+	 * @return if the class has been registered or not
+	 */
+	public boolean isCached(Class<?> type) {
+		return timeToLive.containsKey(type);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Cache methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns a new object of the cached record with the given primary keys
+	 * @param type the class of the record
+	 * @param primaryKeys the values of the primary keys in declaration order
+	 * @param <T> the type of the record
+	 * @return a new object with the cached values or null when the record is not cached or has expired
+	 * @throws KORException when the object could not be instantiated
+	 */
+	public <T> T get(Class<T> type, Object... primaryKeys) throws KORException {
+		if(!isCached(type)) {
+			return null;
+		}
+		EntityMetadata metadata = MetadataRegistry.of(type);
+		List<String> key = keyOf(metadata, primaryKeys);
+		CacheEntry entry;
+		synchronized(this) {
+			entry = key != null ? entries.get(key) : null;
+			if(entry != null && (entry.type != type || entry.expiresAt < System.currentTimeMillis())) {
+				entries.remove(key);
+				entry = null;
+			}
+			if(entry == null) {
+				misses++;
+				return null;
+			}
+			hits++;
+		}
+		Object instance = metadata.newInstance();
+		List<ColumnMetadata> columns = metadata.getColumns();
+		for(int i = 0; i < columns.size(); i++) {
+			columns.get(i).getAccessor().set(instance, entry.values[i]);
+		}
+		return type.cast(instance);
+	}
+	
+	/**
+	 * Stores the column values of the given object when its class is cached
+	 * @param entity the loaded object
+	 * @throws KORException when a value could not be read
+	 */
+	public void put(Object entity) throws KORException {
+		put(entity, -1);
+	}
+	
+	/**
+	 * Stores the column values of the given object when its class is cached and the table of the object has
+	 * not been evicted since the given generation
+	 * @param entity the loaded object
+	 * @param generation the generation of the table before the object has been queried, see getGeneration
+	 * @throws KORException when a value could not be read
+	 */
+	public void put(Object entity, long generation) throws KORException {
+		Long ttl = timeToLive.get(entity.getClass());
+		if(ttl == null) {
+			return;
+		}
+		EntityMetadata metadata = MetadataRegistry.of(entity);
+		List<ColumnMetadata> columns = metadata.getColumns();
+		Object[] values = new Object[columns.size()];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = columns.get(i).getAccessor().get(entity);
+		}
+		Object[] primaryKeys = new Object[metadata.getPrimaryKeys().size()];
+		for(int i = 0; i < primaryKeys.length; i++) {
+			primaryKeys[i] = metadata.getPrimaryKeys().get(i).getAccessor().get(entity);
+		}
+		List<String> key = keyOf(metadata, primaryKeys);
+		if(key != null) {
+			long expiresAt = ttl == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttl;
+			synchronized(this) {
+				if(generation < 0 || generation == generationOf(metadata.getTableName())) {
+					entries.put(key, new CacheEntry(metadata.getType(), values, expiresAt));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Removes the record with the given primary keys
+	 * @param type the class of the record
+	 * @param primaryKeys the values of the primary keys in declaration order
+	 */
+	public void evict(Class<?> type, Object... primaryKeys) {
+		if(!isCached(type)) {
+			return;
+		}
+		EntityMetadata metadata = MetadataRegistry.of(type);
+		List<String> key = keyOf(metadata, primaryKeys);
+		synchronized(this) {
+			advance(metadata.getTableName());
+			if(key != null) {
+				entries.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Removes all records of the given class
+	 * @param type the class of the records
+	 */
+	public synchronized void evictAll(Class<?> type) {
+		advance(MetadataRegistry.of(type).getTableName());
+		Iterator<CacheEntry> it = entries.values().iterator();
+		while(it.hasNext()) {
+			if(it.next().type == type) {
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the records of all cached classes which are mapped to the given table
+	 * @param table the name of the written table
+	 */
+	public void evictTable(String table) {
+		for(Class<?> type : timeToLive.keySet()) {
+			if(MetadataRegistry.of(type).getTableName().equalsIgnoreCase(table)) {
+				evictAll(type);
+			}
+		}
+	}
+	
+	/**
+	 * Removes the records of the table the given DML statement writes. When the table could not be determined
+	 * all records are removed.
+	 * @param sql an INSERT, REPLACE, UPDATE or DELETE statement
+	 */
+	public void evictStatement(String sql) {
+		String table = SqlTables.writtenTable(sql);
+		if(table != null) {
+			evictTable(table);
+		} else {
+			clear();
+		}
+	}
+	
+	/**
+	 * Removes all records
+	 */
+	public synchronized void clear() {
+		cleared++;
+		entries.clear();
+	}
+	
+	/**
+	 * Returns the generation of the table of the given class, which changes whenever a record of the table is
+	 * evicted. A record which has been queried while the generation changed might be stale and is not stored.
+	 * @param type the class of the records
+	 * @return the current generation
+	 */
+	public synchronized long getGeneration(Class<?> type) {
+		return generationOf(MetadataRegistry.of(type).getTableName());
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Statistics														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the number of lookups which found a valid record
+	 * @return the number of hits
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the number of lookups of cached classes which found no valid record
+	 * @return the number of misses
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the number of records which have been removed because the cache was full
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+	
+	/**
+	 * Returns the ratio of hits to all lookups
+	 * @return the hit rate between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double)hits / (hits + misses);
+	}
+	
+	/**
+	 * Returns the number of cached records including expired ones which have not been looked up since
+	 * @return the number of records
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Returns the maximal number of cached records
+	 * @return the maximal number of records
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the generation of the given table, it grows with every eviction of the table and with clear
+	 */
+	private long generationOf(String table) {
+		return cleared + generations.getOrDefault(table.toLowerCase(Locale.ROOT), 0L);
+	}
+	
+	private void advance(String table) {
+		generations.merge(table.toLowerCase(Locale.ROOT), 1L, Long::sum);
+	}
+	
+	/**
+	 * Returns the table and the primary keys or null when a value is missing. Keys are compared by their
+	 * string representation like the relations of the KORMapper are.
+	 */
+	private static List<String> keyOf(EntityMetadata metadata, Object[] primaryKeys) {
+		if(primaryKeys.length == 0 || primaryKeys.length != metadata.getPrimaryKeys().size()) {
+			return null;
+		}
+		List<String> key = new ArrayList<>(primaryKeys.length + 1);
+		key.add(metadata.getTableName());
+		for(Object value : primaryKeys) {
+			if(value == null) {
+				return null;
+			}
+			key.add(String.valueOf(value));
+		}
+		return key;
+	}
+}
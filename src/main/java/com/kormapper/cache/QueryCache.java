@@ -0,0 +1,266 @@
+package com.kormapper.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * QueryCache - A cache of query results which may be shared by several KORMappers <br>
+ * An entry is keyed by the normalized SQL, the result type and the bound parameters and is tagged with
+ * the tables the query reads. A KORMapper with a query cache evicts every entry of a table once a write
+ * to the table has been committed, this includes plain DML by KORMapper.executeUpdate. The cache is bounded
+ * by its maximal number of entries and evicts the least recently used entry when it is full. Every entry
+ * expires after the time to live, which bounds the staleness caused by writers which do not use the cache,
+ * e.g. other processes. <br>
+ * The KORMappers which share a cache have to work on the same database.
+ * @author leonhardmuellauer
+ */
+public class QueryCache {
+	
+	private final int maxEntries;
+	private final long timeToLive;
+	private final LinkedHashMap<List<Object>, CacheEntry> entries;
+	private long version = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	
+	/**
+	 * A cached result together with the tables it depends on
+	 */
+	private static final class CacheEntry {
+		private final Object result;
+		private final Set<String> tables;
+		private final long expiresAt;
+	
+		private CacheEntry(Object result, Set<String> tables, long expiresAt) {
+			this.result = result;
+			this.tables = tables;
+			this.expiresAt = expiresAt;
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates an empty cache
+	 * @param maxEntries the maximal number of cached results
+	 * @param timeToLive the time in milliseconds a result stays valid after it has been cached, 0 means forever
+	 */
+	public QueryCache(int maxEntries, long timeToLive) {
+		if(maxEntries < 1) {
+			throw new ParamException("Error: The maximal number of entries must be greater than 0");
+		}
+		if(timeToLive < 0) {
+			throw new ParamException("Error: The time to live may not be negative");
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLive = timeToLive;
+		this.entries = new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+	
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, CacheEntry> eldest) {
+				if(size() > QueryCache.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Cache methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the cached result of the given query
+	 * @param sql the SQL query
+	 * @param resultType the type the result has been mapped to
+	 * @param parameters the bound parameters of the query
+	 * @return the cached result or null when the query is not cached or has expired
+	 */
+	public Object get(String sql, Class<?> resultType, Object[] parameters) {
+		List<Object> key = keyOf(sql, resultType, parameters);
+		synchronized(this) {
+			CacheEntry entry = entries.get(key);
+			if(entry != null && entry.expiresAt < System.currentTimeMillis()) {
+				entries.remove(key);
+				entry = null;
+			}
+			if(entry == null) {
+				misses++;
+				return null;
+			}
+			hits++;
+			return entry.result;
+		}
+	}
+	
+	/**
+	 * Stores the result of the given query. The result is ignored when the statement is no query, when its
+	 * tables could not be determined or when a table has been written since the given version.
+	 * @param sql the SQL query
+	 * @param resultType the type the result has been mapped to
+	 * @param parameters the bound parameters of the query
+	 * @param result the result, which must not be modified afterwards
+	 * @param version the version of the cache before the query has been executed, see getVersion
+	 */
+	public void put(String sql, Class<?> resultType, Object[] parameters, Object result, long version) {
+		Set<String> tables = SqlTables.readTables(sql);
+		if(tables == null || result == null) {
+			return;
+		}
+		List<Object> key = keyOf(sql, resultType, parameters);
+		long expiresAt = timeToLive == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeToLive;
+		synchronized(this) {
+			if(this.version == version) {
+				entries.put(key, new CacheEntry(result, tables, expiresAt));
+			}
+		}
+	}
+	
+	/**
+	 * Returns the version of the cache, which changes whenever a table is evicted. A result which has been
+	 * queried while the version changed might be stale and is not stored.
+	 * @return the current version
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Removes all results which depend on the given table
+	 * @param table the name of the written table
+	 */
+	public synchronized void evictTable(String table) {
+		version++;
+		String name = table.toLowerCase(Locale.ROOT);
+		Iterator<CacheEntry> it = entries.values().iterator();
+		while(it.hasNext()) {
+			if(it.next().tables.contains(name)) {
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Removes all results which depend on the table the given DML statement writes. When the table could not
+	 * be determined all results are removed.
+	 * @param sql an INSERT, REPLACE, UPDATE or DELETE statement
+	 */
+	public void evictStatement(String sql) {
+		String table = SqlTables.writtenTable(sql);
+		if(table != null) {
+			evictTable(table);
+		} else {
+			clear();
+		}
+	}
+	
+	/**
+	 * Removes all results
+	 */
+	public synchronized void clear() {
+		version++;
+		entries.clear();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Statistics														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the number of lookups which found a valid result
+	 * @return the number of hits
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the number of lookups which found no valid result
+	 * @return the number of misses
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the number of results which have been removed because the cache was full
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+	
+	/**
+	 * Returns the ratio of hits to all lookups
+	 * @return the hit rate between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		return hits + misses == 0 ? 0 : (double)hits / (hits + misses);
+	}
+	
+	/**
+	 * Returns the number of cached results including expired ones which have not been looked up since
+	 * @return the number of results
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Returns the maximal number of cached results
+	 * @return the maximal number of results
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+	
+	/**
+	 * Returns the time in milliseconds a result stays valid
+	 * @return the time to live, 0 means forever
+	 */
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private static List<Object> keyOf(String sql, Class<?> resultType, Object[] parameters) {
+		List<Object> key = new ArrayList<>(parameters.length + 2);
+		key.add(SqlTables.normalize(sql));
+		key.add(resultType);
+		key.addAll(Arrays.asList(parameters));
+		return key;
+	}
+}
@@ -0,0 +1,193 @@
+package com.kormapper.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lightweight analysis of SQL statements for the QueryCache. <br>
+ * The statement is split into words and punctuation, string literals and comments are skipped and quoted
+ * identifiers are unquoted. Table names are compared in lower case without their schema, like SQLite does.
+ * The analysis is not a parser: it only has to find every table a statement reads or writes, a superfluous
+ * name merely causes an additional eviction.
+ * @author leonhardmuellauer
+ */
+final class SqlTables {
+	
+	/** Words which end the table list of a FROM clause, an alias is every other word */
+	private static final Set<String> CLAUSES = new HashSet<>(Arrays.asList(
+			"where", "group", "order", "having", "limit", "union", "except", "intersect", "window", "on", "using",
+			"join", "left", "right", "full", "inner", "outer", "cross", "natural", "indexed", "not", "returning"));
+	
+	private SqlTables() {}
+	
+	/**
+	 * Returns the statement without redundant whitespace and without a trailing semicolon. Literals and line
+	 * comments are kept as they are.
+	 * @param sql the SQL statement
+	 * @return the normalized statement
+	 */
+	static String normalize(String sql) {
+		StringBuilder sb = new StringBuilder(sql.length());
+		char quote = 0;
+		boolean space = false;
+		for(int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+			if(quote != 0) {
+				sb.append(c);
+				if(c == quote) {
+					quote = 0;
+				}
+			} else if(Character.isWhitespace(c)) {
+				space = sb.length() > 0;
+			} else {
+				if(space) {
+					sb.append(' ');
+					space = false;
+				}
+				if(c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+					quote = '\n'; //a line comment ends with its line
+				} else if(c == '\'' || c == '"' || c == '`') {
+					quote = c;
+				} else if(c == '[') {
+					quote = ']';
+				}
+				sb.append(c);
+			}
+		}
+		while(sb.length() > 0 && (sb.charAt(sb.length() - 1) == ';' || sb.charAt(sb.length() - 1) == ' ')) {
+			sb.setLength(sb.length() - 1);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns the tables the given query reads
+	 * @param sql a SELECT statement, which may start with a WITH clause
+	 * @return the names of the tables or null when the statement is no query or names no table
+	 */
+	static Set<String> readTables(String sql) {
+		List<String> tokens = tokenize(sql);
+		if(tokens.isEmpty() || !(tokens.get(0).equals("select") || tokens.get(0).equals("with"))) {
+			return null;
+		}
+		Set<String> tables = new LinkedHashSet<>();
+		for(int i = 0; i < tokens.size(); i++) {
+			String token = tokens.get(i);
+			if(token.equals("join")) {
+				i = readTable(tokens, i + 1, tables);
+			} else if(token.equals("from")) {
+				i = readTable(tokens, i + 1, tables);
+				while(i + 1 < tokens.size() && !tokens.get(i + 1).equals(",") && isWord(tokens.get(i + 1))
+						&& !CLAUSES.contains(tokens.get(i + 1))) {
+					i++; //AS and alias
+				}
+				while(i + 2 < tokens.size() && tokens.get(i + 1).equals(",")) {
+					i = readTable(tokens, i + 2, tables);
+					while(i + 1 < tokens.size() && isWord(tokens.get(i + 1)) && !CLAUSES.contains(tokens.get(i + 1))) {
+						i++;
+					}
+				}
+			}
+		}
+		return tables.isEmpty() ? null : tables;
+	}
+	
+	/**
+	 * Returns the table the given DML statement writes
+	 * @param sql an INSERT, REPLACE, UPDATE or DELETE statement
+	 * @return the name of the table or null when the statement could not be analyzed
+	 */
+	static String writtenTable(String sql) {
+		List<String> tokens = tokenize(sql);
+		int i = 0;
+		if(!tokens.isEmpty() && tokens.get(0).equals("with")) {
+			return null; //a CTE may hide the target among its own names
+		}
+		if(tokens.size() > 1 && (tokens.get(0).equals("insert") || tokens.get(0).equals("replace"))) {
+			i = tokens.indexOf("into");
+		} else if(tokens.size() > 1 && tokens.get(0).equals("delete")) {
+			i = tokens.indexOf("from");
+		} else if(tokens.size() > 1 && tokens.get(0).equals("update")) {
+			i = tokens.size() > 3 && tokens.get(1).equals("or") ? 2 : 0;
+		} else {
+			return null;
+		}
+		if(i < 0 || i + 1 >= tokens.size() || !isWord(tokens.get(i + 1))) {
+			return null;
+		}
+		return tableName(tokens.get(i + 1));
+	}
+	
+	/**
+	 * Adds the table at the given token to the given set
+	 * @return the index of the last consumed token
+	 */
+	private static int readTable(List<String> tokens, int i, Set<String> tables) {
+		if(i < tokens.size() && isWord(tokens.get(i))) {
+			tables.add(tableName(tokens.get(i)));
+			return i;
+		}
+		return i - 1; //a subquery, its tables follow
+	}
+	
+	private static String tableName(String token) {
+		int dot = token.lastIndexOf('.');
+		return dot >= 0 ? token.substring(dot + 1) : token;
+	}
+	
+	private static boolean isWord(String token) {
+		return token.length() > 1 || token.length() == 1 && (Character.isLetterOrDigit(token.charAt(0)) || token.charAt(0) == '_');
+	}
+	
+	/**
+	 * Returns the words in lower case and the single punctuation characters of the given statement
+	 */
+	private static List<String> tokenize(String sql) {
+		List<String> tokens = new ArrayList<>();
+		int i = 0;
+		int n = sql.length();
+		while(i < n) {
+			char c = sql.charAt(i);
+			if(Character.isWhitespace(c)) {
+				i++;
+			} else if(c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+				while(i < n && sql.charAt(i) != '\n') {
+					i++;
+				}
+			} else if(c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+				int end = sql.indexOf("*/", i + 2);
+				i = end < 0 ? n : end + 2;
+			} else if(c == '\'') {
+				int end = sql.indexOf('\'', i + 1);
+				i = end < 0 ? n : end + 1; //a doubled quote simply starts the next literal
+			} else if(c == '"' || c == '`' || c == '[' || Character.isLetterOrDigit(c) || c == '_') {
+				StringBuilder word = new StringBuilder();
+				while(i < n) {
+					c = sql.charAt(i);
+					if(c == '"' || c == '`' || c == '[') {
+						char close = c == '[' ? ']' : c;
+						int end = sql.indexOf(close, i + 1);
+						end = end < 0 ? n : end;
+						word.append(sql, i + 1, end);
+						i = Math.min(end + 1, n);
+					} else if(Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.') {
+						word.append(c);
+						i++;
+					} else {
+						break;
+					}
+				}
+				tokens.add(word.toString().toLowerCase(Locale.ROOT));
+			} else {
+				tokens.add(String.valueOf(c));
+				i++;
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,22 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A connection which keeps the PreparedStatements of JDBC batches apart from the ones of single executions. <br>
+ * The connections of a KORConnectionPool implement this interface. The SQLite driver keeps the grown buffer of
+ * a batch, thus a statement which has been used for a batch is only reused for further batches.
+ * @author leonhardmuellauer
+ */
+public interface BatchConnection extends Connection {
+	
+	/**
+	 * Returns a statement of the given SQL which is executed by addBatch/executeBatch only
+	 * @param sql the SQL of the statement
+	 * @return a statement which may be reused by later batches of the same SQL
+	 * @throws SQLException when the statement could not be prepared
+	 */
+	PreparedStatement prepareBatchStatement(String sql) throws SQLException;
+}
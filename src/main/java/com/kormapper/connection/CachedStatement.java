@@ -0,0 +1,648 @@
+package com.kormapper.connection;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A PreparedStatement of a StatementCache which is handed out to a single borrower. <br>
+ * Every call is delegated directly to the physical statement, closing it returns the physical statement to the
+ * cache. A statement of the batch statements is only executed by executeBatch, a single-use statement which
+ * has been batched anyway is closed instead of being cached.
+ * @author leonhardmuellauer
+ */
+final class CachedStatement implements PreparedStatement {
+	
+	private final StatementCache cache;
+	private final String sql;
+	private final PreparedStatement stmt;
+	private final Connection logical;
+	private final boolean forBatches;
+	private boolean batched = false;
+	private boolean closed = false;
+	
+	CachedStatement(StatementCache cache, String sql, PreparedStatement stmt, Connection logical, boolean forBatches) {
+		this.cache = cache;
+		this.sql = sql;
+		this.stmt = stmt;
+		this.logical = logical;
+		this.forBatches = forBatches;
+	}
+	
+	/**
+	 * Returns the physical statement as long as this statement is open
+	 */
+	private PreparedStatement stmt() throws SQLException {
+		if(closed) {
+			throw new SQLException("Statement is closed");
+		}
+		return stmt;
+	}
+	
+	/**
+	 * Returns the physical statement for a single execution, which a statement of the batch statements refuses
+	 */
+	private PreparedStatement single() throws SQLException {
+		if(forBatches) {
+			throw new SQLException("Error: A statement prepared for batches is only executed by executeBatch");
+		}
+		return stmt();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Cache methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	@Override
+	public void close() throws SQLException {
+		if(!closed) {
+			closed = true;
+			cache.giveBack(sql, stmt, forBatches, batched);
+		}
+	}
+	
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed || stmt.isClosed();
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		stmt();
+		return logical;
+	}
+	
+	@Override
+	public void addBatch() throws SQLException {
+		stmt().addBatch();
+		batched = true;
+	}
+	
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		return single().executeQuery();
+	}
+	
+	@Override
+	public int executeUpdate() throws SQLException {
+		return single().executeUpdate();
+	}
+	
+	@Override
+	public boolean execute() throws SQLException {
+		return single().execute();
+	}
+	
+	@Override
+	public long executeLargeUpdate() throws SQLException {
+		return single().executeLargeUpdate();
+	}
+	
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return stmt().unwrap(iface);
+	}
+	
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return stmt().isWrapperFor(iface);
+	}
+	
+	@Override
+	public String toString() {
+		return "CachedStatement["+sql+"]";
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Delegated methods												     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		stmt().setNull(parameterIndex, sqlType);
+	}
+	
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		stmt().setBoolean(parameterIndex, x);
+	}
+	
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		stmt().setByte(parameterIndex, x);
+	}
+	
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		stmt().setShort(parameterIndex, x);
+	}
+	
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		stmt().setInt(parameterIndex, x);
+	}
+	
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		stmt().setLong(parameterIndex, x);
+	}
+	
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		stmt().setFloat(parameterIndex, x);
+	}
+	
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		stmt().setDouble(parameterIndex, x);
+	}
+	
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+		stmt().setBigDecimal(parameterIndex, x);
+	}
+	
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		stmt().setString(parameterIndex, x);
+	}
+	
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		stmt().setBytes(parameterIndex, x);
+	}
+	
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		stmt().setDate(parameterIndex, x);
+	}
+	
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		stmt().setTime(parameterIndex, x);
+	}
+	
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+		stmt().setTimestamp(parameterIndex, x);
+	}
+	
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		stmt().setAsciiStream(parameterIndex, x, length);
+	}
+	
+	@Override
+	@Deprecated
+	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		stmt().setUnicodeStream(parameterIndex, x, length);
+	}
+	
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		stmt().setBinaryStream(parameterIndex, x, length);
+	}
+	
+	@Override
+	public void clearParameters() throws SQLException {
+		stmt().clearParameters();
+	}
+	
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+		stmt().setObject(parameterIndex, x, targetSqlType);
+	}
+	
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		stmt().setObject(parameterIndex, x);
+	}
+	
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+		stmt().setCharacterStream(parameterIndex, reader, length);
+	}
+	
+	@Override
+	public void setRef(int parameterIndex, Ref x) throws SQLException {
+		stmt().setRef(parameterIndex, x);
+	}
+	
+	@Override
+	public void setBlob(int parameterIndex, Blob x) throws SQLException {
+		stmt().setBlob(parameterIndex, x);
+	}
+	
+	@Override
+	public void setClob(int parameterIndex, Clob x) throws SQLException {
+		stmt().setClob(parameterIndex, x);
+	}
+	
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		stmt().setArray(parameterIndex, x);
+	}
+	
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return stmt().getMetaData();
+	}
+	
+	@Override
+	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+		stmt().setDate(parameterIndex, x, cal);
+	}
+	
+	@Override
+	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+		stmt().setTime(parameterIndex, x, cal);
+	}
+	
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+		stmt().setTimestamp(parameterIndex, x, cal);
+	}
+	
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		stmt().setNull(parameterIndex, sqlType, typeName);
+	}
+	
+	@Override
+	public void setURL(int parameterIndex, URL x) throws SQLException {
+		stmt().setURL(parameterIndex, x);
+	}
+	
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		return stmt().getParameterMetaData();
+	}
+	
+	@Override
+	public void setRowId(int parameterIndex, RowId x) throws SQLException {
+		stmt().setRowId(parameterIndex, x);
+	}
+	
+	@Override
+	public void setNString(int parameterIndex, String value) throws SQLException {
+		stmt().setNString(parameterIndex, value);
+	}
+	
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+		stmt().setNCharacterStream(parameterIndex, value, length);
+	}
+	
+	@Override
+	public void setNClob(int parameterIndex, NClob value) throws SQLException {
+		stmt().setNClob(parameterIndex, value);
+	}
+	
+	@Override
+	public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		stmt().setClob(parameterIndex, reader, length);
+	}
+	
+	@Override
+	public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+		stmt().setBlob(parameterIndex, inputStream, length);
+	}
+	
+	@Override
+	public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		stmt().setNClob(parameterIndex, reader, length);
+	}
+	
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+		stmt().setSQLXML(parameterIndex, xmlObject);
+	}
+	
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+		stmt().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+	}
+	
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		stmt().setAsciiStream(parameterIndex, x, length);
+	}
+	
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		stmt().setBinaryStream(parameterIndex, x, length);
+	}
+	
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+		stmt().setCharacterStream(parameterIndex, reader, length);
+	}
+	
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+		stmt().setAsciiStream(parameterIndex, x);
+	}
+	
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+		stmt().setBinaryStream(parameterIndex, x);
+	}
+	
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+		stmt().setCharacterStream(parameterIndex, reader);
+	}
+	
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+		stmt().setNCharacterStream(parameterIndex, value);
+	}
+	
+	@Override
+	public void setClob(int parameterIndex, Reader reader) throws SQLException {
+		stmt().setClob(parameterIndex, reader);
+	}
+	
+	@Override
+	public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+		stmt().setBlob(parameterIndex, inputStream);
+	}
+	
+	@Override
+	public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+		stmt().setNClob(parameterIndex, reader);
+	}
+	
+	@Override
+	public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+		stmt().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+	}
+	
+	@Override
+	public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+		stmt().setObject(parameterIndex, x, targetSqlType);
+	}
+	
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		return stmt().executeQuery(sql);
+	}
+	
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		return stmt().executeUpdate(sql);
+	}
+	
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		return stmt().getMaxFieldSize();
+	}
+	
+	@Override
+	public void setMaxFieldSize(int max) throws SQLException {
+		stmt().setMaxFieldSize(max);
+	}
+	
+	@Override
+	public int getMaxRows() throws SQLException {
+		return stmt().getMaxRows();
+	}
+	
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		stmt().setMaxRows(max);
+	}
+	
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		stmt().setEscapeProcessing(enable);
+	}
+	
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return stmt().getQueryTimeout();
+	}
+	
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		stmt().setQueryTimeout(seconds);
+	}
+	
+	@Override
+	public void cancel() throws SQLException {
+		stmt().cancel();
+	}
+	
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return stmt().getWarnings();
+	}
+	
+	@Override
+	public void clearWarnings() throws SQLException {
+		stmt().clearWarnings();
+	}
+	
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		stmt().setCursorName(name);
+	}
+	
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		return stmt().execute(sql);
+	}
+	
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return stmt().getResultSet();
+	}
+	
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return stmt().getUpdateCount();
+	}
+	
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		return stmt().getMoreResults();
+	}
+	
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		stmt().setFetchDirection(direction);
+	}
+	
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return stmt().getFetchDirection();
+	}
+	
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		stmt().setFetchSize(rows);
+	}
+	
+	@Override
+	public int getFetchSize() throws SQLException {
+		return stmt().getFetchSize();
+	}
+	
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return stmt().getResultSetConcurrency();
+	}
+	
+	@Override
+	public int getResultSetType() throws SQLException {
+		return stmt().getResultSetType();
+	}
+	
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		stmt().addBatch(sql);
+	}
+	
+	@Override
+	public void clearBatch() throws SQLException {
+		stmt().clearBatch();
+	}
+	
+	@Override
+	public int[] executeBatch() throws SQLException {
+		return stmt().executeBatch();
+	}
+	
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		return stmt().getMoreResults(current);
+	}
+	
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return stmt().getGeneratedKeys();
+	}
+	
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		return stmt().executeUpdate(sql, autoGeneratedKeys);
+	}
+	
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		return stmt().executeUpdate(sql, columnIndexes);
+	}
+	
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		return stmt().executeUpdate(sql, columnNames);
+	}
+	
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		return stmt().execute(sql, autoGeneratedKeys);
+	}
+	
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		return stmt().execute(sql, columnIndexes);
+	}
+	
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		return stmt().execute(sql, columnNames);
+	}
+	
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		return stmt().getResultSetHoldability();
+	}
+	
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		stmt().setPoolable(poolable);
+	}
+	
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return stmt().isPoolable();
+	}
+	
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		stmt().closeOnCompletion();
+	}
+	
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return stmt().isCloseOnCompletion();
+	}
+	
+	@Override
+	public long getLargeUpdateCount() throws SQLException {
+		return stmt().getLargeUpdateCount();
+	}
+	
+	@Override
+	public void setLargeMaxRows(long max) throws SQLException {
+		stmt().setLargeMaxRows(max);
+	}
+	
+	@Override
+	public long getLargeMaxRows() throws SQLException {
+		return stmt().getLargeMaxRows();
+	}
+	
+	@Override
+	public long[] executeLargeBatch() throws SQLException {
+		return stmt().executeLargeBatch();
+	}
+	
+	@Override
+	public long executeLargeUpdate(String sql) throws SQLException {
+		return stmt().executeLargeUpdate(sql);
+	}
+	
+	@Override
+	public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		return stmt().executeLargeUpdate(sql, autoGeneratedKeys);
+	}
+	
+	@Override
+	public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		return stmt().executeLargeUpdate(sql, columnIndexes);
+	}
+	
+	@Override
+	public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+		return stmt().executeLargeUpdate(sql, columnNames);
+	}
+}
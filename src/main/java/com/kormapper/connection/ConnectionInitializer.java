@@ -0,0 +1,19 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Prepares a physical connection once after it has been opened, e.g. by setting PRAGMAs or session variables.
+ * @author leonhardmuellauer
+ */
+@FunctionalInterface
+public interface ConnectionInitializer {
+	
+	/**
+	 * Initializes the given connection before it is used for the first time
+	 * @param connection the newly opened physical connection
+	 * @throws SQLException when the connection could not be initialized, the connection is closed then
+	 */
+	void initialize(Connection connection) throws SQLException;
+}
@@ -0,0 +1,37 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+
+import com.kormapper.exception.CommunicationException;
+
+/**
+ * Supplies the KORMapper with connections to the database. <br>
+ * A connection that is handed out by a ConnectionProvider is closed by the KORMapper as soon as it is not needed anymore,
+ * thus a pooling ConnectionProvider has to take the connection back on close.
+ * @author leonhardmuellauer
+ */
+public interface ConnectionProvider extends AutoCloseable {
+	
+	/**
+	 * Returns a connection to the database
+	 * @return the Connection object
+	 * @throws CommunicationException when the connection could not be established
+	 */
+	Connection getConnection() throws CommunicationException;
+	
+	/**
+	 * Returns a connection for writes, i.e. DML, DDL and transactions. A provider which separates readers
+	 * from writers overrides this method, by default it is the same as getConnection.
+	 * @return the Connection object
+	 * @throws CommunicationException when the connection could not be established
+	 */
+	default Connection getWriteConnection() throws CommunicationException {
+		return getConnection();
+	}
+	
+	/**
+	 * Releases all resources held by this ConnectionProvider
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,53 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.kormapper.exception.CommunicationException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * Borrows the connections from an external DataSource, e.g. the connection pool of an application server.
+ * @author leonhardmuellauer
+ */
+public class DataSourceConnectionProvider implements ConnectionProvider {
+	
+	private final DataSource dataSource;
+	
+	/**
+	 * Instantiates a DataSourceConnectionProvider with the given DataSource
+	 * @param dataSource the DataSource the connections are borrowed from
+	 */
+	public DataSourceConnectionProvider(DataSource dataSource) {
+		if(dataSource != null) {
+			this.dataSource = dataSource;
+		} else {
+			throw new ParamException("Error: The DataSource may not be null");
+		}
+	}
+	
+	@Override
+	public Connection getConnection() throws CommunicationException {
+		try {
+			return dataSource.getConnection();
+		} catch (SQLException e) {
+			throw new CommunicationException("Error: Could not connect to the DataSource: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * The DataSource is owned by the caller, therefore it is not closed
+	 */
+	@Override
+	public void close() { }
+	
+	/**
+	 * Returns the DataSource
+	 * @return the DataSource the connections are borrowed from
+	 */
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+}
@@ -0,0 +1,75 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import com.kormapper.exception.CommunicationException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * Opens a new physical connection with the DriverManager on every request. The PreparedStatements are closed
+ * with their connection and are not reused, a KORConnectionPool caches them per connection.
+ * @author leonhardmuellauer
+ */
+public class DriverManagerConnectionProvider implements ConnectionProvider {
+	
+	private final String url;
+	private final ConnectionInitializer connectionInitializer;
+	
+	/**
+	 * Instantiates a DriverManagerConnectionProvider with the given URL
+	 * @param url the URL to the database
+	 */
+	public DriverManagerConnectionProvider(String url) {
+		this(url, null);
+	}
+	
+	/**
+	 * Instantiates a DriverManagerConnectionProvider which applies the given initializer to every connection
+	 * @param url the URL to the database
+	 * @param connectionInitializer the initializer of the connections or null
+	 */
+	public DriverManagerConnectionProvider(String url, ConnectionInitializer connectionInitializer) {
+		if(url != null && url.length() > 0) {
+			this.url = url;
+			this.connectionInitializer = connectionInitializer;
+		} else {
+			throw new ParamException("Error: The length of the path string must be greater than 0");
+		}
+	}
+	
+	@Override
+	public Connection getConnection() throws CommunicationException {
+		Connection connection;
+		try {
+			connection = DriverManager.getConnection(url);
+		} catch (SQLException e) {
+			throw new CommunicationException("Error: Could not connect to "+url);
+		}
+		if(connectionInitializer != null) {
+			try {
+				connectionInitializer.initialize(connection);
+			} catch (SQLException | RuntimeException e) {
+				try {
+					connection.close();
+				} catch (SQLException ignored) {
+					//the initialization error is reported
+				}
+				throw new CommunicationException("Error: Could not initialize the connection to "+url+": "+e.getMessage());
+			}
+		}
+		return connection;
+	}
+	
+	@Override
+	public void close() { }
+	
+	/**
+	 * Returns the URL
+	 * @return the URL to the database
+	 */
+	public String getURL() {
+		return url;
+	}
+}
@@ -0,0 +1,301 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.kormapper.exception.CommunicationException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * A bounded pool of JDBC connections. <br>
+ * Callers wait in a fair queue when all connections are in use. Idle connections are validated before they
+ * are handed out again, closed after the idle timeout and connections which are not returned in time are
+ * reported as leaks. Every connection keeps its PreparedStatements in a bounded LRU cache.
+ * @author leonhardmuellauer
+ */
+public class KORConnectionPool implements ConnectionProvider {
+	
+	private static final Logger LOGGER = Logger.getLogger(KORConnectionPool.class.getName());
+	
+	/** Connections which were returned less than this amount of milliseconds ago are not validated */
+	private static final long VALIDATION_INTERVAL = 500;
+	private static final long HOUSEKEEPING_INTERVAL = 1000;
+	
+	private final PoolConfig config;
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger size = new AtomicInteger();
+	private final ScheduledExecutorService housekeeper;
+	private volatile boolean closed = false;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a KORConnectionPool. The minimal number of connections is opened in the background.
+	 * @param config the configuration of the pool
+	 */
+	public KORConnectionPool(PoolConfig config) {
+		if(config == null) {
+			throw new ParamException("Error: The PoolConfig may not be null");
+		}
+		if(config.getMinSize() > config.getMaxSize()) {
+			throw new ParamException("Error: The minimal size of the pool may not exceed the maximal size");
+		}
+		this.config = config;
+		this.permits = new Semaphore(config.getMaxSize(), true);
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "kormapper-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		housekeeper.scheduleWithFixedDelay(this::houseKeeping, 0, HOUSEKEEPING_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * ConnectionProvider methods										     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Borrows a connection of the pool. The connection is returned to the pool when it is closed.
+	 * @return the borrowed connection
+	 * @throws CommunicationException when the pool is closed before or while waiting, no connection became
+	 * available within the acquisition timeout or a new connection could not be established
+	 */
+	@Override
+	public Connection getConnection() throws CommunicationException {
+		if(closed) {
+			throw closedException();
+		}
+		try {
+			if(!permits.tryAcquire(config.getAcquisitionTimeout(), TimeUnit.MILLISECONDS)) {
+				throw new CommunicationException("Error: No connection to "+config.getURL()+" became available within "
+						+config.getAcquisitionTimeout()+" ms");
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommunicationException("Error: Interrupted while waiting for a connection to "+config.getURL());
+		}
+		if(closed) {
+			permits.release(); //passes the wake-up of close on to the next waiting borrower
+			throw closedException();
+		}
+		try {
+			PooledConnection connection;
+			while((connection = idle.pollFirst()) != null) {
+				if(isUsable(connection)) {
+					return borrow(connection);
+				}
+				discard(connection);
+			}
+			return borrow(open());
+		} catch(CommunicationException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Closes all idle connections. Borrowed connections are closed as soon as they are returned and callers
+	 * waiting for a connection fail with a CommunicationException.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		permits.release(config.getMaxSize());
+		housekeeper.shutdownNow();
+		PooledConnection connection;
+		while((connection = idle.pollFirst()) != null) {
+			discard(connection);
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Internal methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Takes a connection back which has been closed by its borrower
+	 * @param connection the returned connection
+	 */
+	void release(PooledConnection connection) {
+		borrowed.remove(connection);
+		try {
+			Connection physical = connection.physical();
+			if(!physical.getAutoCommit()) {
+				physical.rollback();
+				physical.setAutoCommit(true);
+			}
+			if(closed) {
+				discard(connection);
+			} else {
+				connection.lastReturned = System.currentTimeMillis();
+				idle.offerFirst(connection);
+			}
+		} catch(SQLException e) {
+			discard(connection);
+		} finally {
+			permits.release();
+		}
+	}
+	
+	private CommunicationException closedException() {
+		return new CommunicationException("Error: The connection pool of "+config.getURL()+" is closed");
+	}
+	
+	private Connection borrow(PooledConnection connection) {
+		connection.borrowedAt = System.currentTimeMillis();
+		connection.leakReported = false;
+		connection.borrowTrace = config.getLeakDetectionThreshold() > 0 ? new Throwable("Connection borrowed here") : null;
+		borrowed.add(connection);
+		return connection.logical();
+	}
+	
+	private PooledConnection open() throws CommunicationException {
+		Connection physical;
+		try {
+			physical = DriverManager.getConnection(config.getURL());
+		} catch(SQLException e) {
+			throw new CommunicationException("Error: Could not connect to "+config.getURL());
+		}
+		if(config.getConnectionInitializer() != null) {
+			try {
+				config.getConnectionInitializer().initialize(physical);
+			} catch(SQLException | RuntimeException e) {
+				try {
+					physical.close();
+				} catch(SQLException ignored) {
+					//the initialization error is reported
+				}
+				throw new CommunicationException("Error: Could not initialize the connection to "+config.getURL()+": "+e.getMessage());
+			}
+		}
+		PooledConnection connection = new PooledConnection(this, physical, config.getStatementCacheSize());
+		size.incrementAndGet();
+		return connection;
+	}
+	
+	private void discard(PooledConnection connection) {
+		size.decrementAndGet();
+		connection.closePhysical();
+	}
+	
+	private boolean isUsable(PooledConnection connection) {
+		if(System.currentTimeMillis() - connection.lastReturned < VALIDATION_INTERVAL) {
+			return true;
+		}
+		try {
+			if(config.getValidationQuery() == null) {
+				return connection.physical().isValid(5);
+			}
+			try(Statement stmt = connection.physical().createStatement()) {
+				stmt.execute(config.getValidationQuery());
+				return true;
+			}
+		} catch(SQLException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Closes connections that have been idle for too long, opens connections until the minimal size is reached
+	 * and reports leaked connections
+	 */
+	private void houseKeeping() {
+		long now = System.currentTimeMillis();
+		if(config.getIdleTimeout() > 0) {
+			for(PooledConnection connection : idle) {
+				if(size.get() > config.getMinSize() && now - connection.lastReturned > config.getIdleTimeout()
+						&& idle.remove(connection)) {
+					discard(connection);
+				}
+			}
+		}
+		while(!closed && size.get() < config.getMinSize() && permits.tryAcquire()) {
+			try {
+				PooledConnection connection = open();
+				idle.offerLast(connection);
+			} catch(CommunicationException e) {
+				LOGGER.log(Level.WARNING, e.getMessage());
+				break;
+			} finally {
+				permits.release();
+			}
+		}
+		if(config.getLeakDetectionThreshold() > 0) {
+			for(PooledConnection connection : borrowed) {
+				if(!connection.leakReported && now - connection.borrowedAt > config.getLeakDetectionThreshold()) {
+					connection.leakReported = true;
+					LOGGER.log(Level.WARNING, "Connection to "+config.getURL()+" has been borrowed for more than "
+							+config.getLeakDetectionThreshold()+" ms, apparent connection leak", connection.borrowTrace);
+				}
+			}
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the configuration of this pool
+	 * @return the configuration of this pool
+	 */
+	public PoolConfig getConfig() {
+		return config;
+	}
+	
+	/**
+	 * Returns the number of open physical connections
+	 * @return the number of open connections
+	 */
+	public int getTotalConnections() {
+		return size.get();
+	}
+	
+	/**
+	 * Returns the number of connections which are currently not borrowed
+	 * @return the number of idle connections
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+	
+	/**
+	 * Returns the number of connections which are currently borrowed
+	 * @return the number of borrowed connections
+	 */
+	public int getActiveConnections() {
+		return borrowed.size();
+	}
+}
@@ -0,0 +1,237 @@
+package com.kormapper.connection;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * Configuration of a KORConnectionPool. All durations are given in milliseconds.
+ * @author leonhardmuellauer
+ */
+public class PoolConfig {
+	
+	private String url;
+	private int minSize = 1;
+	private int maxSize = 10;
+	private String validationQuery = null;
+	private long idleTimeout = 600_000;
+	private long acquisitionTimeout = 30_000;
+	private long leakDetectionThreshold = 0;
+	private int statementCacheSize = 64;
+	private ConnectionInitializer connectionInitializer = null;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a PoolConfig for the given URL with the default settings <br>
+	 * <b>minSize</b> 1, <b>maxSize</b> 10, <b>idleTimeout</b> 10 minutes, <b>acquisitionTimeout</b> 30 seconds,
+	 * no validation query, no leak detection, a <b>statementCacheSize</b> of 64 per connection and no
+	 * connection initializer
+	 * @param url the URL to the database
+	 */
+	public PoolConfig(String url) {
+		setURL(url);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET- and SET methods												     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the URL
+	 * @return the URL to the database
+	 */
+	public String getURL() {
+		return url;
+	}
+	
+	/**
+	 * Sets the URL
+	 * @param url the URL to be set
+	 */
+	public void setURL(String url) {
+		if(url != null && url.length() > 0) {
+			this.url = url;
+		} else {
+			throw new ParamException("Error: The length of the path string must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the number of connections the pool keeps open even when they are idle
+	 * @return the minimal size of the pool
+	 */
+	public int getMinSize() {
+		return minSize;
+	}
+	
+	/**
+	 * Sets the number of connections the pool keeps open even when they are idle
+	 * @param minSize the minimal size of the pool
+	 */
+	public void setMinSize(int minSize) {
+		if(minSize >= 0) {
+			this.minSize = minSize;
+		} else {
+			throw new ParamException("Error: The minimal size of the pool may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the maximal number of open connections
+	 * @return the maximal size of the pool
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+	
+	/**
+	 * Sets the maximal number of open connections
+	 * @param maxSize the maximal size of the pool
+	 */
+	public void setMaxSize(int maxSize) {
+		if(maxSize > 0) {
+			this.maxSize = maxSize;
+		} else {
+			throw new ParamException("Error: The maximal size of the pool must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the query which is issued to check whether an idle connection is still usable
+	 * @return the validation query or null when Connection.isValid is used
+	 */
+	public String getValidationQuery() {
+		return validationQuery;
+	}
+	
+	/**
+	 * Sets the query which is issued to check whether an idle connection is still usable
+	 * @param validationQuery the validation query or null to use Connection.isValid
+	 */
+	public void setValidationQuery(String validationQuery) {
+		this.validationQuery = validationQuery;
+	}
+	
+	/**
+	 * Returns the time after which an idle connection above the minimal size is closed
+	 * @return the idle timeout
+	 */
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+	
+	/**
+	 * Sets the time after which an idle connection above the minimal size is closed
+	 * @param idleTimeout the idle timeout or 0 to keep idle connections open
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		if(idleTimeout >= 0) {
+			this.idleTimeout = idleTimeout;
+		} else {
+			throw new ParamException("Error: The idle timeout may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the time a caller waits for a connection when all connections are in use
+	 * @return the acquisition timeout
+	 */
+	public long getAcquisitionTimeout() {
+		return acquisitionTimeout;
+	}
+	
+	/**
+	 * Sets the time a caller waits for a connection when all connections are in use
+	 * @param acquisitionTimeout the acquisition timeout
+	 */
+	public void setAcquisitionTimeout(long acquisitionTimeout) {
+		if(acquisitionTimeout >= 0) {
+			this.acquisitionTimeout = acquisitionTimeout;
+		} else {
+			throw new ParamException("Error: The acquisition timeout may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the time after which a borrowed connection that has not been closed is reported as leak
+	 * @return the leak detection threshold
+	 */
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+	
+	/**
+	 * Sets the time after which a borrowed connection that has not been closed is reported as leak
+	 * @param leakDetectionThreshold the leak detection threshold or 0 to disable the leak detection
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		if(leakDetectionThreshold >= 0) {
+			this.leakDetectionThreshold = leakDetectionThreshold;
+		} else {
+			throw new ParamException("Error: The leak detection threshold may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the number of PreparedStatements which are cached per connection
+	 * @return the size of the statement cache
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+	
+	/**
+	 * Sets the number of PreparedStatements which are cached per connection
+	 * @param statementCacheSize the size of the statement cache or 0 to disable the cache
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		if(statementCacheSize >= 0) {
+			this.statementCacheSize = statementCacheSize;
+		} else {
+			throw new ParamException("Error: The size of the statement cache may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the initializer which is applied once to every newly opened physical connection
+	 * @return the connection initializer or null
+	 */
+	public ConnectionInitializer getConnectionInitializer() {
+		return connectionInitializer;
+	}
+	
+	/**
+	 * Sets the initializer which is applied once to every newly opened physical connection, e.g.
+	 * SqliteTuning.highThroughput()
+	 * @param connectionInitializer the connection initializer or null to use the connections as they are opened
+	 */
+	public void setConnectionInitializer(ConnectionInitializer connectionInitializer) {
+		this.connectionInitializer = connectionInitializer;
+	}
+	
+	/**
+	 * Returns a copy of this configuration
+	 * @return a new PoolConfig with the same settings
+	 */
+	PoolConfig copy() {
+		PoolConfig copy = new PoolConfig(url);
+		copy.minSize = minSize;
+		copy.maxSize = maxSize;
+		copy.validationQuery = validationQuery;
+		copy.idleTimeout = idleTimeout;
+		copy.acquisitionTimeout = acquisitionTimeout;
+		copy.leakDetectionThreshold = leakDetectionThreshold;
+		copy.statementCacheSize = statementCacheSize;
+		copy.connectionInitializer = connectionInitializer;
+		return copy;
+	}
+}
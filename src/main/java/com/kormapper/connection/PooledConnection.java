@@ -0,0 +1,111 @@
+package com.kormapper.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A physical connection that is owned by a KORConnectionPool. <br>
+ * Every time the connection is borrowed a new logical connection is handed out whose close method
+ * returns the physical connection to the pool. The PreparedStatements of the connection are kept in a
+ * StatementCache when the pool is configured with a statement cache size, the logical connection is a
+ * BatchConnection which keeps the statements of batches apart.
+ * @author leonhardmuellauer
+ */
+final class PooledConnection {
+	
+	private final KORConnectionPool pool;
+	private final Connection physical;
+	private final StatementCache statementCache;
+	
+	volatile long lastReturned;
+	volatile long borrowedAt;
+	volatile Throwable borrowTrace;
+	volatile boolean leakReported;
+	
+	PooledConnection(KORConnectionPool pool, Connection physical, int statementCacheSize) {
+		this.pool = pool;
+		this.physical = physical;
+		this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+		this.lastReturned = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Returns the physical connection
+	 * @return the physical connection
+	 */
+	Connection physical() {
+		return physical;
+	}
+	
+	/**
+	 * Creates a new logical connection which delegates to the physical connection until it is closed
+	 * @return the logical connection
+	 */
+	Connection logical() {
+		return (Connection)Proxy.newProxyInstance(BatchConnection.class.getClassLoader(), new Class<?>[] {BatchConnection.class}, new Handle());
+	}
+	
+	/**
+	 * Closes the physical connection and ignores any error
+	 */
+	void closePhysical() {
+		if(statementCache != null) {
+			statementCache.clear();
+		}
+		try {
+			physical.close();
+		} catch(SQLException e) {
+			//The connection is discarded anyway
+		}
+	}
+	
+	
+	/**
+	 * The InvocationHandler of a logical connection
+	 */
+	private final class Handle implements InvocationHandler {
+		
+		private boolean closed = false;
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch(method.getName()) {
+			case "close":
+				if(!closed) {
+					closed = true;
+					pool.release(PooledConnection.this);
+				}
+				return null;
+			case "isClosed":
+				return closed || physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection["+physical+"]";
+			default:
+				if(closed) {
+					throw new SQLException("Connection is closed");
+				}
+				if(method.getName().equals("prepareBatchStatement")) {
+					return statementCache != null ? statementCache.prepare(physical, (Connection)proxy, (String)args[0], true)
+							: physical.prepareStatement((String)args[0]);
+				}
+				if(statementCache != null && method.getName().equals("prepareStatement")
+						&& method.getParameterCount() == 1) {
+					return statementCache.prepare(physical, (Connection)proxy, (String)args[0], false);
+				}
+				try {
+					return method.invoke(physical, args);
+				} catch(InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+}
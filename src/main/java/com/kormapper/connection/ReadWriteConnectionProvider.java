@@ -0,0 +1,121 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import com.kormapper.exception.CommunicationException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * ReadWriteConnectionProvider - Single writer and multiple readers for SQLite <br>
+ * SQLite permits only one writer at a time, concurrent writers on several connections fail with SQLITE_BUSY
+ * or wait for the busy timeout in no particular order. This provider routes every write of the KORMapper to
+ * a pool with a single writer connection, the writers wait for it in a fair queue. Queries are spread over a
+ * pool of read-only connections, which read in parallel to each other and to the writer when the database
+ * is in WAL mode, e.g. with SqliteTuning.highThroughput() as connection initializer. <br>
+ * The readers are opened with PRAGMA query_only, thus a write issued on a reader fails instead of competing
+ * with the writer.
+ * @author leonhardmuellauer
+ */
+public class ReadWriteConnectionProvider implements ConnectionProvider {
+	
+	private final KORConnectionPool writer;
+	private final KORConnectionPool readers;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a ReadWriteConnectionProvider. The sizes of the given configuration apply to the readers,
+	 * the writer pool keeps exactly one connection open. The acquisition timeout is the maximal time a write
+	 * waits in the queue of the writer.
+	 * @param config the configuration of the pools, its connection initializer is applied to all connections
+	 */
+	public ReadWriteConnectionProvider(PoolConfig config) {
+		if(config == null) {
+			throw new ParamException("Error: The PoolConfig may not be null");
+		}
+		PoolConfig writerConfig = config.copy();
+		writerConfig.setMaxSize(1);
+		writerConfig.setMinSize(1);
+		writerConfig.setIdleTimeout(0);
+		PoolConfig readerConfig = config.copy();
+		ConnectionInitializer initializer = config.getConnectionInitializer();
+		readerConfig.setConnectionInitializer(connection -> {
+			if(initializer != null) {
+				initializer.initialize(connection);
+			}
+			try(Statement stmt = connection.createStatement()) {
+				stmt.execute("PRAGMA query_only = 1");
+			}
+		});
+		this.writer = new KORConnectionPool(writerConfig);
+		this.readers = new KORConnectionPool(readerConfig);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * ConnectionProvider methods										     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Borrows a read-only connection
+	 * @return a connection of the reader pool
+	 * @throws CommunicationException when no reader became available within the acquisition timeout
+	 */
+	@Override
+	public Connection getConnection() throws CommunicationException {
+		return readers.getConnection();
+	}
+	
+	/**
+	 * Borrows the writer connection, the callers wait in a fair queue while it is in use
+	 * @return the connection of the writer pool
+	 * @throws CommunicationException when the writer did not become available within the acquisition timeout
+	 */
+	@Override
+	public Connection getWriteConnection() throws CommunicationException {
+		return writer.getConnection();
+	}
+	
+	/**
+	 * Closes the writer and the reader pool
+	 */
+	@Override
+	public void close() {
+		writer.close();
+		readers.close();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the pool of the single writer connection
+	 * @return the writer pool
+	 */
+	public KORConnectionPool getWriterPool() {
+		return writer;
+	}
+	
+	/**
+	 * Returns the pool of the read-only connections
+	 * @return the reader pool
+	 */
+	public KORConnectionPool getReaderPool() {
+		return readers;
+	}
+}
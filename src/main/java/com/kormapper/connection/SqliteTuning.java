@@ -0,0 +1,244 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * SqliteTuning - A ConnectionInitializer which applies PRAGMAs to every physical SQLite connection <br>
+ * A setting which is null is left at the default of SQLite. After a PRAGMA has been applied its value
+ * is read back, thus getEffectiveValues shows what SQLite has actually accepted, e.g. an in-memory database
+ * stays in the journal mode memory even when WAL has been requested.
+ * @author leonhardmuellauer
+ */
+public class SqliteTuning implements ConnectionInitializer {
+	
+	private String journalMode = null;
+	private String synchronous = null;
+	private Integer cacheSize = null;
+	private Long mmapSize = null;
+	private String tempStore = null;
+	private Integer busyTimeout = null;
+	private volatile Map<String, String> effectiveValues = Collections.emptyMap();
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a SqliteTuning which keeps all defaults of SQLite
+	 */
+	public SqliteTuning() { }
+	
+	/**
+	 * Returns a profile for many concurrent readers and frequent small writes <br>
+	 * <b>journal_mode</b> WAL, <b>synchronous</b> NORMAL, <b>cache_size</b> 64 MiB, <b>mmap_size</b> 256 MiB,
+	 * <b>temp_store</b> MEMORY and a <b>busy_timeout</b> of 5 seconds. With WAL and synchronous NORMAL a
+	 * commit does not wait for the disk, a power loss may roll back the latest transactions but never corrupts
+	 * the database.
+	 * @return a new SqliteTuning which may be adjusted further
+	 */
+	public static SqliteTuning highThroughput() {
+		SqliteTuning tuning = new SqliteTuning();
+		tuning.setJournalMode("WAL");
+		tuning.setSynchronous("NORMAL");
+		tuning.setCacheSize(-65536);
+		tuning.setMmapSize(268_435_456L);
+		tuning.setTempStore("MEMORY");
+		tuning.setBusyTimeout(5000);
+		return tuning;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * ConnectionInitializer methods									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Applies the PRAGMAs to the given connection and reads their effective values
+	 * @param connection the newly opened SQLite connection
+	 * @throws SQLException when a PRAGMA could not be applied
+	 */
+	@Override
+	public void initialize(Connection connection) throws SQLException {
+		Map<String, String> values = new LinkedHashMap<>();
+		try(Statement stmt = connection.createStatement()) {
+			//busy_timeout first, switching to WAL needs a lock which may be held by another connection
+			apply(stmt, "busy_timeout", busyTimeout, values);
+			apply(stmt, "journal_mode", journalMode, values);
+			apply(stmt, "synchronous", synchronous, values);
+			apply(stmt, "cache_size", cacheSize, values);
+			apply(stmt, "mmap_size", mmapSize, values);
+			apply(stmt, "temp_store", tempStore, values);
+		}
+		effectiveValues = Collections.unmodifiableMap(values);
+	}
+	
+	private static void apply(Statement stmt, String pragma, Object value, Map<String, String> values) throws SQLException {
+		if(value == null) {
+			return; //reading an unset PRAGMA may need a lock, e.g. journal_mode
+		}
+		stmt.execute("PRAGMA "+pragma+" = "+value);
+		try(ResultSet rs = stmt.executeQuery("PRAGMA "+pragma)) {
+			values.put(pragma, rs.next() ? rs.getString(1) : null);
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET- and SET methods												     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the values SQLite reported for the set PRAGMAs of the most recently initialized connection. The
+	 * synchronous and temp_store settings are reported as numbers, e.g. 1 for NORMAL and 2 for MEMORY.
+	 * @return the effective values by the name of their PRAGMA, empty before the first connection
+	 */
+	public Map<String, String> getEffectiveValues() {
+		return effectiveValues;
+	}
+	
+	/**
+	 * Returns the requested journal mode
+	 * @return the journal mode or null for the default
+	 */
+	public String getJournalMode() {
+		return journalMode;
+	}
+	
+	/**
+	 * Sets the journal mode
+	 * @param journalMode DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF or null for the default
+	 */
+	public void setJournalMode(String journalMode) {
+		this.journalMode = keyword(journalMode, "journal mode", "DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+	}
+	
+	/**
+	 * Returns the requested synchronous setting
+	 * @return the synchronous setting or null for the default
+	 */
+	public String getSynchronous() {
+		return synchronous;
+	}
+	
+	/**
+	 * Sets how often SQLite waits for the disk
+	 * @param synchronous OFF, NORMAL, FULL, EXTRA or null for the default
+	 */
+	public void setSynchronous(String synchronous) {
+		this.synchronous = keyword(synchronous, "synchronous setting", "OFF", "NORMAL", "FULL", "EXTRA");
+	}
+	
+	/**
+	 * Returns the requested size of the page cache
+	 * @return the cache size or null for the default
+	 */
+	public Integer getCacheSize() {
+		return cacheSize;
+	}
+	
+	/**
+	 * Sets the size of the page cache of every connection
+	 * @param cacheSize a positive number of pages, a negative number of KiB or null for the default
+	 */
+	public void setCacheSize(Integer cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+	
+	/**
+	 * Returns the requested size of the memory mapped I/O
+	 * @return the mmap size or null for the default
+	 */
+	public Long getMmapSize() {
+		return mmapSize;
+	}
+	
+	/**
+	 * Sets the number of bytes of the database file which are read by memory mapped I/O
+	 * @param mmapSize the mmap size, 0 to disable it or null for the default
+	 */
+	public void setMmapSize(Long mmapSize) {
+		if(mmapSize != null && mmapSize < 0) {
+			throw new ParamException("Error: The mmap size may not be negative");
+		}
+		this.mmapSize = mmapSize;
+	}
+	
+	/**
+	 * Returns the requested storage of temporary tables and indices
+	 * @return the temp store or null for the default
+	 */
+	public String getTempStore() {
+		return tempStore;
+	}
+	
+	/**
+	 * Sets where temporary tables and indices are stored
+	 * @param tempStore DEFAULT, FILE, MEMORY or null for the default
+	 */
+	public void setTempStore(String tempStore) {
+		this.tempStore = keyword(tempStore, "temp store", "DEFAULT", "FILE", "MEMORY");
+	}
+	
+	/**
+	 * Returns the requested busy timeout
+	 * @return the busy timeout in milliseconds or null for the default
+	 */
+	public Integer getBusyTimeout() {
+		return busyTimeout;
+	}
+	
+	/**
+	 * Sets the time a connection retries to obtain a lock which is held by another connection
+	 * @param busyTimeout the busy timeout in milliseconds or null for the default
+	 */
+	public void setBusyTimeout(Integer busyTimeout) {
+		if(busyTimeout != null && busyTimeout < 0) {
+			throw new ParamException("Error: The busy timeout may not be negative");
+		}
+		this.busyTimeout = busyTimeout;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the given value in upper case when it is one of the allowed keywords, the value is written into
+	 * the PRAGMA statement and must not be anything else
+	 */
+	private static String keyword(String value, String name, String... allowed) {
+		if(value == null) {
+			return null;
+		}
+		String upper = value.toUpperCase(Locale.ROOT);
+		for(String keyword : allowed) {
+			if(keyword.equals(upper)) {
+				return upper;
+			}
+		}
+		throw new ParamException("Error: Unknown "+name+" "+value);
+	}
+}
@@ -0,0 +1,102 @@
+package com.kormapper.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of the PreparedStatements of a single physical connection. <br>
+ * A cached statement is handed out to one borrower at a time. Closing the handed out statement returns it
+ * to the cache with cleared parameters and batch, the least recently used statement is closed when the cache
+ * is full. The statements of batches are cached apart from the ones of single executions by their SQL, because
+ * the SQLite driver keeps the grown buffer of a batch and fails on a later single execution of the statement.
+ * A statement of the single executions which has been batched anyway is closed when it is returned.
+ * @author leonhardmuellauer
+ */
+final class StatementCache {
+	
+	private final int maxSize;
+	/** The statements by their SQL and whether they are used for batches */
+	private final LinkedHashMap<List<Object>, PreparedStatement> statements;
+	
+	StatementCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<List<Object>, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, PreparedStatement> eldest) {
+				if(size() > StatementCache.this.maxSize) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the cached statement of the given SQL or prepares a new one
+	 * @param physical the physical connection the cache belongs to
+	 * @param logical the logical connection which is returned by Statement.getConnection
+	 * @param sql the SQL of the statement
+	 * @param forBatches whether the statement is executed by executeBatch or singly
+	 * @return a statement whose close method returns it to the cache
+	 * @throws SQLException when the statement could not be prepared
+	 */
+	synchronized PreparedStatement prepare(Connection physical, Connection logical, String sql, boolean forBatches) throws SQLException {
+		PreparedStatement stmt = statements.remove(Arrays.asList(sql, forBatches));
+		if(stmt == null || stmt.isClosed()) {
+			stmt = physical.prepareStatement(sql);
+		}
+		return new CachedStatement(this, sql, stmt, logical, forBatches);
+	}
+	
+	/**
+	 * Closes all cached statements
+	 */
+	synchronized void clear() {
+		for(Iterator<PreparedStatement> it = statements.values().iterator(); it.hasNext();) {
+			closeQuietly(it.next());
+			it.remove();
+		}
+	}
+	
+	/**
+	 * Takes a statement back which has been closed by its borrower
+	 * @param sql the SQL of the statement
+	 * @param stmt the physical statement
+	 * @param forBatches whether the statement has been handed out for batches
+	 * @param batched whether addBatch has been called on the statement
+	 */
+	synchronized void giveBack(String sql, PreparedStatement stmt, boolean forBatches, boolean batched) {
+		if(batched && !forBatches) {
+			closeQuietly(stmt);
+			return;
+		}
+		try {
+			stmt.clearParameters();
+			stmt.clearBatch();
+		} catch(SQLException e) {
+			closeQuietly(stmt);
+			return;
+		}
+		PreparedStatement previous = statements.put(Arrays.asList(sql, forBatches), stmt);
+		if(previous != null && previous != stmt) {
+			closeQuietly(previous);
+		}
+	}
+	
+	private static void closeQuietly(PreparedStatement stmt) {
+		try {
+			stmt.close();
+		} catch(SQLException e) {
+			//The statement is discarded anyway
+		}
+	}
+}
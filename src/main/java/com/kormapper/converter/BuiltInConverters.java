@@ -0,0 +1,190 @@
+package com.kormapper.converter;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.PropertyAccessor;
+
+/**
+ * The converters the ConverterRegistry knows from the start. <br>
+ * Primitive fields are read with the typed getter of the ResultSet and assigned without boxing, likewise
+ * they are bound from the field with the typed setter of the PreparedStatement. Their wrapper classes
+ * additionally map NULL. The java.time types are stored as ISO-8601 text, which SQLite's
+ * date and time functions understand.
+ * @author leonhardmuellauer
+ */
+final class BuiltInConverters {
+	
+	private BuiltInConverters() { }
+	
+	/**
+	 * Reads a value of a column, see TypeConverter.read
+	 */
+	@FunctionalInterface
+	private interface Reader<T> {
+		T read(ResultSet rs, int index) throws SQLException;
+	}
+	
+	/**
+	 * Binds a value to a placeholder, see TypeConverter.bind
+	 */
+	@FunctionalInterface
+	private interface Binder<T> {
+		void bind(PreparedStatement stmt, int index, T value) throws SQLException;
+	}
+	
+	/**
+	 * Puts all built-in converters into the given map
+	 * @param converters the converters of the registry by their type
+	 */
+	static void registerAll(Map<Class<?>, TypeConverter<?>> converters) {
+		converters.put(int.class, new TypeConverter<Integer>() {
+			@Override
+			public Integer read(ResultSet rs, int index) throws SQLException {
+				return rs.getInt(index);
+			}
+			@Override
+			public void bind(PreparedStatement stmt, int index, Integer value) throws SQLException {
+				stmt.setInt(index, value);
+			}
+			@Override
+			public void readInto(ResultSet rs, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				accessor.setInt(reference, rs.getInt(index));
+			}
+			@Override
+			public void bindFrom(PreparedStatement stmt, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				stmt.setInt(index, accessor.getInt(reference));
+			}
+		});
+		converters.put(long.class, new TypeConverter<Long>() {
+			@Override
+			public Long read(ResultSet rs, int index) throws SQLException {
+				return rs.getLong(index);
+			}
+			@Override
+			public void bind(PreparedStatement stmt, int index, Long value) throws SQLException {
+				stmt.setLong(index, value);
+			}
+			@Override
+			public void readInto(ResultSet rs, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				accessor.setLong(reference, rs.getLong(index));
+			}
+			@Override
+			public void bindFrom(PreparedStatement stmt, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				stmt.setLong(index, accessor.getLong(reference));
+			}
+		});
+		converters.put(double.class, new TypeConverter<Double>() {
+			@Override
+			public Double read(ResultSet rs, int index) throws SQLException {
+				return rs.getDouble(index);
+			}
+			@Override
+			public void bind(PreparedStatement stmt, int index, Double value) throws SQLException {
+				stmt.setDouble(index, value);
+			}
+			@Override
+			public void readInto(ResultSet rs, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				accessor.setDouble(reference, rs.getDouble(index));
+			}
+			@Override
+			public void bindFrom(PreparedStatement stmt, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				stmt.setDouble(index, accessor.getDouble(reference));
+			}
+		});
+		converters.put(boolean.class, new TypeConverter<Boolean>() {
+			@Override
+			public Boolean read(ResultSet rs, int index) throws SQLException {
+				return rs.getBoolean(index);
+			}
+			@Override
+			public void bind(PreparedStatement stmt, int index, Boolean value) throws SQLException {
+				stmt.setBoolean(index, value);
+			}
+			@Override
+			public void readInto(ResultSet rs, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				accessor.setBoolean(reference, rs.getBoolean(index));
+			}
+			@Override
+			public void bindFrom(PreparedStatement stmt, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+				stmt.setBoolean(index, accessor.getBoolean(reference));
+			}
+		});
+		converters.put(float.class, converter(ResultSet::getFloat, PreparedStatement::setFloat));
+		converters.put(short.class, converter(ResultSet::getShort, PreparedStatement::setShort));
+		converters.put(byte.class, converter(ResultSet::getByte, PreparedStatement::setByte));
+		
+		converters.put(Integer.class, nullable(ResultSet::getInt, PreparedStatement::setInt));
+		converters.put(Long.class, nullable(ResultSet::getLong, PreparedStatement::setLong));
+		converters.put(Double.class, nullable(ResultSet::getDouble, PreparedStatement::setDouble));
+		converters.put(Boolean.class, nullable(ResultSet::getBoolean, PreparedStatement::setBoolean));
+		converters.put(Float.class, nullable(ResultSet::getFloat, PreparedStatement::setFloat));
+		converters.put(Short.class, nullable(ResultSet::getShort, PreparedStatement::setShort));
+		converters.put(Byte.class, nullable(ResultSet::getByte, PreparedStatement::setByte));
+		
+		converters.put(String.class, converter(ResultSet::getString, PreparedStatement::setString));
+		converters.put(BigDecimal.class, converter(ResultSet::getBigDecimal, PreparedStatement::setBigDecimal));
+		converters.put(byte[].class, converter(ResultSet::getBytes, PreparedStatement::setBytes));
+		
+		converters.put(LocalDate.class, text(LocalDate::parse));
+		converters.put(LocalTime.class, text(LocalTime::parse));
+		converters.put(LocalDateTime.class, text(LocalDateTime::parse));
+		converters.put(OffsetDateTime.class, text(OffsetDateTime::parse));
+		converters.put(Instant.class, text(Instant::parse));
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private static <T> TypeConverter<T> converter(Reader<T> reader, Binder<T> binder) {
+		return new TypeConverter<T>() {
+			@Override
+			public T read(ResultSet rs, int index) throws SQLException {
+				return reader.read(rs, index);
+			}
+			@Override
+			public void bind(PreparedStatement stmt, int index, T value) throws SQLException {
+				binder.bind(stmt, index, value);
+			}
+		};
+	}
+	
+	/**
+	 * Returns a converter which reads NULL as null, the typed getters of the ResultSet return 0 or false instead
+	 */
+	private static <T> TypeConverter<T> nullable(Reader<T> reader, Binder<T> binder) {
+		return converter((rs, index) -> {
+			T value = reader.read(rs, index);
+			return rs.wasNull() ? null : value;
+		}, binder);
+	}
+	
+	/**
+	 * Returns a converter which stores the toString representation of a value and parses it on read
+	 */
+	private static <T> TypeConverter<T> text(Function<String, T> parser) {
+		return converter((rs, index) -> {
+			String value = rs.getString(index);
+			try {
+				return value != null ? parser.apply(value) : null;
+			} catch(RuntimeException e) {
+				throw new SQLException("Error: "+value+" could not be parsed: "+e.getMessage());
+			}
+		}, (stmt, index, value) -> stmt.setString(index, value.toString()));
+	}
+}
@@ -0,0 +1,57 @@
+package com.kormapper.converter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * Holds the TypeConverter of every field type. <br>
+ * The registry knows all primitive types and their wrapper classes, String, BigDecimal, byte[], the
+ * java.time types LocalDate, LocalTime, LocalDateTime, OffsetDateTime and Instant, as well as every enum.
+ * Values of all other types are passed unchanged to the JDBC driver. <br>
+ * Converters are resolved when the metadata of a class is built, thus a converter has to be registered
+ * before the first use of the classes which declare fields of its type.
+ * @author leonhardmuellauer
+ */
+public final class ConverterRegistry {
+	
+	private static final ConcurrentMap<Class<?>, TypeConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+	private static final TypeConverter<Object> DEFAULT = new ObjectConverter();
+	
+	static {
+		BuiltInConverters.registerAll(CONVERTERS);
+	}
+	
+	private ConverterRegistry() { }
+	
+	/**
+	 * Registers the converter of the given type. A previously registered converter is replaced.
+	 * @param type the field type
+	 * @param converter the converter of the type
+	 * @param <T> the field type
+	 */
+	public static <T> void register(Class<T> type, TypeConverter<T> converter) {
+		if(type == null || converter == null) {
+			throw new ParamException("Error: type and converter may not be null");
+		}
+		CONVERTERS.put(type, converter);
+	}
+	
+	/**
+	 * Returns the converter of the given type
+	 * @param type the field type
+	 * @return the registered converter, an EnumConverter for enums or a converter which passes the values unchanged
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static TypeConverter<?> of(Class<?> type) {
+		TypeConverter<?> converter = CONVERTERS.get(type);
+		if(converter != null) {
+			return converter;
+		}
+		if(type.isEnum()) {
+			return CONVERTERS.computeIfAbsent(type, key -> new EnumConverter(key));
+		}
+		return DEFAULT;
+	}
+}
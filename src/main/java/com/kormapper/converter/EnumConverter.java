@@ -0,0 +1,41 @@
+package com.kormapper.converter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Stores the constants of an enum by their name
+ * @author leonhardmuellauer
+ * @param <E> the type of the enum
+ */
+public class EnumConverter<E extends Enum<E>> implements TypeConverter<E> {
+	
+	private final Class<E> type;
+	
+	/**
+	 * Instantiates a converter of the given enum
+	 * @param type the class of the enum
+	 */
+	public EnumConverter(Class<E> type) {
+		this.type = type;
+	}
+	
+	@Override
+	public E read(ResultSet rs, int index) throws SQLException {
+		String name = rs.getString(index);
+		if(name == null) {
+			return null;
+		}
+		try {
+			return Enum.valueOf(type, name);
+		} catch(IllegalArgumentException e) {
+			throw new SQLException("Error: "+name+" is no constant of "+type.getName());
+		}
+	}
+	
+	@Override
+	public void bind(PreparedStatement stmt, int index, E value) throws SQLException {
+		stmt.setString(index, value.name());
+	}
+}
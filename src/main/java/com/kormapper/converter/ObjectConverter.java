@@ -0,0 +1,23 @@
+package com.kormapper.converter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Passes values unchanged to the JDBC driver with getObject and setObject. It is used for all types
+ * without a registered converter.
+ * @author leonhardmuellauer
+ */
+public class ObjectConverter implements TypeConverter<Object> {
+	
+	@Override
+	public Object read(ResultSet rs, int index) throws SQLException {
+		return rs.getObject(index);
+	}
+	
+	@Override
+	public void bind(PreparedStatement stmt, int index, Object value) throws SQLException {
+		stmt.setObject(index, value);
+	}
+}
@@ -0,0 +1,71 @@
+package com.kormapper.converter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.PropertyAccessor;
+
+/**
+ * Converts the values of a field type from and to the database. <br>
+ * The converter of a Column annotated field is resolved once when the metadata of its class is built, either
+ * by the converter value of the Column annotation or by the type of the field in the ConverterRegistry.
+ * Implementations used by the Column annotation need a public default constructor.
+ * @author leonhardmuellauer
+ * @param <T> the type of the field
+ */
+public interface TypeConverter<T> {
+	
+	/**
+	 * Reads the value of a column of the current row
+	 * @param rs the ResultSet positioned on a row
+	 * @param index the index of the column
+	 * @return the value or null when the column is NULL
+	 * @throws SQLException when the value could not be read
+	 */
+	T read(ResultSet rs, int index) throws SQLException;
+	
+	/**
+	 * Binds a value to a placeholder. NULL values are bound by the caller.
+	 * @param stmt the PreparedStatement
+	 * @param index the index of the placeholder
+	 * @param value the value to be bound, never null
+	 * @throws SQLException when the value could not be bound
+	 */
+	void bind(PreparedStatement stmt, int index, T value) throws SQLException;
+	
+	/**
+	 * Reads the value of a column of the current row and assigns it to a field. Converters of primitive types
+	 * override this method to assign the value without boxing it.
+	 * @param rs the ResultSet positioned on a row
+	 * @param index the index of the column
+	 * @param reference the object in which the value is written
+	 * @param accessor the accessor of the field
+	 * @throws SQLException when the value could not be read
+	 * @throws KORException when the value could not be set
+	 */
+	default void readInto(ResultSet rs, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+		accessor.set(reference, read(rs, index));
+	}
+	
+	/**
+	 * Binds the value of a field to a placeholder, NULL values included. Converters of primitive types override
+	 * this method to bind the value without boxing it.
+	 * @param stmt the PreparedStatement
+	 * @param index the index of the placeholder
+	 * @param reference the object in which the value is read
+	 * @param accessor the accessor of the field
+	 * @throws SQLException when the value could not be bound
+	 * @throws KORException when the value could not be read
+	 */
+	@SuppressWarnings("unchecked") //the accessor belongs to a field of the converted type
+	default void bindFrom(PreparedStatement stmt, int index, Object reference, PropertyAccessor accessor) throws SQLException, KORException {
+		Object value = accessor.get(reference);
+		if(value == null) {
+			stmt.setObject(index, null);
+		} else {
+			bind(stmt, index, (T)value);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.kormapper.exception;
+
+/**
+ * Thrown when the database stayed busy or locked by another connection after all retries,
+ * SQLITE_BUSY (5) or SQLITE_LOCKED (6). The operation has not been applied and may be repeated.
+ * @author leonhardmuellauer
+ */
+public class BusyException extends KORException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/** The primary result code SQLITE_BUSY */
+	public static final int RESULT_BUSY = 5;
+	/** The primary result code SQLITE_LOCKED */
+	public static final int RESULT_LOCKED = 6;
+	
+	private final int errorCode;
+	private final int attempts;
+	
+	public BusyException(String message, int errorCode, int attempts) {
+		super(message);
+		this.errorCode = errorCode;
+		this.attempts = attempts;
+	}
+	
+	/**
+	 * Returns the primary result code of SQLite
+	 * @return 5 for SQLITE_BUSY or 6 for SQLITE_LOCKED
+	 */
+	public int getErrorCode() {
+		return errorCode;
+	}
+	
+	/**
+	 * Says whether a table was locked within the same database connection or shared cache
+	 * @return true for SQLITE_LOCKED, false for SQLITE_BUSY
+	 */
+	public boolean isLocked() {
+		return errorCode == RESULT_LOCKED;
+	}
+	
+	/**
+	 * Returns the number of attempts which have been made
+	 * @return the number of attempts including the first one
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.kormapper.exception;
+
+/**
+ * Thrown when a lazily loaded relation could not be loaded on its first access. <br>
+ * The cause is the KORException of the underlying query.
+ * @author leonhardmuellauer
+ */
+public class LazyLoadException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public LazyLoadException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.kormapper.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when the registration of KORBridge-Classes found problems in their mapping. <br>
+ * All problems of all registered classes are collected, thus a single exception reports every faulty class.
+ * @author leonhardmuellauer
+ */
+public class MappingException extends KORException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final List<String> problems;
+	
+	public MappingException(List<String> problems) {
+		super("Error: "+problems.size()+(problems.size() == 1 ? " problem" : " problems")
+				+" in the mapping of the registered classes:\n  "+String.join("\n  ", problems));
+		this.problems = Collections.unmodifiableList(problems);
+	}
+	
+	/**
+	 * Returns the description of every problem, each starts with the name of the faulty class
+	 * @return the problems
+	 */
+	public List<String> getProblems() {
+		return problems;
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.kormapper.exception;
+
+/**
+ * Thrown when a streamed query could not read its next row. <br>
+ * The cause is the SQLException or KORException which occurred while reading.
+ * @author leonhardmuellauer
+ */
+public class StreamException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public StreamException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.kormapper.model;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * AsyncExecutors - Factory of the executors which run the asynchronous methods of a KORMapper <br>
+ * The asynchronous methods block their executing thread on JDBC, thus they should not run on the common
+ * ForkJoinPool. On JDK 21 and newer virtual threads are the natural choice, every call gets a virtual thread
+ * which releases its carrier while it waits for the database. The connection pool bounds the concurrent
+ * statements in any case.
+ * @author leonhardmuellauer
+ */
+public final class AsyncExecutors {
+	
+	private static final AtomicInteger THREADS = new AtomicInteger();
+	
+	private AsyncExecutors() { }
+	
+	/**
+	 * Says whether the running JDK supports virtual threads
+	 * @return if virtualThreads can be used or not
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return virtualThreadFactory() != null;
+	}
+	
+	/**
+	 * Returns an executor which starts a new virtual thread for every task. The executor is looked up
+	 * reflectively, thus the KORMapper still runs on older JDKs.
+	 * @return a virtual-thread-per-task executor
+	 * @throws ParamException when the running JDK does not support virtual threads
+	 */
+	public static ExecutorService virtualThreads() {
+		Method factory = virtualThreadFactory();
+		if(factory == null) {
+			throw new ParamException("Error: Virtual threads require JDK 21 or newer");
+		}
+		try {
+			return (ExecutorService)factory.invoke(null);
+		} catch(ReflectiveOperationException e) {
+			throw new ParamException("Error: Virtual threads could not be started: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns an executor with the given number of platform daemon threads
+	 * @param threads the number of threads, which should match the maximal size of the connection pool
+	 * @return a fixed thread pool
+	 */
+	public static ExecutorService platformThreads(int threads) {
+		if(threads < 1) {
+			throw new ParamException("Error: The number of threads must be greater than 0");
+		}
+		return Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "kormapper-async-"+THREADS.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Returns the executor a KORMapper uses when no executor has been set: virtual threads when they are
+	 * supported, otherwise platform threads
+	 * @param threads the number of platform threads
+	 * @return the default executor
+	 */
+	static ExecutorService defaultExecutor(int threads) {
+		return isVirtualThreadsSupported() ? virtualThreads() : platformThreads(threads);
+	}
+	
+	private static Method virtualThreadFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch(NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
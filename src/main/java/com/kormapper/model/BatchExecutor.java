@@ -0,0 +1,148 @@
+package com.kormapper.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kormapper.connection.BatchConnection;
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.RelationMetadata;
+
+/**
+ * Executes BoundStatements with JDBC batches. <br>
+ * Consecutive statements of the same Operation form a segment. Inside a segment a statement joins the latest
+ * group of its entity class and SQL template, the groups are executed in order of their first statement.
+ * A statement which would thereby overtake a statement it may depend on starts a new group instead, thus the
+ * order of the given statements is kept for every table and between related classes: a statement never
+ * overtakes a statement of the same table, and only the order the KORGenerator uses for object graphs may be
+ * merged, i.e. an INSERT or UPDATE of a wrapping class may overtake the statements of its OneToOne/-Many
+ * wrapped classes and a DELETE of a wrapped class may overtake the ones of its wrapping classes. Each group
+ * is sent with PreparedStatement.addBatch/executeBatch in chunks of the batch size, on a BatchConnection with
+ * a statement which is kept apart for batches.
+ * @author leonhardmuellauer
+ */
+final class BatchExecutor {
+	
+	private BatchExecutor() { }
+	
+	/**
+	 * Executes the given statements on the given connection. The caller is responsible for the transaction.
+	 * @param conn the connection the statements are executed on
+	 * @param statements the statements to be executed
+	 * @param batchSize the maximal number of statements per executeBatch call
+	 * @return the update count of every statement in order of the given statements
+	 * @throws SQLException when a statement is not accepted by the database
+	 * @throws KORException when a field of a statement bound from the fields could not be read
+	 */
+	static int[] execute(Connection conn, List<BoundStatement> statements, int batchSize) throws SQLException, KORException {
+		int[] counts = new int[statements.size()];
+		if(statements.size() == 1) {
+			BoundStatement statement = statements.get(0);
+			try(PreparedStatement stmt = conn.prepareStatement(statement.getSql())) {
+				ParameterBinder.bind(stmt, statement);
+				counts[0] = stmt.executeUpdate();
+			}
+			return counts;
+		}
+		int start = 0;
+		while(start < statements.size()) {
+			Operation operation = statements.get(start).getOperation();
+			int end = start;
+			while(end < statements.size() && statements.get(end).getOperation() == operation) {
+				end++;
+			}
+			for(List<Integer> group : group(statements, start, end)) {
+				executeGroup(conn, statements, group, batchSize, counts);
+			}
+			start = end;
+		}
+		return counts;
+	}
+	
+	/**
+	 * Groups the indices of the statements between start and end by entity class and SQL template without
+	 * letting a statement overtake a statement it may depend on
+	 * @return the groups in order of execution
+	 */
+	private static List<List<Integer>> group(List<BoundStatement> statements, int start, int end) {
+		List<List<Integer>> groups = new ArrayList<>();
+		Map<List<Object>, Integer> latest = new HashMap<>();
+		for(int i = start; i < end; i++) {
+			BoundStatement statement = statements.get(i);
+			List<Object> key = Arrays.asList(statement.getEntityType(), statement.getSql());
+			Integer index = latest.get(key);
+			if(index == null || !mayOvertake(statement, statements, groups.subList(index + 1, groups.size()))) {
+				index = groups.size();
+				groups.add(new ArrayList<>());
+				latest.put(key, index);
+			}
+			groups.get(index).add(i);
+		}
+		return groups;
+	}
+	
+	/**
+	 * Says whether the given statement may be executed before the statements of the given groups
+	 */
+	private static boolean mayOvertake(BoundStatement statement, List<BoundStatement> statements, List<List<Integer>> groups) {
+		for(List<Integer> group : groups) {
+			if(!mayOvertake(statement, statements.get(group.get(0)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Says whether the given statement may be executed before the given earlier statement of the same Operation
+	 */
+	private static boolean mayOvertake(BoundStatement statement, BoundStatement earlier) {
+		EntityMetadata own = MetadataRegistry.of(statement.getEntityType());
+		EntityMetadata other = MetadataRegistry.of(earlier.getEntityType());
+		if(own.getTableName().equalsIgnoreCase(other.getTableName())) {
+			return false;
+		}
+		if(statement.getOperation() == Operation.DELETE) {
+			return !wraps(own, other.getType());
+		}
+		return !wraps(other, own.getType());
+	}
+	
+	/**
+	 * Says whether the given class declares a relation to the given sample
+	 */
+	private static boolean wraps(EntityMetadata metadata, Class<?> sample) {
+		for(RelationMetadata relation : metadata.getRelations()) {
+			if(relation.getSample() == sample) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void executeGroup(Connection conn, List<BoundStatement> statements, List<Integer> group,
+			int batchSize, int[] counts) throws SQLException, KORException {
+		String sql = statements.get(group.get(0)).getSql();
+		try(PreparedStatement stmt = conn instanceof BatchConnection ? ((BatchConnection)conn).prepareBatchStatement(sql)
+				: conn.prepareStatement(sql)) {
+			for(int from = 0; from < group.size(); from += batchSize) {
+				int to = Math.min(from + batchSize, group.size());
+				for(int i = from; i < to; i++) {
+					ParameterBinder.bind(stmt, statements.get(group.get(i)));
+					stmt.addBatch();
+				}
+				int[] result = stmt.executeBatch();
+				for(int i = 0; i < result.length; i++) {
+					counts[group.get(from + i)] = result[i];
+				}
+			}
+		}
+	}
+}
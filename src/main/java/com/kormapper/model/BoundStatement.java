@@ -0,0 +1,192 @@
+package com.kormapper.model;
+
+import java.util.Arrays;
+
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+
+/**
+ * A SQL template of the KORGenerator together with the parameters of a single object. <br>
+ * The template contains a ? placeholder for every parameter, thus statements of the same entity class and
+ * operation share their SQL text and can be prepared once. <br>
+ * A statement which is executed right away may refer to the columns of its objects instead of holding their
+ * values, its parameters are then bound straight from the fields by TypeConverter.bindFrom.
+ * @author leonhardmuellauer
+ */
+public final class BoundStatement {
+	
+	private final Operation operation;
+	private final Class<?> entityType;
+	private final String sql;
+	private final TypeConverter<Object>[] converters;
+	private final ColumnMetadata[] columns;
+	private final Object[] rows;
+	private Object[] parameters;
+	private Object entity;
+	private Object[] written;
+	
+	/**
+	 * Instantiates a BoundStatement whose parameters are passed unchanged to the JDBC driver
+	 * @param operation the kind of the statement
+	 * @param entityType the class of the object the parameters belong to
+	 * @param sql the SQL template
+	 * @param parameters the values of the placeholders in order of their occurrence
+	 */
+	public BoundStatement(Operation operation, Class<?> entityType, String sql, Object[] parameters) {
+		this(operation, entityType, sql, parameters, null);
+	}
+	
+	/**
+	 * Instantiates a BoundStatement whose parameters are bound by the given converters
+	 * @param operation the kind of the statement
+	 * @param entityType the class of the object the parameters belong to
+	 * @param sql the SQL template
+	 * @param parameters the values of the placeholders in order of their occurrence
+	 * @param converters the converter of every parameter or null to pass the parameters unchanged
+	 */
+	public BoundStatement(Operation operation, Class<?> entityType, String sql, Object[] parameters, TypeConverter<Object>[] converters) {
+		this.operation = operation;
+		this.entityType = entityType;
+		this.sql = sql;
+		this.parameters = parameters;
+		this.converters = converters;
+		this.columns = null;
+		this.rows = null;
+	}
+	
+	/**
+	 * Instantiates a BoundStatement whose parameters are read from the fields of the given objects when it is
+	 * bound. The placeholders hold the given columns of every object, thus the objects must not change until
+	 * the statement has been executed.
+	 * @param operation the kind of the statement
+	 * @param entityType the class of the objects the parameters belong to
+	 * @param sql the SQL template
+	 * @param columns the columns of a single object in order of their placeholders
+	 * @param rows the objects in order of their placeholders
+	 * @param converters the converter of every parameter
+	 */
+	BoundStatement(Operation operation, Class<?> entityType, String sql, ColumnMetadata[] columns, Object[] rows,
+			TypeConverter<Object>[] converters) {
+		this.operation = operation;
+		this.entityType = entityType;
+		this.sql = sql;
+		this.converters = converters;
+		this.columns = columns;
+		this.rows = rows;
+	}
+	
+	/**
+	 * Returns the kind of the statement
+	 * @return the operation
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+	
+	/**
+	 * Returns the class of the object the parameters belong to
+	 * @return the entity class
+	 */
+	public Class<?> getEntityType() {
+		return entityType;
+	}
+	
+	/**
+	 * Returns the SQL template
+	 * @return the SQL template
+	 */
+	public String getSql() {
+		return sql;
+	}
+	
+	/**
+	 * Returns the values of the placeholders in order of their occurrence. The values of a statement which
+	 * binds straight from the fields are read on the first call.
+	 * @return the parameters
+	 * @throws IllegalStateException when a field of such a statement could not be read
+	 */
+	public Object[] getParameters() {
+		try {
+			return values();
+		} catch(KORException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Returns the values of the placeholders and reads them from the fields when the statement binds straight
+	 * from the fields
+	 * @return the parameters
+	 * @throws KORException when a field could not be read
+	 */
+	Object[] values() throws KORException {
+		if(parameters == null && rows != null) {
+			Object[] values = new Object[rows.length * columns.length];
+			for(int r = 0, p = 0; r < rows.length; r++) {
+				for(ColumnMetadata column : columns) {
+					values[p++] = column.getAccessor().get(rows[r]);
+				}
+			}
+			parameters = values;
+		}
+		return parameters;
+	}
+	
+	/**
+	 * Returns the columns whose fields are bound by the placeholders of a single object
+	 * @return the columns or null when the statement holds its parameters
+	 */
+	ColumnMetadata[] getColumns() {
+		return columns;
+	}
+	
+	/**
+	 * Returns the objects whose fields are bound by the placeholders
+	 * @return the objects or null when the statement holds its parameters
+	 */
+	Object[] getRows() {
+		return rows;
+	}
+	
+	/**
+	 * Returns the converters of the parameters in order of their occurrence
+	 * @return the converters or null when the parameters are passed unchanged
+	 */
+	public TypeConverter<Object>[] getConverters() {
+		return converters;
+	}
+	
+	/**
+	 * Remembers the object the statement writes together with all of its column values, which become the
+	 * snapshot of the dirty tracking once the statement has been committed
+	 * @param entity the written object
+	 * @param written the column values in declaration order
+	 */
+	void track(Object entity, Object[] written) {
+		this.entity = entity;
+		this.written = written;
+	}
+	
+	/**
+	 * Returns the object the statement writes
+	 * @return the object or null when the statement is not tracked
+	 */
+	Object getEntity() {
+		return entity;
+	}
+	
+	/**
+	 * Returns the column values of the written object
+	 * @return the column values or null when the statement is not tracked
+	 */
+	Object[] getWritten() {
+		return written;
+	}
+	
+	@Override
+	public String toString() {
+		return sql+" "+(parameters != null || rows == null ? Arrays.toString(parameters) : "bound from "+rows.length
+				+(rows.length == 1 ? " object" : " objects"));
+	}
+}
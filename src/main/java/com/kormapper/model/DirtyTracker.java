@@ -0,0 +1,141 @@
+package com.kormapper.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+
+/**
+ * The snapshots of the dirty tracking of a KORMapper. <br>
+ * A snapshot holds the column values of an object as they have been loaded or last written. The objects are
+ * referenced weakly by their identity, thus tracking does not keep an object alive and objects with equal
+ * values are tracked separately. Values are compared by equals, arrays by their content. Other mutable values,
+ * e.g. a java.util.Date, have to be replaced instead of being modified to be recognized as changed.
+ * @author leonhardmuellauer
+ */
+final class DirtyTracker {
+	
+	private final Map<IdentityKey, Object[]> snapshots = new HashMap<>();
+	private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+	
+	/**
+	 * A weak reference to an object which is compared by the identity of the object
+	 */
+	private static final class IdentityKey extends WeakReference<Object> {
+		private final int hash;
+	
+		private IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.hash = System.identityHashCode(referent);
+		}
+	
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	
+		@Override
+		public boolean equals(Object other) {
+			if(this == other) {
+				return true;
+			}
+			Object referent = get();
+			return other instanceof IdentityKey && referent != null && referent == ((IdentityKey)other).get();
+		}
+	}
+	
+	/**
+	 * Takes a snapshot of the current column values of the given object
+	 * @param metadata the metadata of the object
+	 * @param instance the loaded object
+	 * @throws KORException when a value could not be read
+	 */
+	void track(EntityMetadata metadata, Object instance) throws KORException {
+		track(instance, valuesOf(metadata, instance));
+	}
+	
+	/**
+	 * Stores the given column values as the snapshot of the given object
+	 * @param instance the tracked object
+	 * @param values the column values in declaration order
+	 */
+	synchronized void track(Object instance, Object[] values) {
+		expunge();
+		Object[] snapshot = values.clone();
+		for(int i = 0; i < snapshot.length; i++) {
+			if(snapshot[i] instanceof byte[]) {
+				snapshot[i] = ((byte[])snapshot[i]).clone();
+			}
+		}
+		snapshots.put(new IdentityKey(instance, collected), snapshot);
+	}
+	
+	/**
+	 * Removes the snapshot of the given object
+	 * @param instance the object which is no longer tracked
+	 */
+	synchronized void forget(Object instance) {
+		expunge();
+		snapshots.remove(new IdentityKey(instance, null));
+	}
+	
+	/**
+	 * Returns the columns whose values differ from the snapshot of the given object
+	 * @param instance the object
+	 * @param values the current column values in declaration order
+	 * @return the indices of the changed columns or null when the object is not tracked
+	 */
+	synchronized BitSet changed(Object instance, Object[] values) {
+		expunge();
+		Object[] snapshot = snapshots.get(new IdentityKey(instance, null));
+		if(snapshot == null) {
+			return null;
+		}
+		BitSet changed = new BitSet(values.length);
+		for(int i = 0; i < values.length; i++) {
+			if(!Objects.deepEquals(values[i], snapshot[i])) {
+				changed.set(i);
+			}
+		}
+		return changed;
+	}
+	
+	/**
+	 * Returns the number of tracked objects which have not been garbage collected
+	 * @return the number of snapshots
+	 */
+	synchronized int size() {
+		expunge();
+		return snapshots.size();
+	}
+	
+	/**
+	 * Returns the column values of the given object in declaration order
+	 */
+	static Object[] valuesOf(EntityMetadata metadata, Object instance) throws KORException {
+		List<ColumnMetadata> columns = metadata.getColumns();
+		Object[] values = new Object[columns.size()];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = columns.get(i).getAccessor().get(instance);
+		}
+		return values;
+	}
+	
+	/**
+	 * Removes the snapshots of the objects which have been garbage collected
+	 */
+	private void expunge() {
+		Reference<?> reference;
+		while((reference = collected.poll()) != null) {
+			snapshots.remove(reference);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.kormapper.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.PropertyAccessor;
+import com.kormapper.reflection.RelationMetadata;
+
+/**
+ * Validation and warm-up of a KORBridge-Class for KORMapper.register. <br>
+ * The validation builds the metadata, the accessors and the SQL templates of the class, instantiates it once
+ * and reads and writes every mapped field of the instance, thus everything the KORMapper would otherwise
+ * reflect and compile on the first use of the class is done up front. Instead of failing at the first
+ * problem all problems of the class are collected.
+ * @author leonhardmuellauer
+ */
+final class EntityValidator {
+	
+	private EntityValidator() { }
+	
+	/**
+	 * Validates the given class and prepares its SQL templates when it is valid
+	 * @param type the KORBridge-Class
+	 * @return the problems, each prefixed with the name of the class, or an empty list
+	 */
+	static List<String> validate(Class<?> type) {
+		List<String> problems = new ArrayList<>();
+		String name = type.getName()+": ";
+		EntityMetadata metadata;
+		try {
+			metadata = MetadataRegistry.of(type);
+		} catch(RuntimeException | LinkageError e) {
+			problems.add(name+e.getMessage());
+			return problems;
+		}
+		try {
+			metadata.getTableName();
+		} catch(RuntimeException e) {
+			problems.add(name+"the class is not annotated with Table");
+		}
+		if(metadata.getColumns().isEmpty()) {
+			problems.add(name+"the class declares no Column annotated field");
+		} else if(metadata.getPrimaryKeys().isEmpty()) {
+			problems.add(name+"the class declares no primary key, it can not be updated, deleted or found");
+		}
+		Set<String> columnNames = new HashSet<>();
+		for(ColumnMetadata column : metadata.getColumns()) {
+			if(!columnNames.add(column.getName())) {
+				problems.add(name+"the column "+column.getName()+" is mapped by more than one field");
+			}
+		}
+		for(RelationMetadata relation : metadata.getRelations()) {
+			validate(metadata, relation, problems);
+		}
+		validateAccessors(metadata, problems);
+		if(problems.isEmpty()) {
+			KORGenerator.prepare(metadata);
+		}
+		return problems;
+	}
+	
+	/**
+	 * Returns the sample classes of the relations of the given class
+	 * @param type a validated KORBridge-Class
+	 * @return the related classes or an empty set when the metadata of the class could not be built
+	 */
+	static Set<Class<?>> relatedClasses(Class<?> type) {
+		Set<Class<?>> erg = new LinkedHashSet<>();
+		try {
+			for(RelationMetadata relation : MetadataRegistry.of(type).getRelations()) {
+				erg.add(relation.getSample());
+			}
+		} catch(RuntimeException | LinkageError e) {
+			//reported by validate
+		}
+		return erg;
+	}
+	
+	/**
+	 * Checks the keys and the field type of the given relation. Like the KORGenerator a OneToOne joins its
+	 * columnName in the declaring class to the referencedColumnName of the sample, a OneToMany joins the
+	 * referencedColumnName in the declaring class to the columnName of the sample.
+	 */
+	private static void validate(EntityMetadata metadata, RelationMetadata relation, List<String> problems) {
+		PropertyAccessor accessor = relation.getAccessor();
+		String name = metadata.getType().getName()+": the "+(relation.isOneToMany() ? "OneToMany" : "OneToOne")
+				+" field "+accessor.getName();
+		EntityMetadata sample;
+		try {
+			sample = MetadataRegistry.of(relation.getSample());
+		} catch(RuntimeException | LinkageError e) {
+			problems.add(name+" has an invalid sample "+relation.getSample().getName()+": "+e.getMessage());
+			return;
+		}
+		String ownKey = relation.isOneToMany() ? relation.getReferencedColumnName() : relation.getColumnName();
+		String sampleKey = relation.isOneToMany() ? relation.getColumnName() : relation.getReferencedColumnName();
+		if(metadata.columnOf(ownKey) == null) {
+			problems.add(name+" references the column "+ownKey+" which is not mapped by "+metadata.getType().getName());
+		}
+		if(sample.columnOf(sampleKey) == null) {
+			problems.add(name+" references the column "+sampleKey+" which is not mapped by its sample "+sample.getType().getName());
+		}
+		try {
+			sample.getTableName();
+		} catch(RuntimeException e) {
+			problems.add(name+" has the sample "+sample.getType().getName()+" which is not annotated with Table");
+		}
+		Class<?> type = accessor.getType();
+		if(relation.isOneToMany() && !type.isAssignableFrom(relation.isLazy() ? LazyList.class : ArrayList.class)) {
+			problems.add(name+" has to be declared as List");
+		} else if(!relation.isOneToMany() && relation.isLazy() && !LazyReference.class.isAssignableFrom(type)) {
+			problems.add(name+" is lazy and has to be declared as LazyReference");
+		} else if(!relation.isOneToMany() && !relation.isLazy() && !type.isAssignableFrom(sample.getType())) {
+			problems.add(name+" can not hold its sample "+sample.getType().getName());
+		}
+	}
+	
+	/**
+	 * Instantiates the class and writes the value of every mapped field back into it
+	 */
+	private static void validateAccessors(EntityMetadata metadata, List<String> problems) {
+		String name = metadata.getType().getName()+": ";
+		Object instance;
+		try {
+			instance = metadata.newInstance();
+		} catch(KORException e) {
+			problems.add(name+e.getMessage());
+			return;
+		}
+		List<PropertyAccessor> accessors = new ArrayList<>();
+		for(ColumnMetadata column : metadata.getColumns()) {
+			accessors.add(column.getAccessor());
+		}
+		for(RelationMetadata relation : metadata.getRelations()) {
+			accessors.add(relation.getAccessor());
+		}
+		for(PropertyAccessor accessor : accessors) {
+			try {
+				accessor.set(instance, accessor.get(instance));
+			} catch(KORException | RuntimeException e) {
+				problems.add(name+e.getMessage());
+			}
+		}
+	}
+}
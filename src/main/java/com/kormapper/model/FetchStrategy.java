@@ -0,0 +1,16 @@
+package com.kormapper.model;
+
+/**
+ * Defines how the KORMapper loads the OneToOne and OneToMany annotated fields of queried objects
+ * @author leonhardmuellauer
+ */
+public enum FetchStrategy {
+	
+	/** Issues one SELECT-Statement per object and relation */
+	SELECT,
+	/** Issues one SELECT ... WHERE key IN (...) statement per relation and chunk of referenced keys */
+	BATCH,
+	/** Issues a single SELECT ... LEFT JOIN statement for the queried objects and their direct relations.
+	 *  Deeper relations are loaded like BATCH */
+	JOIN;
+}
@@ -0,0 +1,209 @@
+package com.kormapper.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.RelationMetadata;
+
+/**
+ * Assembles the objects of a ResultSet which has been generated by KORGenerator.joinStatement. <br>
+ * The rows of a parent object are de-duplicated by its primary key and the related objects are collected
+ * in a single pass over the ResultSet. Reading has no effect outside of the JoinAssembler, thus a failed read
+ * can be retried with a new JoinAssembler. The read objects are resolved by the context and assigned to their
+ * parents by assemble.
+ * @author leonhardmuellauer
+ */
+final class JoinAssembler {
+	
+	private final EntityMetadata metadata;
+	private final List<RelationMetadata> relations;
+	/** The index of the referenced column of every relation within the columns of its sample */
+	private final int[] referencedColumns;
+	private final LoadContext context;
+	private final DirtyTracker dirtyTracker;
+	private final Map<String, Object> parents = new LinkedHashMap<>();
+	/** The read parent keys and related objects of every relation in order of their first occurrence */
+	private final List<List<Object[]>> links = new ArrayList<>();
+	private final List<List<Object>> related = new ArrayList<>();
+	private final List<Object> filled = new ArrayList<>();
+	
+	/**
+	 * Instantiates a JoinAssembler for the given class
+	 * @param sample the class of the parent objects
+	 * @param context the context which resolves the identities of the objects
+	 * @param dirtyTracker the snapshots of the loaded objects or null without dirty tracking
+	 * @throws KORException when a key column of a relation is not mapped by its class
+	 */
+	JoinAssembler(Class<?> sample, LoadContext context, DirtyTracker dirtyTracker) throws KORException {
+		this.metadata = MetadataRegistry.of(sample);
+		this.context = context;
+		this.dirtyTracker = dirtyTracker;
+		this.relations = metadata.getEagerRelations();
+		this.referencedColumns = new int[relations.size()];
+		for(int i = 0; i < relations.size(); i++) {
+			RelationMetadata relation = relations.get(i);
+			EntityMetadata child = MetadataRegistry.of(relation.getSample());
+			ColumnMetadata key = metadata.columnOf(relation.isOneToMany() ? relation.getReferencedColumnName() : relation.getColumnName());
+			ColumnMetadata referenced = child.columnOf(relation.isOneToMany() ? relation.getColumnName() : relation.getReferencedColumnName());
+			if(key == null || referenced == null) {
+				throw new KORException("ReferencedColumnName must have a value");
+			}
+			referencedColumns[i] = child.getColumns().indexOf(referenced);
+			links.add(new ArrayList<>());
+			related.add(new ArrayList<>());
+		}
+	}
+	
+	/**
+	 * Says whether the class can be joined, this requires a primary key and at least one eager relation
+	 * @param sample the class of the parent objects
+	 * @return if the class can be joined or not
+	 */
+	static boolean supports(Class<?> sample) {
+		EntityMetadata metadata = MetadataRegistry.of(sample);
+		return !metadata.getPrimaryKeys().isEmpty() && !metadata.getEagerRelations().isEmpty();
+	}
+	
+	/**
+	 * Reads all rows of the given ResultSet into new objects
+	 * @param rs the ResultSet of the join statement
+	 * @throws SQLException when a column could not be read
+	 * @throws KORException when an object could not be instantiated or a value could not be set
+	 */
+	void read(ResultSet rs) throws SQLException, KORException {
+		List<Map<String, Set<String>>> assigned = new ArrayList<>();
+		for(int i = 0; i < relations.size(); i++) {
+			assigned.add(new HashMap<>());
+		}
+		while(rs.next()) {
+			String parentKey = keyOf(rs, 1, metadata);
+			if(!parents.containsKey(parentKey)) {
+				parents.put(parentKey, read(rs, 1, metadata));
+			}
+			int offset = 1 + metadata.getColumns().size();
+			for(int r = 0; r < relations.size(); r++) {
+				RelationMetadata relation = relations.get(r);
+				EntityMetadata child = MetadataRegistry.of(relation.getSample());
+				if(rs.getObject(offset + referencedColumns[r]) != null) {
+					String childKey = keyOf(rs, offset, child);
+					if(assigned.get(r).computeIfAbsent(parentKey, key -> new HashSet<>()).add(childKey)) {
+						links.get(r).add(new Object[] {parentKey, read(rs, offset, child)});
+					}
+				}
+				offset += child.getColumns().size();
+			}
+		}
+	}
+	
+	/**
+	 * Resolves the read objects by the context and assigns the related objects to the parents whose relations
+	 * the context has not filled before. The relations of an object the context already holds are kept, like
+	 * the other FetchStrategies do.
+	 * @return the parent objects in order of their first occurrence
+	 * @throws KORException when a value could not be read or set
+	 */
+	@SuppressWarnings("unchecked")
+	<T> List<T> assemble() throws KORException {
+		Map<String, Object> resolved = new LinkedHashMap<>();
+		for(Map.Entry<String, Object> entry : parents.entrySet()) {
+			resolved.put(entry.getKey(), canonical(metadata, entry.getValue()));
+		}
+		filled.addAll(context.claim(new ArrayList<>(resolved.values())));
+		for(Object parent : filled) {
+			for(RelationMetadata relation : relations) {
+				relation.getAccessor().set(parent, relation.isOneToMany() ? new ArrayList<>() : null);
+			}
+		}
+		Set<Object> assigned = Collections.newSetFromMap(new IdentityHashMap<>());
+		assigned.addAll(filled);
+		for(int r = 0; r < relations.size(); r++) {
+			RelationMetadata relation = relations.get(r);
+			EntityMetadata child = MetadataRegistry.of(relation.getSample());
+			for(Object[] link : links.get(r)) {
+				Object parent = resolved.get(link[0]);
+				if(!assigned.contains(parent)) {
+					continue;
+				}
+				Object value = canonical(child, link[1]);
+				related.get(r).add(value);
+				if(relation.isOneToMany()) {
+					((List<Object>)relation.getAccessor().get(parent)).add(value);
+				} else {
+					relation.getAccessor().set(parent, value);
+				}
+			}
+		}
+		return (List<T>)new ArrayList<>(resolved.values());
+	}
+	
+	/**
+	 * Returns the parent objects whose relations have been assigned by assemble
+	 * @return the parent objects which have been claimed from the context
+	 */
+	@SuppressWarnings("unchecked")
+	<T> List<T> filled() {
+		return (List<T>)filled;
+	}
+	
+	/**
+	 * Returns the related objects of the relation with the given index in EntityMetadata.getEagerRelations()
+	 * @param relation the index of the relation
+	 * @return the related objects which have been assigned by assemble
+	 */
+	List<Object> related(int relation) {
+		return related.get(relation);
+	}
+	
+	/**
+	 * Returns the object of the record of the given freshly read object, a new object is tracked
+	 */
+	private Object canonical(EntityMetadata metadata, Object instance) throws KORException {
+		Object erg = context.canonical(metadata, instance);
+		if(erg == instance && dirtyTracker != null) {
+			dirtyTracker.track(metadata, instance);
+		}
+		return erg;
+	}
+	
+	/**
+	 * Instantiates an object of the given class with the columns starting at the given offset
+	 */
+	private static Object read(ResultSet rs, int offset, EntityMetadata metadata) throws SQLException, KORException {
+		Object instance = metadata.newInstance();
+		List<ColumnMetadata> columns = metadata.getColumns();
+		for(int i = 0; i < columns.size(); i++) {
+			ColumnMetadata column = columns.get(i);
+			column.getConverter().readInto(rs, offset + i, instance, column.getAccessor());
+		}
+		return instance;
+	}
+	
+	/**
+	 * Returns the primary key of the row of the given class starting at the given offset. Classes without a primary
+	 * key are identified by all of their columns.
+	 */
+	private static String keyOf(ResultSet rs, int offset, EntityMetadata metadata) throws SQLException {
+		List<ColumnMetadata> columns = metadata.getColumns();
+		boolean allColumns = metadata.getPrimaryKeys().isEmpty();
+		StringBuilder key = new StringBuilder();
+		for(int i = 0; i < columns.size(); i++) {
+			if(allColumns || columns.get(i).isPrimaryKey()) {
+				key.append(rs.getObject(offset + i)).append('\u0000');
+			}
+		}
+		return key.toString();
+	}
+}
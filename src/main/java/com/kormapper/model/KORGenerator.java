@@ -1,25 +1,40 @@
 package com.kormapper.model;
 
-import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.kormapper.annotation.OneToMany;
 import com.kormapper.annotation.OneToOne;
+import com.kormapper.converter.TypeConverter;
 import com.kormapper.exception.KORException;
+import com.kormapper.exception.LazyLoadException;
 import com.kormapper.exception.ParamException;
-import com.kormapper.reflection.AnnotationReflector;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.RelationMetadata;
 
 
 /**
- * KORGenerator - Generates SQL Statements of given objects
+ * KORGenerator - Generates SQL Statements of given objects <br>
+ * Besides complete SQL strings the KORGenerator generates BoundStatements. Their parameterized templates are
+ * built once per entity class, thus the database is able to reuse the compiled statement.
  * @author leonhardmuellauer
  */
 public class KORGenerator {
 	
-	private AnnotationReflector ar = new AnnotationReflector();
+	private static final ConcurrentMap<Class<?>, SqlTemplates> TEMPLATES = new ConcurrentHashMap<>();
+	
 	private Mode mode;
+	private DirtyTracker dirtyTracker;
     
 	
 	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -48,127 +63,330 @@ public class KORGenerator {
 	
 	
 	/**
-	 * Generates the INSERT-Statement of the given object
+	 * Generates the INSERT-Statement of the given object followed by the ones of its OneToOne/-Many wrapped objects
 	 * @param object on which the INSERT-Statement should be generated 
 	 * @return SQL INSERT-Statement
+	 * @throws KORException when a value could not be retrieved
 	 */
     public String generateInsert(Object object) throws KORException {
-    	String sql = "INSERT "+mode.getValue()+" INTO "+ar.tableNameOf(object)+"(";
-    	ArrayList<String> colName = new ArrayList<>();
-    	colName.addAll(ar.columns(object).keySet());
-    	for(int i = 0; i < colName.size(); i++) {
-    		sql += colName.get(i);
-    		sql += i == (colName.size() -1) ? ") VALUES(" : ",";
-    	}
-    	
-    	ArrayList<String> values = new ArrayList<>();
-    	values.addAll(ar.columns(object).values());
-    	for(int i = 0; i < values.size(); i++) {
-    		sql += asSQL(values.get(i));
-    		sql += i == (values.size() -1) ? ");" : ",";
+    	StringBuilder sql = new StringBuilder(256);
+    	appendInsert(object, sql);
+    	return sql.toString();
+    }
+    
+    private void appendInsert(Object object, StringBuilder sql) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	List<ColumnMetadata> columns = metadata.getColumns();
+    	sql.append(templatesOf(metadata).literalInsert(mode));
+    	for(int i = 0; i < columns.size(); i++) {
+    		appendSQL(i == 0 ? sql : sql.append(','), columns.get(i).getAccessor().get(object));
+    	}
+    	sql.append(");");
+    	for(Object child : children(object, metadata, false)) {
+    		appendInsert(child, sql);
     	}
-    	return sql+fillInsert(object);
     }
     
     /**
-     * Returns multiple insert statements for OneToOne/-Many wrapped objects
-     * @param object on which the insert statements for OneToOne/-Many may be created
-     * @return multiple SQL statements or an empty string
-     */
-    private String fillInsert(Object object) throws KORException {
-    		String sql = "";
-        	for(Field otnField : AnnotationReflector.fieldsOfOTN(object).keySet()) { //Field value must be a single object
-        		sql += generateInsert(AnnotationReflector.runGetter(otnField, object));
-        	}
-        	for(Field otmField : AnnotationReflector.fieldsOfOTM(object).keySet()) { //Field value must be a List
-        		List<?> values = (List<?>)AnnotationReflector.runGetter(otmField, object);
-        		for(Object val : values) {
-        			sql += generateInsert(val);
-        		}
-        	}
-        	return sql+";";	
-    }
-    
-    /**
-	 * Generates the UPDATE-Statement of the given object.
+	 * Generates the UPDATE-Statement of the given object followed by the ones of its OneToOne/-Many wrapped objects.
+	 * With dirty tracking only the changed columns of tracked objects are set and unchanged objects are omitted,
+	 * the snapshots are not refreshed by the generated string.
 	 * @param object on which the UPDATE-Statement should be generated 
 	 * @return SQL UPDATE-Statement
-	 * @throws KORException when a primary key is null
+	 * @throws KORException when the class declares no primary key or a primary key is null
 	 */
     public String generateUpdate(Object object) throws KORException {
-    	String sql = "UPDATE "+ar.tableNameOf(object)+ " SET ";
-    	for (Map.Entry<String, String> pair : ar.columns(object).entrySet()) {
-    		sql += pair.getKey() + " = '" + pair.getValue() + "',";
-    	}
-    	sql = sql.substring(0, sql.lastIndexOf(','))+" ";
-    	//WHERE-Condition:
-    	sql += "WHERE ";
-    	for (Map.Entry<String, String> pair : ar.primaryKeys(object).entrySet()) {
-    		sql += pair.getKey() + " = " + asSQL(pair.getValue())+",";
-    	}
-    	return sql.substring(0, sql.lastIndexOf(','))+";"+fillUpdate(object);
+    	StringBuilder sql = new StringBuilder(256);
+    	appendUpdate(object, sql);
+    	return sql.toString();
     }
     
-    /**
-     * Returns multiple update statements for OneToOne/-Many wrapped objects
-     * @param object on which the update statements for OneToOne/-Many may be created
-     * @return multiple SQL statements or an empty string
-     */
-    private String fillUpdate(Object object) throws KORException {
-    	try {
-    		String sql = "";
-        	for(Field oto : AnnotationReflector.fieldsOfOTN(object).keySet()) { //Field value must be a single object
-        		sql += generateUpdate(oto.get(object));
-        	}
-        	for(Field otmField : AnnotationReflector.fieldsOfOTM(object).keySet()) { //Field value must be a List
-        		List<?> values = (List<?>)AnnotationReflector.runGetter(otmField, object);
-        		for(Object val : values) {
-        			sql += generateUpdate(val);
-        		}
-        	}
-        	return sql+";";	
-    	}catch(Exception e) {
-    		throw new KORException(e.getMessage());
+    private void appendUpdate(Object object, StringBuilder sql) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	SqlTemplates templates = templatesOf(metadata);
+    	Object[] values = DirtyTracker.valuesOf(metadata, object);
+    	Object[] keys = primaryKeyValues(object, metadata);
+    	BitSet changed = changedColumns(object, values);
+    	if(!changed.isEmpty()) {
+    		String[] assignments = templates.literalAssignments();
+    		sql.append(templates.literalUpdate());
+    		for(int i = changed.nextSetBit(0), n = 0; i >= 0; i = changed.nextSetBit(i + 1), n++) {
+    			appendSQL(sql.append(n == 0 ? "" : ",").append(assignments[i]), values[i]);
+    		}
+    		appendWhere(sql.append(" WHERE "), templates, keys);
+    	}
+    	for(Object child : children(object, metadata, true)) {
+    		appendUpdate(child, sql);
     	}
     }
     
     /**
-	 * Generates the DELETE-Statement of the given object. The WHERE condition is depended
-	 * on the information if it is a primary key by the column annotation
+	 * Generates the DELETE-Statement of the given object preceded by the ones of its OneToOne/-Many wrapped objects.
+	 * The WHERE condition is depended on the information if it is a primary key by the column annotation
 	 * @param object on which the DELETE-Statement should be generated 
 	 * @return SQL DELETE-Statement
-	 * @throws KORException when a primary key is null
+	 * @throws KORException when the class declares no primary key or a primary key is null
 	 */
     public String generateDelete(Object object) throws KORException {
-    	String sql = "DELETE FROM "+ar.tableNameOf(object)+" WHERE ";
-    	for (Map.Entry<String, String> pair : ar.primaryKeys(object).entrySet()) {
-    		sql += pair.getKey() + " = '" + pair.getValue() + "'AND ";
+    	StringBuilder sql = new StringBuilder(128);
+    	appendDelete(object, sql);
+    	return sql.toString();
+    }
+    
+    private void appendDelete(Object object, StringBuilder sql) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	for(Object child : children(object, metadata, false)) {
+    		appendDelete(child, sql);
     	}
-    	return fillDelete(object)+sql.substring(0, sql.lastIndexOf("AND"))+";";
+    	SqlTemplates templates = templatesOf(metadata);
+    	appendWhere(sql.append(templates.literalDelete()), templates, primaryKeyValues(object, metadata));
     }
     
     /**
-     * Returns multiple delete statements for OneToOne/-Many wrapped objects
-     * @param object on which the update statements for OneToOne/-Many may be created
-     * @return multiple SQL statements or an empty string
+     * Appends the primary key conditions joined by AND and terminates the statement
      */
-    private String fillDelete(Object object) throws KORException {
-    	try {
-    		String sql = "";
-        	for(Field oto : AnnotationReflector.fieldsOfOTN(object).keySet()) { //Field value must be a single object
-        		sql += generateDelete(oto.get(object));
-        	}
-        	for(Field otmField : AnnotationReflector.fieldsOfOTM(object).keySet()) { //Field value must be a List
-        		List<?> values = (List<?>)AnnotationReflector.runGetter(otmField, object);
-        		for(Object val : values) {
-        			sql += generateDelete(val);
-        		}
-        	}
-        	return sql+";";	}
-    	catch(Exception e) {
-    		throw new KORException(e.getMessage());
+    private void appendWhere(StringBuilder sql, SqlTemplates templates, Object[] keys) {
+    	String[] conditions = templates.literalConditions();
+    	for(int i = 0; i < keys.length; i++) {
+    		appendSQL(sql.append(i == 0 ? "" : " AND ").append(conditions[i]), keys[i]);
+    	}
+    	sql.append(';');
+    }
+    
+    
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+  	 * 																		 *
+  	 * Parameterized Insert, Update, Delete								     *
+  	 * 																		 *
+  	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    
+    
+    /**
+     * Generates the parameterized INSERT-Statements of the given object and of its OneToOne/-Many wrapped objects
+     * @param object on which the INSERT-Statements should be generated
+     * @return the INSERT-Statement of the object followed by the ones of the wrapped objects
+     * @throws KORException when a value could not be retrieved
+     */
+    public List<BoundStatement> insertStatements(Object object) throws KORException {
+    	return insertStatements(object, false);
+    }
+    
+    /**
+     * Generates the parameterized INSERT-Statements of the given object and of its OneToOne/-Many wrapped objects
+     * @param object on which the INSERT-Statements should be generated
+     * @param bindFields true when the statements are executed before the objects may change, without dirty tracking
+     * they are then bound straight from the fields
+     * @return the INSERT-Statement of the object followed by the ones of the wrapped objects
+     * @throws KORException when a value could not be retrieved
+     */
+    List<BoundStatement> insertStatements(Object object, boolean bindFields) throws KORException {
+    	List<BoundStatement> erg = new ArrayList<>();
+    	addInserts(object, erg, bindFields && dirtyTracker == null);
+    	return erg;
+    }
+    
+    private void addInserts(Object object, List<BoundStatement> erg, boolean bindFields) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	SqlTemplates templates = templatesOf(metadata);
+    	if(bindFields) {
+    		erg.add(new BoundStatement(Operation.INSERT, metadata.getType(), templates.insert(mode), templates.insertColumns(),
+    				new Object[] {object}, templates.insertConverters()));
+    		for(Object child : children(object, metadata, false)) {
+    			addInserts(child, erg, true);
     		}
+    		return;
     	}
+    	Object[] values = values(object, metadata.getColumns());
+    	BoundStatement statement = new BoundStatement(Operation.INSERT, metadata.getType(), templates.insert(mode), values,
+    			templates.insertConverters());
+    	if(dirtyTracker != null) {
+    		statement.track(object, values);
+    	}
+    	erg.add(statement);
+    	for(Object child : children(object, metadata, false)) {
+    		addInserts(child, erg, false);
+    	}
+    }
+    
+    /**
+     * Generates the parameterized UPDATE-Statements of the given object and of its OneToOne/-Many wrapped objects.
+     * With dirty tracking the statement of a tracked object only sets its changed columns and is omitted when
+     * nothing has changed. The snapshots are refreshed by the KORMapper once the statements have been committed.
+     * @param object on which the UPDATE-Statements should be generated
+     * @return the UPDATE-Statement of the object followed by the ones of the wrapped objects
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    public List<BoundStatement> updateStatements(Object object) throws KORException {
+    	return updateStatements(object, false);
+    }
+    
+    /**
+     * Generates the parameterized UPDATE-Statements of the given object and of its OneToOne/-Many wrapped objects
+     * @param object on which the UPDATE-Statements should be generated
+     * @param bindFields true when the statements are executed before the objects may change, without dirty tracking
+     * they are then bound straight from the fields
+     * @return the UPDATE-Statement of the object followed by the ones of the wrapped objects
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    List<BoundStatement> updateStatements(Object object, boolean bindFields) throws KORException {
+    	List<BoundStatement> erg = new ArrayList<>();
+    	addUpdates(object, erg, bindFields && dirtyTracker == null);
+    	return erg;
+    }
+    
+    private void addUpdates(Object object, List<BoundStatement> erg, boolean bindFields) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	if(bindFields) {
+    		checkPrimaryKeys(object, metadata);
+    		SqlTemplates templates = templatesOf(metadata);
+    		erg.add(new BoundStatement(Operation.UPDATE, metadata.getType(), templates.update(), templates.updateColumns(),
+    				new Object[] {object}, templates.updateConverters()));
+    		for(Object child : children(object, metadata, true)) {
+    			addUpdates(child, erg, true);
+    		}
+    		return;
+    	}
+    	Object[] values = DirtyTracker.valuesOf(metadata, object);
+    	Object[] keys = primaryKeyValues(object, metadata);
+    	SqlTemplates templates = templatesOf(metadata);
+    	BitSet changed = changedColumns(object, values);
+    	BoundStatement statement = null;
+    	if(changed.cardinality() == values.length) {
+    		Object[] parameters = Arrays.copyOf(values, values.length + keys.length);
+    		System.arraycopy(keys, 0, parameters, values.length, keys.length);
+    		statement = new BoundStatement(Operation.UPDATE, metadata.getType(), templates.update(), parameters, templates.updateConverters());
+    	} else if(!changed.isEmpty()) {
+    		Object[] parameters = new Object[changed.cardinality() + keys.length];
+    		int p = 0;
+    		for(int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+    			parameters[p++] = values[i];
+    		}
+    		System.arraycopy(keys, 0, parameters, p, keys.length);
+    		statement = new BoundStatement(Operation.UPDATE, metadata.getType(), templates.update(changed), parameters,
+    				templates.updateConverters(changed));
+    	}
+    	if(statement != null) {
+    		if(dirtyTracker != null) {
+    			statement.track(object, values);
+    		}
+    		erg.add(statement);
+    	}
+    	for(Object child : children(object, metadata, true)) {
+    		addUpdates(child, erg, false);
+    	}
+    }
+    
+    /**
+     * Generates the parameterized DELETE-Statements of the given object and of its OneToOne/-Many wrapped objects
+     * @param object on which the DELETE-Statements should be generated
+     * @return the DELETE-Statements of the wrapped objects followed by the one of the object
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    public List<BoundStatement> deleteStatements(Object object) throws KORException {
+    	return deleteStatements(object, false);
+    }
+    
+    /**
+     * Generates the parameterized DELETE-Statements of the given object and of its OneToOne/-Many wrapped objects
+     * @param object on which the DELETE-Statements should be generated
+     * @param bindFields true when the statements are executed before the objects may change, without dirty tracking
+     * they are then bound straight from the fields
+     * @return the DELETE-Statements of the wrapped objects followed by the one of the object
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    List<BoundStatement> deleteStatements(Object object, boolean bindFields) throws KORException {
+    	List<BoundStatement> erg = new ArrayList<>();
+    	addDeletes(object, erg, bindFields && dirtyTracker == null);
+    	return erg;
+    }
+    
+    private void addDeletes(Object object, List<BoundStatement> erg, boolean bindFields) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	for(Object child : children(object, metadata, false)) {
+    		addDeletes(child, erg, bindFields);
+    	}
+    	SqlTemplates templates = templatesOf(metadata);
+    	if(bindFields) {
+    		checkPrimaryKeys(object, metadata);
+    		erg.add(new BoundStatement(Operation.DELETE, metadata.getType(), templates.delete(), templates.deleteColumns(),
+    				new Object[] {object}, templates.deleteConverters()));
+    		return;
+    	}
+    	BoundStatement statement = new BoundStatement(Operation.DELETE, metadata.getType(), templates.delete(), primaryKeyValues(object, metadata),
+    			templates.deleteConverters());
+    	if(dirtyTracker != null) {
+    		statement.track(object, null);
+    	}
+    	erg.add(statement);
+    }
+    
+    /**
+     * Generates multi-row INSERT-Statements of the given objects and of their OneToOne/-Many wrapped objects. <br>
+     * The objects are grouped by their class and every statement inserts up to rowsPerStatement objects of the
+     * same class, but never binds more than maxParameters values.
+     * @param objects the objects to be inserted
+     * @param rowsPerStatement the maximal number of rows in a single VALUES list
+     * @param maxParameters the maximal number of bound values of a single statement
+     * @return the INSERT-Statements of the classes in order of their first occurrence
+     * @throws KORException when a value could not be retrieved
+     */
+    public List<BoundStatement> bulkInsertStatements(Collection<?> objects, int rowsPerStatement, int maxParameters) throws KORException {
+    	return bulkInsertStatements(objects, rowsPerStatement, maxParameters, false);
+    }
+    
+    /**
+     * Generates multi-row INSERT-Statements of the given objects and of their OneToOne/-Many wrapped objects
+     * @param objects the objects to be inserted
+     * @param rowsPerStatement the maximal number of rows in a single VALUES list
+     * @param maxParameters the maximal number of bound values of a single statement
+     * @param bindFields true when the statements are executed before the objects may change, they are then
+     * bound straight from the fields
+     * @return the INSERT-Statements of the classes in order of their first occurrence
+     * @throws KORException when a value could not be retrieved
+     */
+    List<BoundStatement> bulkInsertStatements(Collection<?> objects, int rowsPerStatement, int maxParameters,
+    		boolean bindFields) throws KORException {
+    	Map<Class<?>, List<Object>> rowsByClass = new LinkedHashMap<>();
+    	for(Object object : objects) {
+    		collect(object, rowsByClass);
+    	}
+    	List<BoundStatement> erg = new ArrayList<>();
+    	for(List<Object> rows : rowsByClass.values()) {
+    		EntityMetadata metadata = MetadataRegistry.of(rows.get(0));
+    		List<ColumnMetadata> columns = metadata.getColumns();
+    		if(columns.isEmpty()) {
+    			continue;
+    		}
+    		int chunk = Math.max(1, Math.min(rowsPerStatement, maxParameters / columns.size()));
+    		SqlTemplates templates = templatesOf(metadata);
+    		for(int from = 0; from < rows.size(); from += chunk) {
+    			int to = Math.min(from + chunk, rows.size());
+    			if(bindFields) {
+    				erg.add(new BoundStatement(Operation.INSERT, metadata.getType(), templates.bulkInsert(mode, to - from),
+    						templates.insertColumns(), rows.subList(from, to).toArray(), templates.bulkInsertConverters(to - from)));
+    				continue;
+    			}
+    			Object[] parameters = new Object[(to - from) * columns.size()];
+    			int p = 0;
+    			for(int i = from; i < to; i++) {
+    				for(ColumnMetadata column : columns) {
+    					parameters[p++] = column.getAccessor().get(rows.get(i));
+    				}
+    			}
+    			erg.add(new BoundStatement(Operation.INSERT, metadata.getType(),
+    					templates.bulkInsert(mode, to - from), parameters, templates.bulkInsertConverters(to - from)));
+    		}
+    	}
+    	return erg;
+    }
+    
+    private void collect(Object object, Map<Class<?>, List<Object>> rowsByClass) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	rowsByClass.computeIfAbsent(metadata.getType(), type -> new ArrayList<>()).add(object);
+    	for(Object child : children(object, metadata, false)) {
+    		collect(child, rowsByClass);
+    	}
+    }
     
     
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -188,19 +406,13 @@ public class KORGenerator {
      * by ReferencedColumnName has no value
      */
     public String generateSelect(Object reference, OneToOne oneToOne) throws KORException {
-    	try {
-    		Object object = oneToOne.sample().getConstructor().newInstance();
-        	String sql = "SELECT * FROM "+ar.tableNameOf(object)+" WHERE ";
-        	for(Map.Entry<String, String> pk : ar.columns(reference).entrySet()) {
-        		if(pk.getKey().equals(oneToOne.columnName())) {
-        			sql += oneToOne.referencedColumnName() + "=" + asSQL(pk.getValue());
-        			return sql;
-        		}
-        	}
-    	} catch(Exception e) {
-    		throw new KORException("A MappingConstructor is missing");
+    	ColumnMetadata column = MetadataRegistry.of(reference).columnOf(oneToOne.columnName());
+    	if(column == null) {
+    		throw new KORException("ReferencedColumnName must have a value");
     	}
-    	throw new KORException("ReferencedColumnName must have a value");
+    	Object value = column.getAccessor().get(reference);
+    	return appendSQL(new StringBuilder("SELECT * FROM ").append(MetadataRegistry.of(oneToOne.sample()).getTableName())
+    			.append(" WHERE ").append(oneToOne.referencedColumnName()).append('='), value).toString();
     }
     
     /**
@@ -213,19 +425,179 @@ public class KORGenerator {
      * by ReferencedColumnName has no value
      */
     public String generateSelect(Object reference, OneToMany oneToMany) throws KORException {
-    	try {
-    		Object object = oneToMany.sample().getConstructor().newInstance();
-        	String sql = "SELECT * FROM "+ar.tableNameOf(object)+" WHERE ";
-        	for(Map.Entry<String, String> pk : ar.primaryKeys(reference).entrySet()) {
-        		if(pk.getKey().equals(oneToMany.referencedColumnName())) {
-        			sql += oneToMany.columnName() + "=" + asSQL(pk.getValue());
-        			return sql;
-        		}
-        	}
-    	} catch(Exception e) {
-    		throw new KORException("A MappingConstructor is missing");
+    	ColumnMetadata column = MetadataRegistry.of(reference).columnOf(oneToMany.referencedColumnName());
+    	if(column == null || !column.isPrimaryKey()) {
+    		throw new KORException("ReferencedColumName must have a value");
+    	}
+    	Object value = column.getAccessor().get(reference);
+    	if(value == null) {
+    		throw new KORException("A primaryKey may not be null");
+    	}
+    	return appendSQL(new StringBuilder("SELECT * FROM ").append(MetadataRegistry.of(oneToMany.sample()).getTableName())
+    			.append(" WHERE ").append(oneToMany.columnName()).append('='), value).toString();
+    }
+    
+    
+    /**
+     * Generates a parameterized SQL-Statement that retrieves all records of the specified One To One Relationship
+     * @param reference the object on which the SELECT-Statement should be referred
+     * @param oneToOne the annotation on the field that should be referred
+     * @return a parameterized SELECT-Statement
+     * @throws KORException when the field which is referred by columnName does not exist
+     */
+    public BoundStatement selectStatement(Object reference, OneToOne oneToOne) throws KORException {
+    	return relationStatement(reference, false, oneToOne.sample(), oneToOne.columnName(), oneToOne.referencedColumnName());
+    }
+    
+    /**
+     * Generates a parameterized SQL-Statement that retrieves all records of the specified One To Many Relationship
+     * @param reference the object on which the SELECT-Statement should be referred
+     * @param oneToMany the annotation on the field that should be referred
+     * @return a parameterized SELECT-Statement
+     * @throws KORException when the primary key which is referred by referencedColumnName does not exist or is null
+     */
+    public BoundStatement selectStatement(Object reference, OneToMany oneToMany) throws KORException {
+    	return relationStatement(reference, true, oneToMany.sample(), oneToMany.columnName(), oneToMany.referencedColumnName());
+    }
+    
+    /**
+     * Generates a parameterized SQL-Statement that retrieves all records of the given relation. Unlike the
+     * annotation variants the relation is described by its metadata, thus a class with a generated mapper
+     * is not reflected.
+     * @param reference the object on which the SELECT-Statement should be referred
+     * @param relation the relation of the field that should be referred
+     * @return a parameterized SELECT-Statement
+     * @throws KORException when the column which is referred by the relation does not exist or a referred
+     * primary key is null
+     */
+    public BoundStatement selectStatement(Object reference, RelationMetadata relation) throws KORException {
+    	return relationStatement(reference, relation.isOneToMany(), relation.getSample(), relation.getColumnName(),
+    			relation.getReferencedColumnName());
+    }
+    
+    private BoundStatement relationStatement(Object reference, boolean oneToMany, Class<?> sample, String columnName,
+    		String referencedColumnName) throws KORException {
+    	String tableName = MetadataRegistry.of(sample).getTableName();
+    	if(!oneToMany) {
+    		ColumnMetadata column = MetadataRegistry.of(reference).columnOf(columnName);
+    		if(column == null) {
+    			throw new KORException("ReferencedColumnName must have a value");
+    		}
+    		return new BoundStatement(Operation.SELECT, sample, "SELECT * FROM "+tableName+" WHERE "+referencedColumnName+" = ?",
+    				new Object[] {column.getAccessor().get(reference)}, convertersOf(column.getConverter(), 1));
+    	}
+    	ColumnMetadata column = MetadataRegistry.of(reference).columnOf(referencedColumnName);
+    	if(column == null || !column.isPrimaryKey()) {
+    		throw new KORException("ReferencedColumName must have a value");
+    	}
+    	Object value = column.getAccessor().get(reference);
+    	if(value == null) {
+    		throw new KORException("A primaryKey may not be null");
+    	}
+    	return new BoundStatement(Operation.SELECT, sample, "SELECT * FROM "+tableName+" WHERE "+columnName+" = ?",
+    			new Object[] {value}, convertersOf(column.getConverter(), 1));
+    }
+    
+    
+    /**
+     * Generates a parameterized SQL-Statement that retrieves the record of the given class with the given primary keys
+     * @param sample the class of the retrieved record
+     * @param primaryKeys the values of the primary keys in declaration order
+     * @return a parameterized SELECT ... WHERE primary key = ? statement
+     * @throws KORException when the number of values does not match the primary keys of the class or a value is
+     * null or does not fit its column
+     */
+    public BoundStatement selectStatement(Class<?> sample, Object... primaryKeys) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(sample);
+    	SqlTemplates templates = templatesOf(metadata);
+    	return new BoundStatement(Operation.SELECT, sample, templates.select(), primaryKeysOf(metadata, primaryKeys),
+    			templates.deleteConverters());
+    }
+    
+    /**
+     * Converts the given primary keys to the types of the primary key columns, so the same record has the same
+     * key in the EntityCache and is bound by the converters of the columns regardless of the given types
+     * @param metadata the metadata of the class of the record
+     * @param primaryKeys the values of the primary keys in declaration order
+     * @return a new array with the converted values
+     * @throws KORException when the number of values does not match the primary keys of the class or a value is
+     * null or does not fit its column
+     */
+    static Object[] primaryKeysOf(EntityMetadata metadata, Object[] primaryKeys) throws KORException {
+    	List<ColumnMetadata> columns = metadata.getPrimaryKeys();
+    	if(columns.isEmpty() || columns.size() != primaryKeys.length) {
+    		throw new KORException(metadata.getType().getName()+" declares "+columns.size()+" primary keys, "
+    				+primaryKeys.length+" values were given");
+    	}
+    	Object[] converted = new Object[primaryKeys.length];
+    	for(int i = 0; i < primaryKeys.length; i++) {
+    		if(primaryKeys[i] == null) {
+    			throw new KORException("A primaryKey may not be null");
+    		}
+    		converted[i] = columns.get(i).convert(primaryKeys[i]);
+    	}
+    	return converted;
+    }
+    
+    /**
+     * Generates a parameterized SQL-Statement that retrieves all records of the given class whose column
+     * equals one of the given values
+     * @param sample the class of the retrieved records
+     * @param columnName the name of the compared column
+     * @param values the values of the IN list
+     * @param converter the converter of the values
+     * @return a parameterized SELECT ... WHERE columnName IN (...) statement
+     */
+    public BoundStatement selectStatement(Class<?> sample, String columnName, List<?> values, TypeConverter<Object> converter) {
+    	StringBuilder sql = new StringBuilder("SELECT * FROM ").append(MetadataRegistry.of(sample).getTableName())
+    			.append(" WHERE ").append(columnName).append(" IN (");
+    	for(int i = 0; i < values.size(); i++) {
+    		sql.append(i == 0 ? "?" : ",?");
+    	}
+    	return new BoundStatement(Operation.SELECT, sample, sql.append(')').toString(), values.toArray(), convertersOf(converter, values.size()));
+    }
+    
+    
+    /**
+     * Generates a SELECT-Statement which joins the records of the given query with the records of all
+     * eager OneToOne/-Many relations of the given class. <br>
+     * The query is used as derived table t0 and has to return all Column annotated columns of the class.
+     * The columns of the query are selected first, followed by the columns of every relation in the order of
+     * EntityMetadata.getEagerRelations(). Every column is aliased by its table alias and name, e.g. t1_l_text.
+     * @param query the query of the records of the given class
+     * @param sample the class of the records of the query
+     * @return a SELECT ... LEFT JOIN ... statement with the parameters of the query
+     */
+    public BoundStatement joinStatement(BoundStatement query, Class<?> sample) {
+    	EntityMetadata metadata = MetadataRegistry.of(sample);
+    	String root = query.getSql().trim();
+    	if(root.endsWith(";")) {
+    		root = root.substring(0, root.length() - 1);
+    	}
+    	StringBuilder select = new StringBuilder("SELECT ");
+    	StringBuilder from = new StringBuilder(" FROM (").append(root).append(") t0");
+    	appendColumns(select, "t0", metadata);
+    	int alias = 1;
+    	for(RelationMetadata relation : metadata.getEagerRelations()) {
+    		EntityMetadata related = MetadataRegistry.of(relation.getSample());
+    		String table = "t" + alias++;
+    		String key = relation.isOneToMany() ? relation.getReferencedColumnName() : relation.getColumnName();
+    		String referenced = relation.isOneToMany() ? relation.getColumnName() : relation.getReferencedColumnName();
+    		select.append(',');
+    		appendColumns(select, table, related);
+    		from.append(" LEFT JOIN ").append(related.getTableName()).append(' ').append(table)
+    			.append(" ON ").append(table).append('.').append(referenced).append(" = t0.").append(key);
+    	}
+    	return new BoundStatement(Operation.SELECT, sample, select.append(from).toString(), query.getParameters(), query.getConverters());
+    }
+    
+    private static void appendColumns(StringBuilder select, String table, EntityMetadata metadata) {
+    	List<ColumnMetadata> columns = metadata.getColumns();
+    	for(int i = 0; i < columns.size(); i++) {
+    		String name = columns.get(i).getName();
+    		select.append(i == 0 ? "" : ",").append(table).append('.').append(name)
+    			.append(" AS ").append(table).append('_').append(name);
     	}
-    	throw new KORException("ReferencedColumName must have a value");
     }
     
     
@@ -237,18 +609,182 @@ public class KORGenerator {
     
     
     /**
-     * Converts the given String in a sql compatible format
+     * Returns the indices of the columns which have to be updated, these are all columns of an object which is
+     * not tracked
+     */
+    private BitSet changedColumns(Object object, Object[] values) {
+    	BitSet changed = dirtyTracker != null ? dirtyTracker.changed(object, values) : null;
+    	if(changed == null) {
+    		changed = new BitSet(values.length);
+    		changed.set(0, values.length);
+    	}
+    	return changed;
+    }
+    
+    /**
+     * Converts the given String in a sql compatible format. Single quotes inside the string are escaped.
      * @param convert the string to be converted
-     * @return null or the converted string
+     * @return NULL or the converted string
      */
     public String asSQL(String convert) {
     	if(convert != null) {
-    		return "'"+convert+"'";
+    		return appendSQL(new StringBuilder(convert.length() + 2), convert).toString();
     	} else {
-    		return null;
+    		return "NULL";
     	}
     }
     
+    /**
+     * Appends the given value as SQL literal of the type the built-in converters bind it with. Integral and finite
+     * decimal numbers are appended unquoted, booleans as 1 or 0, byte arrays as blob literal, enums by their
+     * name and every other value as quoted string.
+     * @return the given StringBuilder
+     */
+    private static StringBuilder appendSQL(StringBuilder sql, Object value) {
+    	if(value == null) {
+    		return sql.append("NULL");
+    	}
+    	if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+    		return sql.append(((Number)value).longValue());
+    	}
+    	if((value instanceof Double || value instanceof Float) && Double.isFinite(((Number)value).doubleValue())) {
+    		return sql.append(((Number)value).doubleValue());
+    	}
+    	if(value instanceof BigDecimal) {
+    		return sql.append(((BigDecimal)value).toPlainString());
+    	}
+    	if(value instanceof Boolean) {
+    		return sql.append((Boolean)value ? '1' : '0');
+    	}
+    	if(value instanceof byte[]) {
+    		sql.append("X'");
+    		for(byte b : (byte[])value) {
+    			sql.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    		}
+    		return sql.append('\'');
+    	}
+    	String convert = value instanceof Enum ? ((Enum<?>)value).name() : value.toString();
+    	sql.append('\'');
+    	int from = 0;
+    	for(int quote = convert.indexOf('\''); quote >= 0; quote = convert.indexOf('\'', from)) {
+    		sql.append(convert, from, quote + 1).append('\'');
+    		from = quote + 1;
+    	}
+    	return sql.append(convert, from, convert.length()).append('\'');
+    }
+    
+    /**
+     * Builds the SQL templates of the given class ahead of its first use, see KORMapper.register
+     * @param metadata the metadata of the class
+     */
+    static void prepare(EntityMetadata metadata) {
+    	templatesOf(metadata);
+    }
+    
+    /**
+     * Returns the SQL templates of the given class and builds them when the class is used for the first time
+     * @param metadata the metadata of the class
+     * @return the SQL templates of the class
+     */
+    private static SqlTemplates templatesOf(EntityMetadata metadata) {
+    	SqlTemplates templates = TEMPLATES.get(metadata.getType());
+    	if(templates == null) {
+    		templates = TEMPLATES.computeIfAbsent(metadata.getType(), type -> new SqlTemplates(metadata));
+    	}
+    	return templates;
+    }
+    
+    /**
+     * Returns an array which holds the given converter count times
+     */
+    @SuppressWarnings("unchecked") //a generic array can not be created, the array only holds the given converter
+    private static TypeConverter<Object>[] convertersOf(TypeConverter<Object> converter, int count) {
+    	TypeConverter<Object>[] converters = (TypeConverter<Object>[])new TypeConverter<?>[count];
+    	Arrays.fill(converters, converter);
+    	return converters;
+    }
+    
+    /**
+     * Returns the values of the given columns in the given object
+     */
+    private static Object[] values(Object object, List<ColumnMetadata> columns) throws KORException {
+    	Object[] values = new Object[columns.size()];
+    	for(int i = 0; i < values.length; i++) {
+    		values[i] = columns.get(i).getAccessor().get(object);
+    	}
+    	return values;
+    }
+    
+    /**
+     * Returns the values of the primary keys in the given object
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    private static Object[] primaryKeyValues(Object object, EntityMetadata metadata) throws KORException {
+    	if(metadata.getPrimaryKeys().isEmpty()) {
+    		throw new KORException(metadata.getType().getName()+" declares no primary key");
+    	}
+    	Object[] values = values(object, metadata.getPrimaryKeys());
+    	for(Object value : values) {
+    		if(value == null) {
+    			throw new KORException("A primaryKey may not be null");
+    		}
+    	}
+    	return values;
+    }
+    
+    /**
+     * Checks that the given object has a value for every primary key, primitive primary keys always have one
+     * and are not read
+     * @throws KORException when the class declares no primary key or a primary key is null
+     */
+    private static void checkPrimaryKeys(Object object, EntityMetadata metadata) throws KORException {
+    	if(metadata.getPrimaryKeys().isEmpty()) {
+    		throw new KORException(metadata.getType().getName()+" declares no primary key");
+    	}
+    	for(ColumnMetadata column : metadata.getPrimaryKeys()) {
+    		if(!column.getAccessor().getType().isPrimitive() && column.getAccessor().get(object) == null) {
+    			throw new KORException("A primaryKey may not be null");
+    		}
+    	}
+    }
+    
+    /**
+     * Returns the OneToOne/-Many wrapped objects of the given object in declaration order. <br>
+     * Lazy relations which have not been loaded yet are skipped when skipUnloaded is true, otherwise they are loaded.
+     * An update may skip them, since their objects cannot have been changed.
+     */
+    private static List<Object> children(Object object, EntityMetadata metadata, boolean skipUnloaded) throws KORException {
+    	try {
+    		return lazyChildren(object, metadata, skipUnloaded);
+    	} catch(LazyLoadException e) {
+    		throw new KORException(e.getMessage());
+    	}
+    }
+    
+    private static List<Object> lazyChildren(Object object, EntityMetadata metadata, boolean skipUnloaded) throws KORException {
+    	List<Object> erg = new ArrayList<>();
+    	for(RelationMetadata oto : metadata.getOneToOnes()) { //Field value must be a single object or a LazyReference
+    		Object value = oto.getAccessor().get(object);
+    		if(value instanceof LazyReference) {
+    			LazyReference<?> reference = (LazyReference<?>)value;
+    			value = skipUnloaded && !reference.isLoaded() ? null : reference.get();
+    		}
+    		if(value != null) {
+    			erg.add(value);
+    		}
+    	}
+    	for(RelationMetadata otm : metadata.getOneToManys()) { //Field value must be a List
+    		List<?> values = (List<?>)otm.getAccessor().get(object);
+    		if(values instanceof LazyList && skipUnloaded && !((LazyList<?>)values).isLoaded()) {
+    			continue;
+    		}
+    		if(values != null) {
+    			erg.addAll(values);
+    		}
+    	}
+    	return erg;
+    }
+    
     
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
   	 * 																		 *
@@ -268,4 +804,12 @@ public class KORGenerator {
     		throw new ParamException("Error: Mode may not be null");
     	}	
     }
+    
+    /**
+     * Sets the snapshots the UPDATE-Statements are compared with, null disables the dirty tracking
+     * @param dirtyTracker the snapshots of the KORMapper
+     */
+    void setDirtyTracker(DirtyTracker dirtyTracker) {
+    	this.dirtyTracker = dirtyTracker;
+    }
 }
@@ -1,38 +1,102 @@
 package com.kormapper.model;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
 
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import com.kormapper.annotation.OneToMany;
-import com.kormapper.annotation.OneToOne;
+import javax.sql.DataSource;
+
+import com.kormapper.cache.EntityCache;
+import com.kormapper.cache.QueryCache;
+import com.kormapper.connection.ConnectionProvider;
+import com.kormapper.connection.DataSourceConnectionProvider;
+import com.kormapper.connection.KORConnectionPool;
+import com.kormapper.connection.PoolConfig;
+import com.kormapper.exception.BusyException;
 import com.kormapper.exception.CommunicationException;
 import com.kormapper.exception.KORException;
+import com.kormapper.exception.MappingException;
 import com.kormapper.exception.ParamException;
-import com.kormapper.reflection.AnnotationReflector;
+import com.kormapper.exception.StreamException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.RelationMetadata;
 
 /**
  * KORMapper stands for Karui Object Relational Mapper <br>
- * This class provides all the methods that are specified in the KORMapper-API-Guide
+ * This class provides all the methods that are specified in the KORMapper-API-Guide <br>
+ * The connections are obtained from a ConnectionProvider. A KORMapper which owns a connection pool
+ * has to be closed to release the pooled connections. A KORMapper created from a URL opens its pool on the
+ * first use and keeps no connection open while it is idle, i.e. it holds the database file only for the idle
+ * timeout of the pool after its last statement unless it is closed. Queries use the connections of getConnection, writes
+ * and DDL use the write connections, thus a ReadWriteConnectionProvider routes all writes to a single
+ * SQLite writer. <br>
+ * A KORMapper is thread-safe and is meant to be shared: the transaction started by startTransaction belongs
+ * to the calling thread, a KORSession may own its own transaction. The configuration, e.g. the batch sizes
+ * or the caches, should be set before the KORMapper is shared.
  * @author leonhardmuellauer
  */
-public class KORMapper{
+public class KORMapper implements AutoCloseable {
 	
 	private KORGenerator generator;
 	private String url;
+	private volatile ConnectionProvider connectionProvider;
+	private KORConnectionPool urlPool;
+	
+	private final ThreadLocal<Transaction> transactions = new ThreadLocal<>();
+	/** The connection of the stream whose chunk is filled by the calling thread */
+	private final ThreadLocal<Connection> streamConnections = new ThreadLocal<>();
+	private int batchSize = 1000;
+	private int bulkChunkSize = 500;
+	private int bulkParameterLimit = 999;
+	private FetchStrategy fetchStrategy = FetchStrategy.BATCH;
+	private int fetchBatchSize = 500;
+	private int fetchSize = 0;
+	private EntityCache entityCache;
+	private QueryCache queryCache;
+	private DirtyTracker dirtyTracker;
+	private Executor executor;
+	private ExecutorService ownExecutor;
+	private RetryPolicy retryPolicy = new RetryPolicy();
+	
+	/**
+	 * A blocking call of an asynchronous method
+	 */
+	@FunctionalInterface
+	private interface Call<T> {
+		T call() throws KORException;
+	}
 	
-	private boolean isBuffering = false;
-	private String sql = "";
+	/**
+	 * A unit of JDBC work which may be retried as a whole
+	 */
+	@FunctionalInterface
+	private interface SqlCall<T> {
+		T call() throws SQLException, CommunicationException, KORException;
+	}
 	
 	
 	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -43,7 +107,9 @@ public class KORMapper{
 	
 	
 	/**
-	 * Instantiates a KORMapper with the given URL and an internal KORGenerator in DEFAULT Mode
+	 * Instantiates a KORMapper with the given URL and an internal KORGenerator in DEFAULT Mode. Nothing is opened
+	 * until the KORMapper is used, then the connections are pooled with the default PoolConfig and a minimal size
+	 * of 0, thus the PreparedStatements are reused, and are released by close or after the idle timeout.
 	 * @param url the URL to the database
 	 */
 	public KORMapper(String url) {
@@ -52,7 +118,7 @@ public class KORMapper{
 	}
 	
 	/**
-	 * Instantiates a KORMapper with the given URL and mode
+	 * Instantiates a KORMapper with the given URL and mode, see KORMapper(String)
 	 * @param url the URL to the database
 	 * @param mode the mode of the underlying KORGenerator
 	 */
@@ -61,6 +127,53 @@ public class KORMapper{
 		generator = new KORGenerator(mode);
 	}
 	
+	/**
+	 * Instantiates a KORMapper which borrows its connections from the given DataSource and an internal
+	 * KORGenerator in DEFAULT Mode
+	 * @param dataSource the DataSource of the database
+	 */
+	public KORMapper(DataSource dataSource) {
+		this(dataSource, Mode.DEFAULT);
+	}
+	
+	/**
+	 * Instantiates a KORMapper which borrows its connections from the given DataSource
+	 * @param dataSource the DataSource of the database
+	 * @param mode the mode of the underlying KORGenerator
+	 */
+	public KORMapper(DataSource dataSource, Mode mode) {
+		this(new DataSourceConnectionProvider(dataSource), mode);
+	}
+	
+	/**
+	 * Instantiates a KORMapper with a connection pool of the given configuration and an internal
+	 * KORGenerator in DEFAULT Mode
+	 * @param poolConfig the configuration of the connection pool
+	 */
+	public KORMapper(PoolConfig poolConfig) {
+		this(poolConfig, Mode.DEFAULT);
+	}
+	
+	/**
+	 * Instantiates a KORMapper with a connection pool of the given configuration
+	 * @param poolConfig the configuration of the connection pool
+	 * @param mode the mode of the underlying KORGenerator
+	 */
+	public KORMapper(PoolConfig poolConfig, Mode mode) {
+		this(new KORConnectionPool(poolConfig), mode);
+		this.url = poolConfig.getURL();
+	}
+	
+	/**
+	 * Instantiates a KORMapper which obtains its connections from the given ConnectionProvider
+	 * @param connectionProvider the provider of the connections
+	 * @param mode the mode of the underlying KORGenerator
+	 */
+	public KORMapper(ConnectionProvider connectionProvider, Mode mode) {
+		setConnectionProvider(connectionProvider);
+		generator = new KORGenerator(mode);
+	}
+	
     
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
 	 * 																		 *
@@ -78,51 +191,474 @@ public class KORMapper{
      * @throws KORException when the generated SQL-Statement is not accepted by the db
      */
     public <T> List<T> query(String query, Class<T> sample) throws KORException {
-    	try(Connection conn = connect();
-    		Statement stmt = conn.createStatement();
-    		ResultSet rs = stmt.executeQuery(query);)
-    	{
-    		ResultSetMetaData rsmd = rs.getMetaData();
-    		
-    		List<T> erg = new ArrayList<>();
-    		while(rs.next()) {
-    			T instance  = sample.getConstructor().newInstance(); //MappingConstructor forces the declaration of a standard constructor
-    			for(int i = 1; i <= rsmd.getColumnCount(); i++) {
-    				String colName = rsmd.getColumnName(i);
-    				Object value = rs.getObject(i);
-    				
-    				Field field = AnnotationReflector.fieldOf(colName, instance);
-    				if(field != null) {
-    					AnnotationReflector.runSetter(field, instance, value);	
+    	return query(new BoundStatement(Operation.SELECT, sample, query, new Object[0]), sample, LoadContext.NONE);
+    }
+    
+    /**
+     * Returns the object of the record with the given primary keys. When the class is cached by the
+     * EntityCache of this KORMapper a cached record is returned without querying the database.
+     * @param sample the class of the record
+     * @param primaryKeys the values of the primary keys in declaration order
+     * @param <T> This is the type parameter for building the instance
+     * @return the object of the record or null when the record does not exist
+     * @throws KORException when the number of values does not match the primary keys, a value does not fit its
+     * column or the query fails
+     */
+    public <T> T find(Class<T> sample, Object... primaryKeys) throws KORException {
+    	return find(sample, LoadContext.NONE, primaryKeys);
+    }
+    
+    /**
+     * Returns the object of the record with the given primary keys. The record is looked up in the context,
+     * then in the EntityCache and at last in the database.
+     * @param sample the class of the record
+     * @param context the context which resolves the identities of the loaded objects
+     * @param primaryKeys the values of the primary keys in declaration order
+     * @return the object of the record or null when the record does not exist
+     * @throws KORException when the number of values does not match the primary keys, a value does not fit its
+     * column or the query fails
+     */
+    <T> T find(Class<T> sample, LoadContext context, Object... primaryKeys) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(sample);
+    	primaryKeys = KORGenerator.primaryKeysOf(metadata, primaryKeys);
+    	Object known = context.find(metadata, primaryKeys);
+    	if(known != null) {
+    		return sample.cast(known);
+    	}
+    	T cached = entityCache != null ? entityCache.get(sample, primaryKeys) : null;
+    	if(cached != null) {
+    		T instance = sample.cast(canonical(metadata, cached, true, context));
+    		if(fetchStrategy == FetchStrategy.SELECT) {
+    			fillQuery(instance, context);
+    		} else {
+    			fillQuery(Arrays.asList(instance), sample, context);
+    		}
+    		return instance;
+    	}
+    	List<T> result = query(generator.selectStatement(sample, primaryKeys), sample, context);
+    	return result.isEmpty() ? null : result.get(0);
+    }
+    
+    /**
+     * Returns the result of a parameterized query into a ArrayList
+     * @param query the parameterized SQL select statement
+     * @param sample the build plan for the object
+     * @param context the context which resolves the identities of the loaded objects
+     * @return a empty or filled list with classes instanced by the passed class sample
+     * @throws KORException when the SQL-Statement is not accepted by the db
+     */
+    <T> List<T> query(BoundStatement query, Class<T> sample, LoadContext context) throws KORException {
+    	if(fetchStrategy == FetchStrategy.JOIN && JoinAssembler.supports(sample)) {
+    		return queryJoined(query, sample, context);
+    	}
+    	List<T> erg = load(query, sample, context);
+    	//The relations are loaded after the connection has been released, thus a pool is not drained by nested queries
+    	if(fetchStrategy == FetchStrategy.SELECT) {
+    		for(T instance : erg) {
+    			fillQuery(instance, context);
+    		}
+    	} else {
+    		fillQuery(erg, sample, context);
+    	}
+    	return erg;
+    }
+    
+    /**
+     * Returns the result of a query together with the direct relations of the objects, which are loaded by a
+     * single LEFT JOIN statement. The relations of the related objects are loaded by batched queries.
+     * @param query the parameterized SQL select statement
+     * @param sample the build plan for the object
+     * @param context the context which resolves the identities of the loaded objects
+     * @return a empty or filled list with classes instanced by the passed class sample
+     * @throws KORException when the SQL-Statement is not accepted by the db
+     */
+    private <T> List<T> queryJoined(BoundStatement query, Class<T> sample, LoadContext context) throws KORException {
+    	BoundStatement join = generator.joinStatement(query, sample);
+    	JoinAssembler assembler;
+    	try {
+    		//an attempt only reads into its own JoinAssembler, thus a failed attempt leaves no objects behind
+    		assembler = retry(() -> {
+    			try(Connection conn = connect();
+    				PreparedStatement stmt = conn.prepareStatement(join.getSql()))
+    			{
+    				ParameterBinder.bind(stmt, join);
+    				try(ResultSet rs = stmt.executeQuery()) {
+    					JoinAssembler read = new JoinAssembler(sample, context, dirtyTracker);
+    					read.read(rs);
+    					return read;
     				}
     			}
-    			fillQuery(instance);
-    			erg.add(instance);
+    		});
+    	} catch(SQLException e) {
+    		throw new KORException("The KORGenerator was not able to generate a valid SQL-Statement. Check Annotation");
+    	} catch(CommunicationException e) {
+    		throw new KORException(e.getMessage());
+    	}
+    	List<T> erg = assembler.assemble();
+    	EntityMetadata metadata = MetadataRegistry.of(sample);
+    	List<RelationMetadata> relations = metadata.getEagerRelations();
+    	for(T instance : assembler.<T>filled()) {
+    		fillLazy(instance, metadata, context);
+    	}
+    	for(int i = 0; i < relations.size(); i++) {
+    		fillQuery(assembler.related(i), relations.get(i).getSample(), context);
+    	}
+    	return erg;
+    }
+    
+    /**
+     * Returns the result of a parameterized query into a ArrayList without loading the OneToOne/-Many
+     * annotated fields. Rows which contain every column of a cached class are stored in the EntityCache.
+     * With a QueryCache the mapped rows are cached by the statement and its parameters.
+     * @param query the parameterized SQL select statement
+     * @param sample the build plan for the object
+     * @param context the context which resolves the identities of the loaded objects
+     * @return a empty or filled list with classes instanced by the passed class sample
+     * @throws KORException when the SQL-Statement is not accepted by the db
+     */
+    private <T> List<T> load(BoundStatement query, Class<T> sample, LoadContext context) throws KORException {
+    	EntityMetadata metadata = MetadataRegistry.of(sample);
+    	long version = 0;
+    	if(queryCache != null) {
+    		@SuppressWarnings("unchecked") //the entries of a result type are only put by this method
+    		RowMapper.Rows<T> cached = (RowMapper.Rows<T>)queryCache.get(query.getSql(), sample, query.getParameters());
+    		if(cached != null) {
+    			List<T> erg = cached.map();
+    			for(int i = 0; i < erg.size(); i++) {
+    				erg.set(i, sample.cast(canonical(metadata, erg.get(i), cached.isComplete(), context)));
+    			}
+    			return erg;
     		}
-    		return erg;
+    		version = queryCache.getVersion();
+    	}
+    	long generation = entityCache != null ? entityCache.getGeneration(sample) : 0;
+    	List<T> read = new ArrayList<>();
+    	RowMapper<T> plan;
+    	try {
+    		//an attempt only maps the rows, the caches and the context are updated once the read has succeeded
+    		plan = retry(() -> {
+    			read.clear();
+    			try(Connection conn = connect();
+    				PreparedStatement stmt = conn.prepareStatement(query.getSql()))
+    			{
+    				ParameterBinder.bind(stmt, query);
+    				if(fetchSize > 0) {
+    					stmt.setFetchSize(fetchSize);
+    				}
+    				try(ResultSet rs = stmt.executeQuery()) {
+    					RowMapper<T> mapper = RowMapper.of(sample, rs.getMetaData());
+    					while(rs.next()) {
+    						read.add(mapper.map(rs));
+    					}
+    					return mapper;
+    				}
+    			}
+    		});
     	} catch(SQLException e) {
     		throw new KORException("The KORGenerator was not able to generate a valid SQL-Statement. Check Annotation");
     	} catch(CommunicationException e) {
     		throw new KORException(e.getMessage());
-    	} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-				| InvocationTargetException | NoSuchMethodException | SecurityException e) {
-			throw new KORException("The passed class is not equal to the result");
-		} 
+    	}
+    	RowMapper.Rows<T> rows = queryCache != null ? new RowMapper.Rows<>(plan) : null;
+    	EntityCache cache = entityCache != null && entityCache.isCached(sample) && plan.isComplete() ? entityCache : null;
+    	List<T> erg = new ArrayList<>(read.size());
+    	for(T instance : read) {
+    		if(cache != null) {
+    			cache.put(instance, generation);
+    		}
+    		if(rows != null) {
+    			rows.add(instance);
+    		}
+    		erg.add(sample.cast(canonical(metadata, instance, plan.isComplete(), context)));
+    	}
+    	if(rows != null) {
+    		queryCache.put(query.getSql(), sample, query.getParameters(), rows, version);
+    	}
+    	return erg;
     }
     
     /**
      * Assigns for all OneToOne or OneToMany annotated fields a value. <br>
      * For OneToOne the value is a single object. <br>
-     * For OneToMany the value is a List with all the objects inside
+     * For OneToMany the value is a List with all the objects inside. <br>
+     * Lazy relations receive a LazyReference or LazyList, see fillLazy
      * @param object the object on which the fields should get a value
+     * @param context the context which resolves the identities of the loaded objects
      * @throws KORException when the annotation of the KORBridge classes is faulty
      */
-    private void fillQuery(Object object) throws KORException {
-    	for(Map.Entry<Field, OneToOne> map : AnnotationReflector.fieldsOfOTN(object).entrySet()) {
-    		AnnotationReflector.runSetter(map.getKey(), object, query(generator.generateSelect(object, map.getValue()), map.getValue().sample()).get(0));
+    private void fillQuery(Object object, LoadContext context) throws KORException {
+    	if(!context.claim(object)) {
+    		return;
+    	}
+    	EntityMetadata metadata = MetadataRegistry.of(object);
+    	for(RelationMetadata relation : metadata.getEagerRelations()) {
+    		if(relation.isOneToMany()) {
+    			relation.getAccessor().set(object, query(generator.selectStatement(object, relation), relation.getSample(), context));
+    		} else {
+    			List<?> result = query(generator.selectStatement(object, relation), relation.getSample(), context);
+    			relation.getAccessor().set(object, result.isEmpty() ? null : result.get(0));
+    		}
+    	}
+    	fillLazy(object, metadata, context);
+    }
+    
+    /**
+     * Assigns for all lazy OneToOne or OneToMany annotated fields a placeholder which queries the related
+     * objects by this KORMapper on its first access. <br>
+     * For OneToOne the value is a LazyReference. <br>
+     * For OneToMany the value is a LazyList. <br>
+     * The placeholders stay usable as long as this KORMapper is not closed.
+     * @param object the object on which the fields should get a value
+     * @param metadata the metadata of the object
+     * @param context the context which resolves the identities of the lazily loaded objects
+     * @throws KORException when a lazy OneToOne field is not declared as LazyReference
+     */
+    private void fillLazy(Object object, EntityMetadata metadata, LoadContext context) throws KORException {
+    	for(RelationMetadata relation : metadata.getLazyRelations()) {
+    		if(relation.isOneToMany()) {
+    			relation.getAccessor().set(object, new LazyList<Object>(
+    					() -> query(generator.selectStatement(object, relation), relation.getSample(), context)));
+    		} else if(LazyReference.class.isAssignableFrom(relation.getAccessor().getType())) {
+    			relation.getAccessor().set(object, new LazyReference<Object>(() -> {
+    				List<?> result = query(generator.selectStatement(object, relation), relation.getSample(), context);
+    				return result.isEmpty() ? null : result.get(0);
+    			}));
+    		} else {
+    			throw new KORException("The lazy OneToOne field "+relation.getAccessor().getName()+" of "
+    					+metadata.getType().getName()+" has to be declared as LazyReference");
+    		}
+    	}
+    }
+    
+    /**
+     * Assigns for all OneToOne or OneToMany annotated fields of the given objects a value. <br>
+     * The referenced keys of all objects are collected and the related objects are loaded with
+     * SELECT ... WHERE key IN (...) statements in chunks of the fetch batch size. The related objects are
+     * assigned by their key and their own relations are filled the same way. Lazy relations receive a
+     * placeholder, see fillLazy. OneToOne related objects which are already known by their primary key,
+     * within a session or by the EntityCache, are not queried again.
+     * @param objects the objects on which the fields should get a value
+     * @param type the class of the objects
+     * @param context the context which resolves the identities of the loaded objects
+     * @throws KORException when the annotation of the KORBridge classes is faulty
+     */
+    private void fillQuery(List<?> objects, Class<?> type, LoadContext context) throws KORException {
+    	objects = context.claim(objects);
+    	if(objects.isEmpty()) {
+    		return;
+    	}
+    	EntityMetadata metadata = MetadataRegistry.of(type);
+    	for(Object object : objects) {
+    		fillLazy(object, metadata, context);
+    	}
+    	for(RelationMetadata relation : metadata.getEagerRelations()) {
+    		ColumnMetadata key = metadata.columnOf(relation.isOneToMany() ? relation.getReferencedColumnName() : relation.getColumnName());
+    		String referencedName = relation.isOneToMany() ? relation.getColumnName() : relation.getReferencedColumnName();
+    		EntityMetadata relatedMetadata = MetadataRegistry.of(relation.getSample());
+    		ColumnMetadata referenced = relatedMetadata.columnOf(referencedName);
+    		if(key == null || referenced == null) {
+    			throw new KORException("ReferencedColumnName must have a value");
+    		}
+    		boolean byIdentity = !relation.isOneToMany() && relatedMetadata.getPrimaryKeys().size() == 1
+    				&& relatedMetadata.getPrimaryKeys().get(0) == referenced;
+    		
+    		Map<String, Object> keys = new LinkedHashMap<>();
+    		List<Object> children = new ArrayList<>();
+    		Map<String, List<Object>> childrenByKey = new LinkedHashMap<>();
+    		for(Object object : objects) {
+    			Object value = key.getAccessor().get(object);
+    			Object known = value != null && byIdentity ? context.find(relatedMetadata, value) : null;
+    			if(known == null && value != null && byIdentity && entityCache != null) {
+    				Object cached = entityCache.get(relation.getSample(), value);
+    				known = cached != null ? canonical(relatedMetadata, cached, true, context) : null;
+    			}
+    			if(known != null) {
+    				if(childrenByKey.putIfAbsent(keyOf(value), new ArrayList<>(Arrays.asList(known))) == null) {
+    					children.add(known);
+    				}
+    			} else if(value != null) {
+    				keys.putIfAbsent(keyOf(value), value);
+    			}
+    		}
+    		List<Object> values = new ArrayList<>(keys.values());
+    		for(int from = 0; from < values.size(); from += fetchBatchSize) {
+    			List<?> chunk = load(generator.selectStatement(relation.getSample(), referencedName,
+    					values.subList(from, Math.min(from + fetchBatchSize, values.size())), key.getConverter()), relation.getSample(), context);
+    			for(Object child : chunk) {
+    				childrenByKey.computeIfAbsent(keyOf(referenced.getAccessor().get(child)), k -> new ArrayList<>()).add(child);
+    			}
+    			children.addAll(chunk);
+    		}
+    		
+    		for(Object object : objects) {
+    			Object value = key.getAccessor().get(object);
+    			List<Object> related = value != null ? childrenByKey.get(keyOf(value)) : null;
+    			if(relation.isOneToMany()) {
+    				relation.getAccessor().set(object, related != null ? new ArrayList<>(related) : new ArrayList<>());
+    			} else {
+    				relation.getAccessor().set(object, related != null ? related.get(0) : null);
+    			}
+    		}
+    		fillQuery(children, relation.getSample(), context);
+    	}
+    }
+    
+    /**
+     * Returns the object of the record of the given freshly loaded object, see LoadContext.canonical. With dirty
+     * tracking a new object which holds the values of all of its columns is snapshotted.
+     * @param metadata the metadata of the object
+     * @param instance the loaded object
+     * @param complete whether every column has been loaded or not
+     * @param context the context which resolves the identities of the loaded objects
+     * @return the object of the record
+     * @throws KORException when a value could not be read
+     */
+    private Object canonical(EntityMetadata metadata, Object instance, boolean complete, LoadContext context) throws KORException {
+    	Object erg = context.canonical(metadata, instance);
+    	if(erg == instance && complete && dirtyTracker != null) {
+    		dirtyTracker.track(metadata, instance);
+    	}
+    	return erg;
+    }
+    
+    /**
+     * Returns the representation of a key value which is used to assign related objects. Numbers are compared
+     * by their numeric value like SQLite compares INTEGER and REAL values, i.e. 1, 1.0 and 1.00 have the same
+     * key, other values by their string representation, just like SQLite compares a TEXT column with a
+     * numeric value.
+     */
+    private static String keyOf(Object value) {
+    	if(value instanceof Number) {
+    		Number number = (Number)value;
+    		if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+    			return Long.toString(number.longValue());
+    		}
+    		try {
+    			BigDecimal decimal = number instanceof BigDecimal ? (BigDecimal)number : new BigDecimal(number.toString());
+    			return decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString();
+    		} catch(NumberFormatException e) {
+    			//NaN and Infinity equal only themselves
+    			return number.toString();
+    		}
     	}
-    	for(Map.Entry<Field, OneToMany> map : AnnotationReflector.fieldsOfOTM(object).entrySet()) {
-    		AnnotationReflector.runSetter(map.getKey(), object, query(generator.generateSelect(object, map.getValue()), map.getValue().sample()));
+    	if(value instanceof Boolean) {
+    		return (Boolean)value ? "1" : "0";
+    	}
+    	return String.valueOf(value);
+    }
+    
+    
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * KORMapper Stream													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    
+    
+    /**
+     * Returns the result of a query as a Stream which maps the rows while it is consumed. <br>
+     * The connection and the cursor stay open until the last row has been read or the Stream is closed, thus the
+     * Stream should be consumed in a try-with-resources block. The rows are read in chunks of the fetch batch size
+     * and the relations of a chunk are loaded before its objects are passed on. The relations are queried through
+     * the connection of the Stream, thus a pool of a single connection suffices. Lazy relations which are accessed
+     * while the Stream is open obtain a further connection. The JOIN FetchStrategy loads the relations like the
+     * BATCH FetchStrategy. <br>
+     * Errors while reading are thrown as StreamException.
+     * @param query the SQL select statement
+     * @param sample the build plan for the object
+     * @param <T> This is the type parameter for building the instance
+     * @return a Stream of objects instanced by the passed class sample
+     * @throws KORException when the SQL-Statement is not accepted by the db
+     */
+    public <T> Stream<T> stream(String query, Class<T> sample) throws KORException {
+    	Connection conn = null;
+    	PreparedStatement stmt = null;
+    	try {
+    		conn = connect();
+    		stmt = conn.prepareStatement(query);
+    		if(fetchSize > 0) {
+    			stmt.setFetchSize(fetchSize);
+    		}
+    		ResultSet rs = stmt.executeQuery();
+    		RowMapper<T> plan;
+    		try {
+    			plan = RowMapper.of(sample, rs.getMetaData());
+    		} catch(SQLException e) {
+    			rs.close();
+    			throw e;
+    		}
+    		EntityMetadata metadata = MetadataRegistry.of(sample);
+    		RowMapper<T> mapper = plan;
+    		Connection streamConnection = conn;
+    		ResultSetSpliterator<T> rows = new ResultSetSpliterator<>(conn, stmt, rs,
+    				row -> sample.cast(canonical(metadata, mapper.map(row), mapper.isComplete(), LoadContext.NONE)), fetchBatchSize,
+    				chunk -> fillChunk(chunk, sample, LoadContext.NONE, streamConnection));
+    		return StreamSupport.stream(rows, false).onClose(rows::close);
+    	} catch(SQLException e) {
+    		closeQuietly(stmt, conn);
+    		throw new KORException("The KORGenerator was not able to generate a valid SQL-Statement. Check Annotation");
+    	} catch(CommunicationException e) {
+    		throw new KORException(e.getMessage());
+    	}
+    }
+    
+    /**
+     * Passes every object of the result of a query to the given action without holding the whole result
+     * in memory, see stream
+     * @param query the SQL select statement
+     * @param sample the build plan for the object
+     * @param action the action which is performed for every object
+     * @param <T> This is the type parameter for building the instance
+     * @throws KORException when the SQL-Statement is not accepted by the db or a row could not be read
+     */
+    public <T> void forEach(String query, Class<T> sample, Consumer<? super T> action) throws KORException {
+    	try(Stream<T> stream = stream(query, sample)) {
+    		stream.forEach(action);
+    	} catch(StreamException e) {
+    		throw new KORException(e.getMessage());
+    	}
+    }
+    
+    /**
+     * Loads the relations of a chunk of streamed objects through the connection of the stream
+     */
+    private <T> void fillChunk(List<T> chunk, Class<T> sample, LoadContext context, Connection conn) throws KORException {
+    	Connection previous = streamConnections.get();
+    	streamConnections.set(conn);
+    	try {
+    		if(fetchStrategy == FetchStrategy.SELECT) {
+    			for(T instance : chunk) {
+    				fillQuery(instance, context);
+    			}
+    		} else {
+    			fillQuery(chunk, sample, context);
+    		}
+    	} finally {
+    		if(previous != null) {
+    			streamConnections.set(previous);
+    		} else {
+    			streamConnections.remove();
+    		}
+    	}
+    }
+    
+    /**
+     * Closes the given statement and connection after a failed query
+     */
+    private static void closeQuietly(Statement stmt, Connection conn) {
+    	try {
+    		if(stmt != null) {
+    			stmt.close();
+    		}
+    	} catch(SQLException e) {
+    		//The original error is reported instead
+    	}
+    	try {
+    		if(conn != null) {
+    			conn.close();
+    		}
+    	} catch(SQLException e) {
+    		//The original error is reported instead
     	}
     }
     
@@ -141,24 +677,59 @@ public class KORMapper{
      * @throws KORException when the generated SQL-Statement is not accepted by the database
      */
     public void insert(Object object) throws KORException {
-    	sql += generator.generateInsert(object);
-    	if(!isBuffering) {
-    		executeUpdate(sql);
+    	insert(object, null);
+    }
+    
+    /**
+     * Inserts the given object or buffers it in the given or the current transaction
+     * @param object the object to be inserted
+     * @param transaction the transaction of a session or null
+     * @throws KORException when the generated SQL-Statement is not accepted by the database
+     */
+    void insert(Object object, Transaction transaction) throws KORException {
+    	if(isBuffering(transaction)) {
+    		buffer(generator.insertStatements(object), transaction);
+    	} else {
+    		execute(generator.insertStatements(object, true));
     	}
     }
     
     /**
      * Inserts the given objects. All of the Inserts are passed as a single transaction thus
-     * increasing the performance significantly
+     * increasing the performance significantly. The statements are sent as JDBC batches.
      * @param objects the object to be inserted
+     * @return the update count of every generated statement, the statement of each object is followed by
+     * the ones of its OneToOne/-Many wrapped objects
      * @throws KORException when the generated SQL-Statement is not accepted by the db
      */
-    public void insertAsTransaction(Object...objects) throws KORException {
+    public int[] insertAsTransaction(Object...objects) throws KORException {
     	startTransaction();
+    	Transaction transaction = transactions.get();
     	for(Object object : objects) {
-    		sql += generator.generateInsert(object);
+    		transaction.buffer(generator.insertStatements(object, true));
     	}
-    	saveChanges(); 	
+    	return saveChanges();
+    }
+    
+    /**
+     * Inserts the given objects with multi-row INSERT ... VALUES (...),(...) statements. The objects and their
+     * OneToOne/-Many wrapped objects are grouped by class and split into chunks of at most bulkChunkSize rows,
+     * which never bind more than bulkParameterLimit values. When the internal state isBuffering is true the
+     * statements are buffered, otherwise they are issued as a single transaction.
+     * @param objects the objects to be inserted
+     * @return the number of inserted rows, rows ignored in the IGNORE mode are not counted
+     * @throws KORException when the generated SQL-Statement is not accepted by the database
+     */
+    public int bulkInsert(Collection<?> objects) throws KORException {
+    	if(isBuffering(null)) {
+    		buffer(generator.bulkInsertStatements(objects, bulkChunkSize, bulkParameterLimit), null);
+    		return 0;
+    	}
+    	int erg = 0;
+    	for(int count : execute(generator.bulkInsertStatements(objects, bulkChunkSize, bulkParameterLimit, true))) {
+    		erg += count;
+    	}
+    	return erg;
     }
     
     /**
@@ -169,24 +740,38 @@ public class KORMapper{
      * or when it could not be connected to the database
      */
     public void update(Object object) throws KORException {
-    	sql += generator.generateUpdate(object);
-    	if(!isBuffering) {
-    		executeUpdate(sql);
+    	update(object, null);
+    }
+    
+    /**
+     * Updates the given object or buffers it in the given or the current transaction
+     * @param object on which the UPDATE-Statement should be generated
+     * @param transaction the transaction of a session or null
+     * @throws KORException when the generated SQL-Statement is not accepted by the database
+     */
+    void update(Object object, Transaction transaction) throws KORException {
+    	if(isBuffering(transaction)) {
+    		buffer(generator.updateStatements(object), transaction);
+    	} else {
+    		execute(generator.updateStatements(object, true));
     	}
     }
     
     /**
      * Updates the given objects. All of the Updates are passed as a single transaction thus
-     * increasing the performance significantly
+     * increasing the performance significantly. The statements are sent as JDBC batches.
      * @param objects the object to be inserted
+     * @return the update count of every generated statement, the statement of each object is followed by
+     * the ones of its OneToOne/-Many wrapped objects. With dirty tracking unchanged objects have no statement.
      * @throws KORException when the generated SQL-Statement is not accepted by the database
      */
-    public void updateAsTransaction(Object...objects) throws KORException {
+    public int[] updateAsTransaction(Object...objects) throws KORException {
     	startTransaction();
+    	Transaction transaction = transactions.get();
     	for(Object object : objects) {
-    		sql += generator.generateUpdate(object);
+    		transaction.buffer(generator.updateStatements(object, true));
     	}
-    	saveChanges(); 	
+    	return saveChanges();
     }
     
     /**
@@ -199,24 +784,175 @@ public class KORMapper{
      * or when it could not be connected to the database
      */
     public void delete(Object object) throws KORException{
-    	sql += generator.generateDelete(object);
-    	if(!isBuffering) {
-    		executeUpdate(sql);
+    	delete(object, null);
+    }
+    
+    /**
+     * Deletes the given object or buffers it in the given or the current transaction
+     * @param object on which the DELETE-Statement should be generated
+     * @param transaction the transaction of a session or null
+     * @throws KORException when the generated SQL-Statement is not accepted by the database
+     */
+    void delete(Object object, Transaction transaction) throws KORException {
+    	if(isBuffering(transaction)) {
+    		buffer(generator.deleteStatements(object), transaction);
+    	} else {
+    		execute(generator.deleteStatements(object, true));
     	}
     }
     
     /**
      * Deletes the given objects. All of the Updates are passed as a single transaction thus
-     * increasing the performance significantly
+     * increasing the performance significantly. The statements are sent as JDBC batches.
      * @param objects the object to be inserted
+     * @return the update count of every generated statement, the statement of each object is followed by
+     * the ones of its OneToOne/-Many wrapped objects
      * @throws KORException when the generated SQL-Statement is not accepted by the database
      */
-    public void deleteAsTransaction(Object...objects) throws KORException {
+    public int[] deleteAsTransaction(Object...objects) throws KORException {
     	startTransaction();
+    	Transaction transaction = transactions.get();
     	for(Object object : objects) {
-    		sql += generator.generateDelete(object);
+    		transaction.buffer(generator.deleteStatements(object, true));
+    	}
+    	return saveChanges();
+    }
+	
+    
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+  	 * 																		 *
+  	 * Asynchronous methods												     *
+  	 * 																		 *
+  	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    
+    
+    /**
+     * Returns the result of query into a ArrayList, the query runs on the executor of this KORMapper
+     * @param query the SQL select statement
+     * @param sample the build plan for the object
+     * @param <T> This is the type parameter for building the instance
+     * @return a future of the result which completes exceptionally with the KORException of query
+     */
+    public <T> CompletableFuture<List<T>> queryAsync(String query, Class<T> sample) {
+    	return async(() -> query(query, sample));
+    }
+    
+    /**
+     * Returns the single result of a SQL Query, the query runs on the executor of this KORMapper
+     * @param sql the SQL Query
+     * @return a future of the result which completes exceptionally with the KORException of query
+     */
+    public CompletableFuture<Object> queryAsync(String sql) {
+    	return async(() -> query(sql));
+    }
+    
+    /**
+     * Inserts the given object on the executor of this KORMapper. The statements are generated by the calling
+     * thread, thus later modifications of the object are not inserted. When the calling thread is buffering the
+     * statements are buffered and the returned future is already completed.
+     * @param object the object to be inserted
+     * @return a future which completes when the object has been inserted
+     */
+    public CompletableFuture<Void> insertAsync(Object object) {
+    	return write(() -> generator.insertStatements(object));
+    }
+    
+    /**
+     * Updates the given object on the executor of this KORMapper, see insertAsync
+     * @param object on which the UPDATE-Statement should be generated
+     * @return a future which completes when the object has been updated
+     */
+    public CompletableFuture<Void> updateAsync(Object object) {
+    	return write(() -> generator.updateStatements(object));
+    }
+    
+    /**
+     * Deletes the given object on the executor of this KORMapper, see insertAsync
+     * @param object on which the DELETE-Statement should be generated
+     * @return a future which completes when the object has been deleted
+     */
+    public CompletableFuture<Void> deleteAsync(Object object) {
+    	return write(() -> generator.deleteStatements(object));
+    }
+    
+    /**
+     * Issues the buffered SQL commands of the calling thread on the executor of this KORMapper, see saveChanges.
+     * The buffer is taken from the calling thread immediately, which may start a new transaction right away.
+     * @return a future of the update count of every buffered statement
+     */
+    public CompletableFuture<int[]> saveChangesAsync() {
+    	Transaction transaction = transactions.get();
+    	transactions.remove();
+    	if(transaction == null) {
+    		return CompletableFuture.completedFuture(new int[0]);
+    	}
+    	List<BoundStatement> statements = transaction.finish();
+    	return async(() -> execute(statements));
+    }
+    
+    /**
+     * Executes a DML-SQL-Operation on the executor of this KORMapper, see executeUpdate
+     * @param sql a DML-SQL-Operation
+     * @return a future which completes when the operation has been executed
+     */
+    public CompletableFuture<Void> executeUpdateAsync(String sql) {
+    	return async(() -> {
+    		executeUpdate(sql);
+    		return null;
+    	});
+    }
+    
+    /**
+     * Generates the statements of a write by the calling thread and buffers or executes them asynchronously
+     */
+    private CompletableFuture<Void> write(Call<List<BoundStatement>> generate) {
+    	List<BoundStatement> statements;
+    	try {
+    		statements = generate.call();
+    	} catch(KORException e) {
+    		CompletableFuture<Void> failed = new CompletableFuture<>();
+    		failed.completeExceptionally(e);
+    		return failed;
     	}
-    	saveChanges(); 	
+    	if(buffer(statements, null)) {
+    		return CompletableFuture.completedFuture(null);
+    	}
+    	return async(() -> {
+    		execute(statements);
+    		return null;
+    	});
+    }
+    
+    /**
+     * Runs the given call on the executor of this KORMapper
+     * @param call the blocking call
+     * @return a future which completes with the result or the exception of the call
+     */
+    private <T> CompletableFuture<T> async(Call<T> call) {
+    	CompletableFuture<T> future = new CompletableFuture<>();
+    	try {
+    		executor().execute(() -> {
+    			try {
+    				future.complete(call.call());
+    			} catch(KORException | RuntimeException | Error e) {
+    				future.completeExceptionally(e);
+    			}
+    		});
+    	} catch(RuntimeException e) {
+    		future.completeExceptionally(e); //e.g. RejectedExecutionException
+    	}
+    	return future;
+    }
+    
+    /**
+     * Returns the executor of the asynchronous methods, the default executor is created on first use
+     */
+    private synchronized Executor executor() {
+    	if(executor == null) {
+    		ownExecutor = AsyncExecutors.defaultExecutor(Math.max(4, Runtime.getRuntime().availableProcessors()));
+    		executor = ownExecutor;
+    	}
+    	return executor;
     }
 	
     
@@ -228,17 +964,30 @@ public class KORMapper{
     
     
     /**
-     * Returns the single result of a SQL Query
+     * Returns the single result of a SQL Query. With a QueryCache the result is cached by the query.
      * @param sql the SQL Query
      * @return the single result wrapped in an object
      * @throws KORException when the SQL is incorrectly formatted or the connection to the database was not 
      * established
      */
     public Object query(String sql) throws KORException {
-    	try(Connection conn = connect();
-    			Statement stmt = conn.createStatement();
-    			ResultSet rs = stmt.executeQuery(sql)){
-    		return rs.getObject(1);
+    	Object cached = queryCache != null ? queryCache.get(sql, Object.class, new Object[0]) : null;
+    	if(cached != null) {
+    		return cached;
+    	}
+    	long version = queryCache != null ? queryCache.getVersion() : 0;
+    	try {
+    		Object erg = retry(() -> {
+    			try(Connection conn = connect();
+    					PreparedStatement stmt = conn.prepareStatement(sql);
+    					ResultSet rs = stmt.executeQuery()){
+    				return rs.getObject(1);
+    			}
+    		});
+    		if(queryCache != null) {
+    			queryCache.put(sql, Object.class, new Object[0], erg, version);
+    		}
+    		return erg;
     	} catch(SQLException e) {
     		throw new KORException("Error while constructing SQL-Statement: "+e.getMessage());
     	} catch(CommunicationException e) {
@@ -255,15 +1004,25 @@ public class KORMapper{
     
     
     /**
-     * Issues the given SQL statement to the database
+     * Issues the given SQL statement to the database, the QueryCache and the EntityCache are cleared
      * @param sql the SQL statement that is committed
      * @throws KORException when the issued SQL statement follows an database side error or when the connection
      * to the database was not established
      */
     public void initialize(String sql) throws KORException {
-    	try(Connection conn = connect();
-    		Statement stmt = conn.createStatement()){
-    		stmt.execute(sql);
+    	try {
+    		retry(() -> {
+    			try(Connection conn = connectForWrite();
+    				Statement stmt = conn.createStatement()){
+    				return stmt.execute(sql);
+    			}
+    		});
+    		if(queryCache != null) {
+    			queryCache.clear();
+    		}
+    		if(entityCache != null) {
+    			entityCache.clear();
+    		}
     	} catch(SQLException e) {
     		throw new KORException("Error while constructing SQL-Statement: "+e.getMessage());
     	} catch(CommunicationException e) {
@@ -271,6 +1030,69 @@ public class KORMapper{
     	}  		
     }
     
+    /**
+     * Registers the given KORBridge-Classes and the classes of their relations ahead of their first use. The
+     * metadata, the accessors and the SQL templates of the classes are built in parallel on the executor of
+     * this KORMapper, every class is instantiated once and its mapped fields are read and written. Instead
+     * of failing on the first request which uses a faulty class, the problems of all classes are reported
+     * at once.
+     * @param types the classes to be registered
+     * @throws MappingException when the mapping of at least one class is faulty, it lists every problem
+     */
+    public void register(Class<?>... types) throws MappingException {
+    	if(types == null) {
+    		throw new ParamException("Error: The registered classes may not be null");
+    	}
+    	List<Class<?>> wave = new ArrayList<>();
+    	for(Class<?> type : types) {
+    		if(type == null) {
+    			throw new ParamException("Error: A registered class may not be null");
+    		}
+    		wave.add(type);
+    	}
+    	Set<Class<?>> registered = new HashSet<>();
+    	List<String> problems = new ArrayList<>();
+    	while(!wave.isEmpty()) {
+    		List<Class<?>> validated = new ArrayList<>();
+    		List<CompletableFuture<List<String>>> checks = new ArrayList<>();
+    		for(Class<?> type : wave) {
+    			if(registered.add(type)) {
+    				validated.add(type);
+    				checks.add(CompletableFuture.supplyAsync(() -> EntityValidator.validate(type), executor()));
+    			}
+    		}
+    		for(CompletableFuture<List<String>> check : checks) {
+    			problems.addAll(check.join());
+    		}
+    		wave = new ArrayList<>();
+    		for(Class<?> type : validated) {
+    			wave.addAll(EntityValidator.relatedClasses(type));
+    		}
+    	}
+    	if(!problems.isEmpty()) {
+    		throw new MappingException(problems);
+    	}
+    }
+    
+    /**
+     * Registers the Table annotated classes of the given package and its subpackages, see register. The
+     * classes are found in the directories and jar files of the context class loader, thus the scan does
+     * not work in environments without a class path, e.g. native images, use register instead.
+     * @param packageName the name of the package, e.g. com.example.entities
+     * @return the registered classes sorted by name
+     * @throws MappingException when the mapping of at least one class is faulty
+     * @throws KORException when the class path could not be read
+     */
+    public List<Class<?>> registerPackage(String packageName) throws KORException {
+    	if(packageName == null) {
+    		throw new ParamException("Error: The package name may not be null");
+    	}
+    	ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    	List<Class<?>> types = PackageScanner.scan(packageName, loader != null ? loader : KORMapper.class.getClassLoader());
+    	register(types.toArray(new Class<?>[0]));
+    	return types;
+    }
+    
     
     /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
 	 * 																		 *
@@ -280,17 +1102,122 @@ public class KORMapper{
 	
 	
 	/**
-     * Connect to the database with the given URL
+     * Obtains a connection to the database from the ConnectionProvider. While the relations of a streamed chunk are
+     * loaded the connection of the stream is used instead, closing it has no effect.
      * @return the Connection object
      */
     private Connection connect() throws CommunicationException {
-        Connection conn = null;
-        try {
-            conn = DriverManager.getConnection(url);
-        } catch (SQLException e) {
-            throw new CommunicationException("Error: Could not connect to "+url);
-        }
-        return conn;
+    	Connection streamConnection = streamConnections.get();
+    	if(streamConnection != null) {
+    		return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+    				(proxy, method, args) -> {
+    					if(method.getName().equals("close")) {
+    						return null; //the stream closes its connection
+    					}
+    					try {
+    						return method.invoke(streamConnection, args);
+    					} catch(InvocationTargetException e) {
+    						throw e.getCause();
+    					}
+    				});
+    	}
+        return provider().getConnection();
+    }
+    
+    /**
+     * Returns the ConnectionProvider, the pool of a KORMapper created from a URL is opened on the first call
+     * @return the ConnectionProvider
+     */
+    private ConnectionProvider provider() {
+    	ConnectionProvider provider = connectionProvider;
+    	if(provider != null) {
+    		return provider;
+    	}
+    	synchronized(this) {
+    		if(connectionProvider == null) {
+    			PoolConfig config = new PoolConfig(url);
+    			config.setMinSize(0);
+    			urlPool = new KORConnectionPool(config);
+    			connectionProvider = urlPool;
+    		}
+    		return connectionProvider;
+    	}
+    }
+    
+    /**
+     * Runs the given unit and repeats it according to the RetryPolicy while the database is busy or locked.
+     * Other errors are passed through unchanged.
+     * @param call a unit which has not been applied when it fails, i.e. a query or a whole transaction
+     * @return the result of the unit
+     * @throws BusyException when the database stayed busy or locked
+     */
+    private <T> T retry(SqlCall<T> call) throws SQLException, CommunicationException, KORException {
+    	RetryPolicy policy = retryPolicy;
+    	long started = System.currentTimeMillis();
+    	int attempts = 0;
+    	while(true) {
+    		attempts++;
+    		try {
+    			T result = call.call();
+    			if(attempts > 1) {
+    				policy.recovered();
+    			}
+    			return result;
+    		} catch(SQLException e) {
+    			int code = RetryPolicy.contention(e);
+    			if(code == 0) {
+    				throw e;
+    			}
+    			if(policy == null || !policy.retry(attempts, started)) {
+    				throw new BusyException("Error: The database is "+(code == BusyException.RESULT_LOCKED ? "locked" : "busy")
+    						+" after "+attempts+(attempts == 1 ? " attempt: " : " attempts: ")+e.getMessage(), code, attempts);
+    			}
+    			try {
+    				Thread.sleep(policy.delay(attempts, started));
+    			} catch(InterruptedException interrupted) {
+    				Thread.currentThread().interrupt();
+    				throw new BusyException("Error: Interrupted while waiting for a busy database: "+e.getMessage(), code, attempts);
+    			}
+    		}
+    	}
+    }
+    
+    /**
+     * Obtains a connection for writes from the ConnectionProvider
+     * @return the Connection object
+     */
+    private Connection connectForWrite() throws CommunicationException {
+        return provider().getWriteConnection();
+    }
+    
+    /**
+     * Opens a session with an identity map, see KORSession
+     * @return a new session of this KORMapper
+     */
+    public KORSession openSession() {
+    	return new KORSession(this);
+    }
+    
+    /**
+     * Closes the ConnectionProvider of this KORMapper, e.g. the connection pool, and the default executor of
+     * the asynchronous methods. An executor which has been set is left open.
+     */
+    @Override
+    public void close() {
+    	synchronized(this) {
+    		if(ownExecutor != null) {
+    			ownExecutor.shutdown();
+    		}
+    	}
+    	ConnectionProvider provider = connectionProvider;
+    	if(provider != null) {
+    		provider.close();
+    	}
+    	synchronized(this) {
+    		if(urlPool != null && urlPool != provider) {
+    			urlPool.close();
+    		}
+    	}
     }
     
     
@@ -301,15 +1228,27 @@ public class KORMapper{
    	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
     
     /**
-     * Executes a DML-SQL-Operation to the database
+     * Executes a DML-SQL-Operation to the database. The QueryCache evicts the results of the written table and
+     * the EntityCache evicts the records of the written table. When the table could not be determined both
+     * caches are cleared.
      * @param sql a DML-SQL-Operation
      * @throws KORException when the passed SQL command is faulty or the connection to the 
      * database could not be established
      */
     public void executeUpdate(String sql) throws KORException {
-    	try(Connection conn = connect();
-    			Statement stmt = conn.createStatement()){
-    		stmt.executeUpdate(sql);
+    	try {
+    		retry(() -> {
+    			try(Connection conn = connectForWrite();
+    					Statement stmt = conn.createStatement()){
+    				return stmt.executeUpdate(sql);
+    			}
+    		});
+    		if(queryCache != null) {
+    			queryCache.evictStatement(sql);
+    		}
+    		if(entityCache != null) {
+    			entityCache.evictStatement(sql);
+    		}
     	} catch(SQLException e) {
     		throw new KORException("Error while constructing SQL-Statement: "+e.getMessage());
     	} catch(CommunicationException e) {
@@ -318,23 +1257,192 @@ public class KORMapper{
     }
     
     /**
-     * Starts a transaction and transmits the KORMapper to the isBuffering mode.
+     * Starts a transaction of the calling thread and transmits it to the isBuffering mode.
      */
     public void startTransaction() {
-    	sql+="BEGIN TRANSACTION;";
-    	isBuffering = true;
+    	transaction().start();
     }
     
     /**
-     * Issues the buffered SQL commands which are wrapped in a finalized transaction to the database. <br>
-     * And transmits the KORMapper isBuffering mode to false.
+     * Issues the buffered SQL commands of the calling thread which are wrapped in a finalized transaction to
+     * the database. <br>
+     * And transmits the isBuffering mode of the thread to false. The buffer is emptied even when the transaction
+     * has been rolled back.
+     * @return the update count of every buffered statement in the order they were buffered
      * @throws KORException if there are issues with the generated SQL Statement
      */
-    public void saveChanges() throws KORException {
-    	sql += "END TRANSACTION;";
-    	executeUpdate(sql);
-    	isBuffering = false;
-    	sql = "";
+    public int[] saveChanges() throws KORException {
+    	Transaction transaction = transactions.get();
+    	transactions.remove();
+    	return transaction != null ? saveChanges(transaction) : new int[0];
+    }
+    
+    /**
+     * Issues the buffered SQL commands of the given transaction, see saveChanges()
+     * @param transaction the transaction of a session
+     * @return the update count of every buffered statement in the order they were buffered
+     * @throws KORException if there are issues with the generated SQL Statement
+     */
+    int[] saveChanges(Transaction transaction) throws KORException {
+    	return execute(transaction.finish());
+    }
+    
+    /**
+     * Returns the transaction of the calling thread, which is created on demand
+     */
+    private Transaction transaction() {
+    	Transaction transaction = transactions.get();
+    	if(transaction == null) {
+    		transaction = new Transaction();
+    		transactions.set(transaction);
+    	}
+    	return transaction;
+    }
+    
+    /**
+     * Returns whether statements are buffered in the given transaction or in the transaction of the calling thread.
+     * Statements which are executed right away are bound straight from the fields of their objects, buffered ones
+     * hold the values at the time of the call.
+     * @param transaction the transaction of a session or null
+     * @return true when one of the transactions is buffering
+     */
+    private boolean isBuffering(Transaction transaction) {
+    	if(transaction != null && transaction.isBuffering()) {
+    		return true;
+    	}
+    	Transaction current = transactions.get();
+    	return current != null && current.isBuffering();
+    }
+    
+    /**
+     * Buffers the given statements in the given transaction or in the transaction of the calling thread when
+     * one of them is buffering
+     * @param statements the generated statements
+     * @param transaction the transaction of a session or null
+     * @return true when the statements have been buffered, false when they have to be executed
+     */
+    private boolean buffer(List<BoundStatement> statements, Transaction transaction) {
+    	if(transaction != null && transaction.buffer(statements)) {
+    		return true;
+    	}
+    	Transaction current = transactions.get();
+    	return current != null && current.buffer(statements);
+    }
+    
+    /**
+     * Executes the given statements as JDBC batches. More than one statement is executed
+     * as a single transaction. The written records are removed from the EntityCache and the results of the
+     * written tables from the QueryCache once the statements have been committed, with dirty tracking the
+     * snapshots of the written objects are refreshed. While the database is busy or locked the rolled back
+     * transaction is retried as a whole, see RetryPolicy.
+     * @param statements the statements to be executed
+     * @return the update count of every statement
+     * @throws KORException when a statement is not accepted by the database or the connection to the
+     * database could not be established
+     */
+    int[] execute(List<BoundStatement> statements) throws KORException {
+    	if(statements.isEmpty()) {
+    		return new int[0];
+    	}
+    	boolean transaction = statements.size() > 1;
+    	try {
+    		int[] counts = retry(() -> {
+    			try(Connection conn = connectForWrite()) {
+    				if(transaction) {
+    					conn.setAutoCommit(false);
+    				}
+    				try {
+    					int[] executed = BatchExecutor.execute(conn, statements, batchSize);
+    					if(transaction) {
+    						conn.commit();
+    					}
+    					return executed;
+    				} catch(SQLException | KORException e) {
+    					if(transaction) {
+    						conn.rollback();
+    					}
+    					throw e;
+    				}
+    			}
+    		});
+    		invalidate(statements);
+    		refresh(statements);
+    		return counts;
+    	} catch(SQLException e) {
+    		throw new KORException("Error while constructing SQL-Statement: "+e.getMessage());
+    	} catch(CommunicationException e) {
+    		throw new KORException(e.getMessage());
+    	}
+    }
+    
+    /**
+     * Stores the written values of the tracked objects as their new snapshots, deleted objects are no longer tracked
+     * @param statements the committed statements
+     */
+    private void refresh(List<BoundStatement> statements) {
+    	if(dirtyTracker == null) {
+    		return;
+    	}
+    	for(BoundStatement statement : statements) {
+    		if(statement.getEntity() == null) {
+    			continue;
+    		}
+    		if(statement.getWritten() != null) {
+    			dirtyTracker.track(statement.getEntity(), statement.getWritten());
+    		} else {
+    			dirtyTracker.forget(statement.getEntity());
+    		}
+    	}
+    }
+    
+    /**
+     * Removes the results of the written tables from the QueryCache and the records which have been written
+     * by the given statements from the EntityCache. INSERT
+     * statements are included, because a REPLACE or an upsert may overwrite a cached record.
+     * @param statements the committed statements
+     * @throws KORException when a primary key of a statement bound from the fields could not be read
+     */
+    private void invalidate(List<BoundStatement> statements) throws KORException {
+    	if(queryCache != null) {
+    		Set<Class<?>> written = new LinkedHashSet<>();
+    		for(BoundStatement statement : statements) {
+    			if(written.add(statement.getEntityType())) {
+    				queryCache.evictTable(MetadataRegistry.of(statement.getEntityType()).getTableName());
+    			}
+    		}
+    	}
+    	if(entityCache == null) {
+    		return;
+    	}
+    	for(BoundStatement statement : statements) {
+    		Class<?> type = statement.getEntityType();
+    		if(!entityCache.isCached(type)) {
+    			continue;
+    		}
+    		EntityMetadata metadata = MetadataRegistry.of(type);
+    		Object[] parameters = statement.values();
+    		int keys = metadata.getPrimaryKeys().size();
+    		switch(statement.getOperation()) {
+    		case DELETE:
+    			entityCache.evict(type, parameters);
+    			break;
+    		case UPDATE:
+    			entityCache.evict(type, Arrays.copyOfRange(parameters, parameters.length - keys, parameters.length));
+    			break;
+    		case INSERT:
+    			List<ColumnMetadata> columns = metadata.getColumns();
+    			for(int row = 0; row + columns.size() <= parameters.length; row += columns.size()) {
+    				Object[] primaryKeys = new Object[keys];
+    				for(int i = 0; i < keys; i++) {
+    					primaryKeys[i] = parameters[row + columns.indexOf(metadata.getPrimaryKeys().get(i))];
+    				}
+    				entityCache.evict(type, primaryKeys);
+    			}
+    			break;
+    		default:
+    			break;
+    		}
+    	}
     }
     
     
@@ -354,17 +1462,47 @@ public class KORMapper{
 	}
 	
 	/**
-	 * Sets the URL
+	 * Sets the URL and obtains the connections from a connection pool with the default PoolConfig and a minimal
+	 * size of 0, which is opened on the first use. A pool which has been opened for a previous URL is closed.
 	 * @param url the URL to be set
 	 */
 	public void setURL(String url) {
 		if(url != null && url.length() > 0) {
-			this.url = url;
+			KORConnectionPool previous;
+			synchronized(this) {
+				previous = urlPool;
+				this.url = url;
+				this.urlPool = null;
+				this.connectionProvider = null;
+			}
+			if(previous != null) {
+				previous.close();
+			}
 		} else {
 			throw new ParamException("Error: The length of the path string must be greater than 0");
 		}
 	}
 	
+	/**
+	 * Sets the ConnectionProvider the connections are obtained from
+	 * @param connectionProvider the ConnectionProvider to be set
+	 */
+	public void setConnectionProvider(ConnectionProvider connectionProvider) {
+		if(connectionProvider != null) {
+			this.connectionProvider = connectionProvider;
+		} else {
+			throw new ParamException("Error: The ConnectionProvider may not be null");
+		}
+	}
+	
+	/**
+	 * Returns the ConnectionProvider of this KORMapper instance
+	 * @return the ConnectionProvider
+	 */
+	public ConnectionProvider getConnectionProvider() {
+		return provider();
+	}
+	
 	/**
 	 * Sets a KORGenerator that is used internally to generate SQL statements
 	 * @param korGenerator the KORGenerator to be set
@@ -372,6 +1510,7 @@ public class KORMapper{
 	public void setKORGenerator(KORGenerator korGenerator) {
 		if(korGenerator != null) {
 			this.generator = korGenerator;
+			korGenerator.setDirtyTracker(dirtyTracker);
 		} else {
 			throw new ParamException("Error: The KORGenerator may not be null");
 		}
@@ -386,18 +1525,235 @@ public class KORMapper{
 	}
 	
 	/**
-	 * Sets the isBuffering status
+	 * Sets the maximal number of statements which are sent to the database in a single JDBC batch
+	 * @param batchSize the batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		if(batchSize > 0) {
+			this.batchSize = batchSize;
+		} else {
+			throw new ParamException("Error: The batch size must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the maximal number of statements which are sent to the database in a single JDBC batch
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
+	/**
+	 * Sets the maximal number of rows of a single multi-row INSERT-Statement of bulkInsert
+	 * @param bulkChunkSize the number of rows
+	 */
+	public void setBulkChunkSize(int bulkChunkSize) {
+		if(bulkChunkSize > 0) {
+			this.bulkChunkSize = bulkChunkSize;
+		} else {
+			throw new ParamException("Error: The bulk chunk size must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the maximal number of rows of a single multi-row INSERT-Statement of bulkInsert
+	 * @return the number of rows
+	 */
+	public int getBulkChunkSize() {
+		return bulkChunkSize;
+	}
+	
+	/**
+	 * Sets the maximal number of values bound to a single multi-row INSERT-Statement of bulkInsert. <br>
+	 * The default of 999 is the host parameter limit of SQLite versions before 3.32.0.
+	 * @param bulkParameterLimit the number of host parameters
+	 */
+	public void setBulkParameterLimit(int bulkParameterLimit) {
+		if(bulkParameterLimit > 0) {
+			this.bulkParameterLimit = bulkParameterLimit;
+		} else {
+			throw new ParamException("Error: The bulk parameter limit must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the maximal number of values bound to a single multi-row INSERT-Statement of bulkInsert
+	 * @return the number of host parameters
+	 */
+	public int getBulkParameterLimit() {
+		return bulkParameterLimit;
+	}
+	
+	/**
+	 * Sets how the OneToOne and OneToMany annotated fields of queried objects are loaded
+	 * @param fetchStrategy the FetchStrategy to be set
+	 */
+	public void setFetchStrategy(FetchStrategy fetchStrategy) {
+		if(fetchStrategy != null) {
+			this.fetchStrategy = fetchStrategy;
+		} else {
+			throw new ParamException("Error: The FetchStrategy may not be null");
+		}
+	}
+	
+	/**
+	 * Returns how the OneToOne and OneToMany annotated fields of queried objects are loaded
+	 * @return the FetchStrategy
+	 */
+	public FetchStrategy getFetchStrategy() {
+		return fetchStrategy;
+	}
+	
+	/**
+	 * Sets the maximal number of keys in the IN list of a single relation query of the BATCH FetchStrategy
+	 * @param fetchBatchSize the number of keys
+	 */
+	public void setFetchBatchSize(int fetchBatchSize) {
+		if(fetchBatchSize > 0) {
+			this.fetchBatchSize = fetchBatchSize;
+		} else {
+			throw new ParamException("Error: The fetch batch size must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the maximal number of keys in the IN list of a single relation query of the BATCH FetchStrategy
+	 * @return the number of keys
+	 */
+	public int getFetchBatchSize() {
+		return fetchBatchSize;
+	}
+	
+	/**
+	 * Sets the number of rows the JDBC driver should fetch from the database at once when a query is read.
+	 * 0 leaves the decision to the driver.
+	 * @param fetchSize the number of rows
+	 */
+	public void setFetchSize(int fetchSize) {
+		if(fetchSize >= 0) {
+			this.fetchSize = fetchSize;
+		} else {
+			throw new ParamException("Error: The fetch size may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the number of rows the JDBC driver should fetch from the database at once when a query is read
+	 * @return the number of rows or 0 when the driver decides
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+	
+	/**
+	 * Sets the EntityCache which holds loaded records across queries and KORMappers, null disables the cache
+	 * @param entityCache the EntityCache to be set
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+	
+	/**
+	 * Returns the EntityCache of this KORMapper
+	 * @return the EntityCache or null when no cache is used
+	 */
+	public EntityCache getEntityCache() {
+		return entityCache;
+	}
+	
+	/**
+	 * Sets the QueryCache which holds the results of queries across calls and KORMappers, null disables the cache
+	 * @param queryCache the QueryCache to be set
+	 */
+	public void setQueryCache(QueryCache queryCache) {
+		this.queryCache = queryCache;
+	}
+	
+	/**
+	 * Returns the QueryCache of this KORMapper
+	 * @return the QueryCache or null when no cache is used
+	 */
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
+	
+	/**
+	 * Sets the executor of the asynchronous methods. Without an executor the KORMapper uses virtual threads
+	 * when the JDK supports them and otherwise platform daemon threads, see AsyncExecutors.
+	 * @param executor the executor to be set, it is not shut down by close
+	 */
+	public synchronized void setExecutor(Executor executor) {
+		if(executor == null) {
+			throw new ParamException("Error: The Executor may not be null");
+		}
+		if(ownExecutor != null) {
+			ownExecutor.shutdown();
+			ownExecutor = null;
+		}
+		this.executor = executor;
+	}
+	
+	/**
+	 * Returns the executor of the asynchronous methods
+	 * @return the executor which has been set or the default executor
+	 */
+	public Executor getExecutor() {
+		return executor();
+	}
+	
+	/**
+	 * Sets the policy which retries queries, single statements and whole transactions while the database is
+	 * busy or locked. By default a RetryPolicy with its default settings is used.
+	 * @param retryPolicy the policy to be set or null to fail with a BusyException at the first contention
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+	
+	/**
+	 * Returns the policy of the retries, which also holds their statistics
+	 * @return the RetryPolicy or null
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+	
+	/**
+	 * Enables or disables the dirty tracking. With dirty tracking every object which is loaded with all of its
+	 * columns is snapshotted. An update of a snapshotted object only sets the changed columns and omits the
+	 * object, as well as each unchanged OneToOne/-Many wrapped object, when nothing has changed. Inserted objects
+	 * are snapshotted once the insert has been committed. Objects are tracked weakly and are released with the
+	 * last reference of the application. Disabling the dirty tracking discards all snapshots.
+	 * @param dirtyTracking whether the dirty tracking is enabled or not
+	 */
+	public void setDirtyTracking(boolean dirtyTracking) {
+		this.dirtyTracker = dirtyTracking ? (dirtyTracker != null ? dirtyTracker : new DirtyTracker()) : null;
+		generator.setDirtyTracker(dirtyTracker);
+	}
+	
+	/**
+	 * Says whether the dirty tracking is enabled
+	 * @return if the dirty tracking is enabled or not
+	 */
+	public boolean isDirtyTracking() {
+		return dirtyTracker != null;
+	}
+	
+	/**
+	 * Sets the isBuffering status of the calling thread
 	 * @param isBuffering the boolean value to be set
 	 */
 	public void setIsBuffering(boolean isBuffering) {
-		this.isBuffering = isBuffering;
+		transaction().setBuffering(isBuffering);
 	}
 	
 	/**
-	 * Return the isBuffering status of this KORMapper instance
+	 * Return the isBuffering status of the calling thread
 	 * @return the isBuffering boolean value
 	 */
 	public boolean getIsBuffering() {
-		return isBuffering;
+		Transaction transaction = transactions.get();
+		return transaction != null && transaction.isBuffering();
 	}
 }
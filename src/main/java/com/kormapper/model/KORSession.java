@@ -0,0 +1,204 @@
+package com.kormapper.model;
+
+import java.util.List;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * KORSession - A unit of work of a KORMapper with a first-level cache <br>
+ * The session keeps an identity map of every loaded object with a primary key, keyed by its table and
+ * primary key. Within a session a record is instantiated only once: repeated loads return the same object,
+ * relations which point to an already loaded object reuse it and find does not query the database for
+ * known records. The relations of an object are filled once, later queries return the object as it is. <br>
+ * Objects which are inserted or updated through the session are registered, deleted objects are removed.
+ * Objects which are cascaded by OneToOne/-Many are not registered by writes. The session owns a transaction:
+ * after startTransaction its writes are buffered until saveChanges, independently of the thread. Without a
+ * started transaction the writes follow the transaction of the calling thread. <br>
+ * A session is not thread-safe and is meant to be short-lived, it holds all of its objects until it is closed
+ * or cleared.
+ * @author leonhardmuellauer
+ */
+public class KORSession implements AutoCloseable {
+	
+	private final KORMapper mapper;
+	private final LoadContext context = new LoadContext(true);
+	private final Transaction transaction = new Transaction();
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a session of the given KORMapper, see KORMapper.openSession
+	 * @param mapper the KORMapper which executes the statements of the session
+	 */
+	KORSession(KORMapper mapper) {
+		if(mapper == null) {
+			throw new ParamException("Error: KORMapper may not be null");
+		}
+		this.mapper = mapper;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Query															     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the result of query into a ArrayList. Records which have been loaded before within this session
+	 * are returned as the previously loaded objects.
+	 * @param query the SQL select statement
+	 * @param sample the build plan for the object
+	 * @param <T> This is the type parameter for building the instance
+	 * @return a empty or filled list with classes instanced by the passed class sample
+	 * @throws KORException when the generated SQL-Statement is not accepted by the db
+	 */
+	public <T> List<T> query(String query, Class<T> sample) throws KORException {
+		return mapper.query(new BoundStatement(Operation.SELECT, sample, query, new Object[0]), sample, context);
+	}
+	
+	/**
+	 * Returns the object of the record with the given primary keys. A record which is already known to this
+	 * session or to the EntityCache of the KORMapper is returned without querying the database.
+	 * @param sample the class of the record
+	 * @param primaryKeys the values of the primary keys in declaration order
+	 * @param <T> This is the type parameter for building the instance
+	 * @return the object of the record or null when the record does not exist
+	 * @throws KORException when the number of values does not match the primary keys or the query fails
+	 */
+	public <T> T find(Class<T> sample, Object... primaryKeys) throws KORException {
+		return mapper.find(sample, context, primaryKeys);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Insert, Update, Delete											     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Inserts the given object by the KORMapper and registers it in this session
+	 * @param object the object to be inserted
+	 * @throws KORException when the generated SQL-Statement is not accepted by the database
+	 */
+	public void insert(Object object) throws KORException {
+		mapper.insert(object, transaction);
+		context.register(object);
+	}
+	
+	/**
+	 * Updates the given object by the KORMapper and registers it in this session
+	 * @param object the object to be updated
+	 * @throws KORException when the generated SQL-Statement is not accepted by the database
+	 */
+	public void update(Object object) throws KORException {
+		mapper.update(object, transaction);
+		context.register(object);
+	}
+	
+	/**
+	 * Deletes the given object by the KORMapper and removes it from this session
+	 * @param object the object to be deleted
+	 * @throws KORException when the generated SQL-Statement is not accepted by the database
+	 */
+	public void delete(Object object) throws KORException {
+		mapper.delete(object, transaction);
+		context.evict(object);
+	}
+	
+	
+	/**
+	 * Starts the transaction of this session, its writes are buffered until saveChanges
+	 */
+	public void startTransaction() {
+		transaction.start();
+	}
+	
+	/**
+	 * Issues the buffered writes of this session as a single database transaction and ends buffering.
+	 * The buffer is emptied even when the transaction has been rolled back.
+	 * @return the update count of every buffered statement in the order they were buffered
+	 * @throws KORException when a statement is not accepted by the database
+	 */
+	public int[] saveChanges() throws KORException {
+		return mapper.saveChanges(transaction);
+	}
+	
+	/**
+	 * Says whether the writes of this session are buffered
+	 * @return if the transaction of this session has been started or not
+	 */
+	public boolean isBuffering() {
+		return transaction.isBuffering();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Identity map														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Says whether the given object is the object of its record in this session
+	 * @param object the object to be checked
+	 * @return if the object is known to this session or not
+	 * @throws KORException when a primary key could not be read
+	 */
+	public boolean contains(Object object) throws KORException {
+		return context.contains(object);
+	}
+	
+	/**
+	 * Removes the given object from this session, the next load of its record instantiates a new object
+	 * @param object the object to be removed
+	 * @throws KORException when a primary key could not be read
+	 */
+	public void evict(Object object) throws KORException {
+		context.evict(object);
+	}
+	
+	/**
+	 * Returns the number of objects known to this session
+	 * @return the number of objects
+	 */
+	public int size() {
+		return context.size();
+	}
+	
+	/**
+	 * Removes all objects from this session
+	 */
+	public void clear() {
+		context.clear();
+	}
+	
+	/**
+	 * Returns the KORMapper of this session
+	 * @return the KORMapper
+	 */
+	public KORMapper getKORMapper() {
+		return mapper;
+	}
+	
+	/**
+	 * Closes this session by removing all of its objects, buffered writes which have not been saved are
+	 * discarded. The KORMapper stays open.
+	 */
+	@Override
+	public void close() {
+		transaction.finish();
+		clear();
+	}
+}
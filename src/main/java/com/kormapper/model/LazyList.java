@@ -0,0 +1,79 @@
+package com.kormapper.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.LazyLoadException;
+
+/**
+ * The List of a lazily loaded OneToMany relation. The objects are queried on the first access of the List
+ * and the List behaves like an ArrayList afterwards.
+ * @author leonhardmuellauer
+ * @param <E> the type of the related objects
+ */
+public class LazyList<E> extends AbstractList<E> {
+	
+	private LazyLoader<? extends List<? extends E>> loader;
+	private List<E> delegate;
+	
+	/**
+	 * Instantiates a LazyList which is filled by the given loader on its first access
+	 * @param loader the loader of the related objects
+	 */
+	public LazyList(LazyLoader<? extends List<? extends E>> loader) {
+		this.loader = loader;
+	}
+	
+	/**
+	 * Says whether the related objects have already been loaded
+	 * @return if the objects have been loaded or not
+	 */
+	public synchronized boolean isLoaded() {
+		return delegate != null;
+	}
+	
+	/**
+	 * Returns the loaded objects and loads them when the List is accessed for the first time
+	 * @throws LazyLoadException when the objects could not be loaded
+	 */
+	private synchronized List<E> delegate() {
+		if(delegate == null) {
+			try {
+				delegate = new ArrayList<>(loader.load());
+				loader = null;
+			} catch(KORException e) {
+				throw new LazyLoadException("Error: The lazy relation could not be loaded: "+e.getMessage(), e);
+			}
+		}
+		return delegate;
+	}
+	
+	@Override
+	public E get(int index) {
+		return delegate().get(index);
+	}
+	
+	@Override
+	public int size() {
+		return delegate().size();
+	}
+	
+	@Override
+	public E set(int index, E element) {
+		return delegate().set(index, element);
+	}
+	
+	@Override
+	public void add(int index, E element) {
+		delegate().add(index, element);
+		modCount++;
+	}
+	
+	@Override
+	public E remove(int index) {
+		modCount++;
+		return delegate().remove(index);
+	}
+}
@@ -0,0 +1,19 @@
+package com.kormapper.model;
+
+import com.kormapper.exception.KORException;
+
+/**
+ * Loads the value of a lazily loaded relation
+ * @author leonhardmuellauer
+ * @param <T> the type of the loaded value
+ */
+@FunctionalInterface
+public interface LazyLoader<T> {
+	
+	/**
+	 * Loads the value
+	 * @return the loaded value
+	 * @throws KORException when the value could not be loaded
+	 */
+	T load() throws KORException;
+}
@@ -0,0 +1,70 @@
+package com.kormapper.model;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.LazyLoadException;
+
+/**
+ * The holder of a lazily loaded OneToOne relation. A OneToOne field with the fetch type LAZY has to be declared
+ * as LazyReference. The related object is queried on the first call of get.
+ * @author leonhardmuellauer
+ * @param <T> the type of the related object
+ */
+public class LazyReference<T> {
+	
+	private LazyLoader<T> loader;
+	private T value;
+	
+	/**
+	 * Instantiates a LazyReference which is filled by the given loader on its first access
+	 * @param loader the loader of the related object
+	 */
+	public LazyReference(LazyLoader<T> loader) {
+		this.loader = loader;
+	}
+	
+	/**
+	 * Returns a LazyReference which already holds the given object, e.g. to insert a new object
+	 * @param value the related object or null
+	 * @param <T> the type of the related object
+	 * @return the loaded LazyReference
+	 */
+	public static <T> LazyReference<T> of(T value) {
+		LazyReference<T> erg = new LazyReference<>(null);
+		erg.value = value;
+		return erg;
+	}
+	
+	/**
+	 * Says whether the related object has already been loaded
+	 * @return if the object has been loaded or not
+	 */
+	public synchronized boolean isLoaded() {
+		return loader == null;
+	}
+	
+	/**
+	 * Returns the related object and loads it on the first call
+	 * @return the related object or null
+	 * @throws LazyLoadException when the object could not be loaded
+	 */
+	public synchronized T get() {
+		if(loader != null) {
+			try {
+				value = loader.load();
+				loader = null;
+			} catch(KORException e) {
+				throw new LazyLoadException("Error: The lazy relation could not be loaded: "+e.getMessage(), e);
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * Replaces the related object
+	 * @param value the related object or null
+	 */
+	public synchronized void set(T value) {
+		this.value = value;
+		this.loader = null;
+	}
+}
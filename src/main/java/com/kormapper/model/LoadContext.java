@@ -0,0 +1,183 @@
+package com.kormapper.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+
+/**
+ * The state of the loads of a KORSession. <br>
+ * The identity map holds every loaded object with a primary key by its table and primary key, thus a
+ * record is instantiated only once. Additionally the context remembers the objects whose relations have
+ * already been filled. Queries outside of a session use NONE, which neither tracks identities nor relations.
+ * @author leonhardmuellauer
+ */
+final class LoadContext {
+	
+	/** The context of queries outside of a session */
+	static final LoadContext NONE = new LoadContext(false);
+	
+	private final boolean tracking;
+	private final Map<List<String>, Object> identities = new HashMap<>();
+	private final Set<Object> filled = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	/**
+	 * Instantiates a context
+	 * @param tracking whether identities and filled relations are tracked or not
+	 */
+	LoadContext(boolean tracking) {
+		this.tracking = tracking;
+	}
+	
+	/**
+	 * Says whether this context tracks identities
+	 * @return if identities are tracked or not
+	 */
+	boolean isTracking() {
+		return tracking;
+	}
+	
+	/**
+	 * Returns the object which represents the record of the given object. When the record has been loaded before
+	 * the previously loaded object is returned, otherwise the given object is registered and returned.
+	 * @param metadata the metadata of the object
+	 * @param instance a freshly loaded object
+	 * @return the registered object of the record
+	 * @throws KORException when a primary key could not be read
+	 */
+	Object canonical(EntityMetadata metadata, Object instance) throws KORException {
+		List<String> key = tracking ? keyOf(metadata, instance) : null;
+		if(key == null) {
+			return instance;
+		}
+		Object existing = identities.putIfAbsent(key, instance);
+		return existing != null && metadata.getType().isInstance(existing) ? existing : instance;
+	}
+	
+	/**
+	 * Returns the registered object of the record with the given primary key
+	 * @param metadata the metadata of the class
+	 * @param primaryKeys the values of the primary keys in declaration order
+	 * @return the registered object or null
+	 */
+	Object find(EntityMetadata metadata, Object... primaryKeys) {
+		if(!tracking || primaryKeys.length != metadata.getPrimaryKeys().size() || primaryKeys.length == 0) {
+			return null;
+		}
+		List<String> key = new ArrayList<>(primaryKeys.length + 1);
+		key.add(metadata.getTableName());
+		for(Object value : primaryKeys) {
+			key.add(String.valueOf(value));
+		}
+		Object existing = identities.get(key);
+		return metadata.getType().isInstance(existing) ? existing : null;
+	}
+	
+	/**
+	 * Registers the given object, a previously registered object of the same record is replaced
+	 * @param instance the object to be registered
+	 * @throws KORException when a primary key could not be read
+	 */
+	void register(Object instance) throws KORException {
+		List<String> key = tracking ? keyOf(MetadataRegistry.of(instance), instance) : null;
+		if(key != null) {
+			identities.put(key, instance);
+		}
+	}
+	
+	/**
+	 * Removes the registration of the record of the given object
+	 * @param instance the object whose record is removed
+	 * @throws KORException when a primary key could not be read
+	 */
+	void evict(Object instance) throws KORException {
+		List<String> key = tracking ? keyOf(MetadataRegistry.of(instance), instance) : null;
+		if(key != null) {
+			identities.remove(key);
+			filled.remove(instance);
+		}
+	}
+	
+	/**
+	 * Says whether the given object is the registered object of its record
+	 * @param instance the object to be checked
+	 * @return if the object is registered or not
+	 * @throws KORException when a primary key could not be read
+	 */
+	boolean contains(Object instance) throws KORException {
+		List<String> key = tracking ? keyOf(MetadataRegistry.of(instance), instance) : null;
+		return key != null && identities.get(key) == instance;
+	}
+	
+	/**
+	 * Returns the number of registered objects
+	 * @return the number of objects
+	 */
+	int size() {
+		return identities.size();
+	}
+	
+	/**
+	 * Removes all registrations
+	 */
+	void clear() {
+		identities.clear();
+		filled.clear();
+	}
+	
+	/**
+	 * Marks the relations of the given object as filled
+	 * @param instance the object whose relations are about to be filled
+	 * @return true when the relations have not been filled before
+	 */
+	boolean claim(Object instance) {
+		return !tracking || filled.add(instance);
+	}
+	
+	/**
+	 * Marks the relations of the given objects as filled
+	 * @param instances the objects whose relations are about to be filled
+	 * @return the objects whose relations have not been filled before
+	 */
+	<T> List<T> claim(List<T> instances) {
+		if(!tracking) {
+			return instances;
+		}
+		List<T> erg = new ArrayList<>(instances.size());
+		for(T instance : instances) {
+			if(filled.add(instance)) {
+				erg.add(instance);
+			}
+		}
+		return erg;
+	}
+	
+	/**
+	 * Returns the table and the primary keys of the given object or null when the class declares no primary key
+	 * or a primary key is null. Keys are compared by their string representation like the relations are.
+	 */
+	private static List<String> keyOf(EntityMetadata metadata, Object instance) throws KORException {
+		List<ColumnMetadata> primaryKeys = metadata.getPrimaryKeys();
+		if(primaryKeys.isEmpty()) {
+			return null;
+		}
+		List<String> key = new ArrayList<>(primaryKeys.size() + 1);
+		key.add(metadata.getTableName());
+		for(ColumnMetadata column : primaryKeys) {
+			Object value = column.getAccessor().get(instance);
+			if(value == null) {
+				return null;
+			}
+			key.add(String.valueOf(value));
+		}
+		return key;
+	}
+}
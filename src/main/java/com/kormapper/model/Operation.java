@@ -0,0 +1,17 @@
+package com.kormapper.model;
+
+/**
+ * The kind of SQL operation of a BoundStatement
+ * @author leonhardmuellauer
+ */
+public enum Operation {
+	
+	/** A SELECT-Statement */
+	SELECT,
+	/** An INSERT-Statement */
+	INSERT,
+	/** An UPDATE-Statement */
+	UPDATE,
+	/** A DELETE-Statement */
+	DELETE;
+}
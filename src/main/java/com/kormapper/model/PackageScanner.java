@@ -0,0 +1,88 @@
+package com.kormapper.model;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import com.kormapper.annotation.Table;
+import com.kormapper.exception.KORException;
+
+/**
+ * Finds the Table annotated classes of a package and its subpackages in directories and jar files of the
+ * class path. The classes are loaded without being initialized.
+ * @author leonhardmuellauer
+ */
+final class PackageScanner {
+	
+	private PackageScanner() { }
+	
+	/**
+	 * Returns the Table annotated classes of the given package and its subpackages sorted by name
+	 * @param packageName the name of the package
+	 * @param loader the class loader which loads the classes
+	 * @return the found classes
+	 * @throws KORException when the class path could not be read
+	 */
+	static List<Class<?>> scan(String packageName, ClassLoader loader) throws KORException {
+		String path = packageName.replace('.', '/');
+		TreeSet<String> names = new TreeSet<>();
+		try {
+			Enumeration<URL> urls = loader.getResources(path);
+			while(urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				if("file".equals(url.getProtocol())) {
+					Path root = Paths.get(url.toURI());
+					try(Stream<Path> files = Files.walk(root)) {
+						files.forEach(file -> {
+							String relative = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+							addClassName(path+"/"+relative, names);
+						});
+					}
+				} else if("jar".equals(url.getProtocol())) {
+					JarURLConnection connection = (JarURLConnection)url.openConnection();
+					connection.setUseCaches(false);
+					try(JarFile jar = connection.getJarFile()) {
+						Enumeration<JarEntry> entries = jar.entries();
+						while(entries.hasMoreElements()) {
+							String entry = entries.nextElement().getName();
+							if(entry.startsWith(path+"/")) {
+								addClassName(entry, names);
+							}
+						}
+					}
+				}
+			}
+		} catch(IOException | URISyntaxException e) {
+			throw new KORException("Error: The package "+packageName+" could not be scanned: "+e.getMessage());
+		}
+		List<Class<?>> erg = new ArrayList<>();
+		for(String name : names) {
+			try {
+				Class<?> type = Class.forName(name, false, loader);
+				if(type.isAnnotationPresent(Table.class)) {
+					erg.add(type);
+				}
+			} catch(ClassNotFoundException | LinkageError e) {
+				//a class which can not be loaded is no usable KORBridge-Class
+			}
+		}
+		return erg;
+	}
+	
+	private static void addClassName(String resource, TreeSet<String> names) {
+		if(resource.endsWith(".class") && !resource.endsWith("module-info.class") && !resource.endsWith("package-info.class")) {
+			names.add(resource.substring(0, resource.length() - ".class".length()).replace('/', '.'));
+		}
+	}
+}
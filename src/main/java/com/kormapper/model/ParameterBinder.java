@@ -0,0 +1,64 @@
+package com.kormapper.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+
+/**
+ * Binds the parameters of a BoundStatement to a PreparedStatement.
+ * @author leonhardmuellauer
+ */
+public final class ParameterBinder {
+	
+	private ParameterBinder() { }
+	
+	/**
+	 * Binds the given parameters to the placeholders of the PreparedStatement
+	 * @param stmt the PreparedStatement which has been prepared with the template of the parameters
+	 * @param parameters the values of the placeholders in order of their occurrence
+	 * @throws SQLException when a value could not be bound
+	 */
+	public static void bind(PreparedStatement stmt, Object[] parameters) throws SQLException {
+		for(int i = 0; i < parameters.length; i++) {
+			stmt.setObject(i + 1, parameters[i]);
+		}
+	}
+	
+	/**
+	 * Binds the parameters of the given statement by their converters to the placeholders of the PreparedStatement.
+	 * NULL values and parameters without a converter are passed unchanged to the JDBC driver. A statement which
+	 * refers to the columns of its objects is bound straight from their fields.
+	 * @param stmt the PreparedStatement which has been prepared with the template of the statement
+	 * @param statement the statement whose parameters are bound
+	 * @throws SQLException when a value could not be bound
+	 * @throws KORException when a field of the objects of the statement could not be read
+	 */
+	public static void bind(PreparedStatement stmt, BoundStatement statement) throws SQLException, KORException {
+		Object[] rows = statement.getRows();
+		if(rows != null) {
+			ColumnMetadata[] columns = statement.getColumns();
+			for(int r = 0, p = 1; r < rows.length; r++) {
+				for(ColumnMetadata column : columns) {
+					column.getConverter().bindFrom(stmt, p++, rows[r], column.getAccessor());
+				}
+			}
+			return;
+		}
+		Object[] parameters = statement.getParameters();
+		TypeConverter<Object>[] converters = statement.getConverters();
+		if(converters == null) {
+			bind(stmt, parameters);
+			return;
+		}
+		for(int i = 0; i < parameters.length; i++) {
+			if(parameters[i] == null || converters[i] == null) {
+				stmt.setObject(i + 1, parameters[i]);
+			} else {
+				converters[i].bind(stmt, i + 1, parameters[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.kormapper.model;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.StreamException;
+
+/**
+ * Spliterator over an open ResultSet which maps the rows on demand. <br>
+ * The rows are read in chunks, so the relations of a chunk can be loaded together before its objects are
+ * passed on. The ResultSet, its Statement and its Connection are closed when the last row has been read or
+ * the Spliterator is closed.
+ * @author leonhardmuellauer
+ * @param <T> the type of the mapped objects
+ */
+final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+	
+	/**
+	 * Maps the current row of a ResultSet
+	 */
+	@FunctionalInterface
+	interface RowReader<T> {
+		T read(ResultSet rs) throws SQLException, KORException;
+	}
+	
+	/**
+	 * Completes the objects of a chunk before they are passed on, e.g. loads their relations
+	 */
+	@FunctionalInterface
+	interface ChunkFiller<T> {
+		void fill(List<T> chunk) throws KORException;
+	}
+	
+	private final Connection conn;
+	private final Statement stmt;
+	private final ResultSet rs;
+	private final RowReader<T> reader;
+	private final ChunkFiller<T> filler;
+	private final int chunkSize;
+	private final ArrayDeque<T> buffer = new ArrayDeque<>();
+	private boolean closed = false;
+	
+	/**
+	 * Instantiates a Spliterator over the given ResultSet which is the owner of the given resources from now on
+	 * @param conn the connection of the statement
+	 * @param stmt the executed statement
+	 * @param rs the ResultSet of the statement
+	 * @param reader the mapping of a single row
+	 * @param chunkSize the number of rows which are read at once
+	 * @param filler the completion of a chunk
+	 */
+	ResultSetSpliterator(Connection conn, Statement stmt, ResultSet rs, RowReader<T> reader, int chunkSize, ChunkFiller<T> filler) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		this.conn = conn;
+		this.stmt = stmt;
+		this.rs = rs;
+		this.reader = reader;
+		this.chunkSize = chunkSize;
+		this.filler = filler;
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if(buffer.isEmpty() && !readChunk()) {
+			return false;
+		}
+		action.accept(buffer.poll());
+		return true;
+	}
+	
+	/**
+	 * Reads the next chunk of rows into the buffer
+	 * @return if at least one row was read or not
+	 * @throws StreamException when a row could not be read or mapped
+	 */
+	private boolean readChunk() {
+		if(closed) {
+			return false;
+		}
+		try {
+			List<T> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+			while(chunk.size() < chunkSize && rs.next()) {
+				chunk.add(reader.read(rs));
+			}
+			if(chunk.isEmpty()) {
+				close();
+				return false;
+			}
+			filler.fill(chunk);
+			buffer.addAll(chunk);
+			return true;
+		} catch(SQLException | KORException e) {
+			close();
+			throw new StreamException("Error: The next row of the stream could not be read: "+e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Closes the ResultSet, the Statement and the Connection. Further calls have no effect.
+	 */
+	@Override
+	public void close() {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		buffer.clear();
+		closeQuietly(rs);
+		closeQuietly(stmt);
+		closeQuietly(conn);
+	}
+	
+	private static void closeQuietly(AutoCloseable resource) {
+		try {
+			if(resource != null) {
+				resource.close();
+			}
+		} catch(Exception e) {
+			//The stream is done, a failing close must not hide the result
+		}
+	}
+}
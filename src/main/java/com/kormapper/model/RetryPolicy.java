@@ -0,0 +1,246 @@
+package com.kormapper.model;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kormapper.exception.BusyException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * RetryPolicy - Retries of operations which failed because the database was busy or locked <br>
+ * A KORMapper only retries units which have not been applied when they failed: a whole transaction of
+ * saveChanges, a single statement in auto-commit mode and queries whose result is read completely. Streams
+ * are never retried. The delay before a retry grows exponentially from the initial delay up to the maximal
+ * delay, the actual delay is drawn uniformly between 0 and that bound (full jitter), thus concurrent writers
+ * do not retry in lockstep. No retry starts after the deadline. <br>
+ * The statistics are counted for all KORMappers which share the policy.
+ * @author leonhardmuellauer
+ */
+public class RetryPolicy {
+	
+	private int maxAttempts = 5;
+	private long initialDelay = 10;
+	private long maxDelay = 1000;
+	private long deadline = 10_000;
+	
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong recovered = new AtomicLong();
+	private final AtomicLong exhausted = new AtomicLong();
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a RetryPolicy with the default settings <br>
+	 * <b>maxAttempts</b> 5, <b>initialDelay</b> 10 ms, <b>maxDelay</b> 1 second and a <b>deadline</b> of
+	 * 10 seconds
+	 */
+	public RetryPolicy() { }
+	
+	/**
+	 * Instantiates a RetryPolicy
+	 * @param maxAttempts the maximal number of attempts including the first one
+	 * @param initialDelay the bound of the delay in milliseconds before the first retry
+	 * @param maxDelay the maximal bound of the delay in milliseconds
+	 * @param deadline the time in milliseconds after the first attempt after which no retry is started
+	 */
+	public RetryPolicy(int maxAttempts, long initialDelay, long maxDelay, long deadline) {
+		setMaxAttempts(maxAttempts);
+		setInitialDelay(initialDelay);
+		setMaxDelay(maxDelay);
+		setDeadline(deadline);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Retry methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the primary result code of the given exception when the database was busy or locked
+	 * @param e the exception of the JDBC driver
+	 * @return BusyException.RESULT_BUSY, BusyException.RESULT_LOCKED or 0 for any other error
+	 */
+	public static int contention(SQLException e) {
+		int code = e.getErrorCode() & 0xFF; //the extended result codes keep the primary one in the low byte
+		if(code == BusyException.RESULT_BUSY || code == BusyException.RESULT_LOCKED) {
+			return code;
+		}
+		String message = e.getMessage() != null ? e.getMessage().toUpperCase(Locale.ROOT) : "";
+		if(message.contains("SQLITE_BUSY") || message.contains("DATABASE IS LOCKED")) {
+			return BusyException.RESULT_BUSY;
+		}
+		if(message.contains("SQLITE_LOCKED") || message.contains("TABLE IS LOCKED")) {
+			return BusyException.RESULT_LOCKED;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Says whether another attempt may be started and counts the retry
+	 * @param attempts the number of attempts which have been made
+	 * @param started the time of the first attempt in milliseconds
+	 * @return true when the operation should be retried
+	 */
+	boolean retry(int attempts, long started) {
+		if(attempts >= maxAttempts || System.currentTimeMillis() - started >= deadline) {
+			exhausted.incrementAndGet();
+			return false;
+		}
+		retries.incrementAndGet();
+		return true;
+	}
+	
+	/**
+	 * Returns the jittered delay before the next attempt, which does not exceed the deadline
+	 * @param attempts the number of attempts which have been made
+	 * @param started the time of the first attempt in milliseconds
+	 * @return the delay in milliseconds
+	 */
+	long delay(int attempts, long started) {
+		long bound = initialDelay;
+		for(int i = 1; i < attempts && bound < maxDelay; i++) {
+			bound *= 2;
+		}
+		bound = Math.min(bound, maxDelay);
+		long delay = bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+		return Math.max(0, Math.min(delay, started + deadline - System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Counts an operation which succeeded after at least one retry
+	 */
+	void recovered() {
+		recovered.incrementAndGet();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Statistics														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the number of retries which have been started
+	 * @return the number of retries
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+	
+	/**
+	 * Returns the number of operations which succeeded after they had been retried
+	 * @return the number of recovered operations
+	 */
+	public long getRecoveredCount() {
+		return recovered.get();
+	}
+	
+	/**
+	 * Returns the number of operations which failed with a BusyException after all attempts
+	 * @return the number of exhausted operations
+	 */
+	public long getExhaustedCount() {
+		return exhausted.get();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET- and SET methods												     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the maximal number of attempts
+	 * @return the maximal number of attempts including the first one
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+	
+	/**
+	 * Sets the maximal number of attempts
+	 * @param maxAttempts the maximal number of attempts including the first one, 1 disables the retries
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		if(maxAttempts > 0) {
+			this.maxAttempts = maxAttempts;
+		} else {
+			throw new ParamException("Error: The maximal number of attempts must be greater than 0");
+		}
+	}
+	
+	/**
+	 * Returns the bound of the delay before the first retry
+	 * @return the initial delay in milliseconds
+	 */
+	public long getInitialDelay() {
+		return initialDelay;
+	}
+	
+	/**
+	 * Sets the bound of the delay before the first retry, the bound doubles with every further retry
+	 * @param initialDelay the initial delay in milliseconds
+	 */
+	public void setInitialDelay(long initialDelay) {
+		if(initialDelay >= 0) {
+			this.initialDelay = initialDelay;
+		} else {
+			throw new ParamException("Error: The initial delay may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the maximal bound of the delay
+	 * @return the maximal delay in milliseconds
+	 */
+	public long getMaxDelay() {
+		return maxDelay;
+	}
+	
+	/**
+	 * Sets the maximal bound of the delay
+	 * @param maxDelay the maximal delay in milliseconds
+	 */
+	public void setMaxDelay(long maxDelay) {
+		if(maxDelay >= 0) {
+			this.maxDelay = maxDelay;
+		} else {
+			throw new ParamException("Error: The maximal delay may not be negative");
+		}
+	}
+	
+	/**
+	 * Returns the time after the first attempt after which no retry is started
+	 * @return the deadline in milliseconds
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+	
+	/**
+	 * Sets the time after the first attempt after which no retry is started
+	 * @param deadline the deadline in milliseconds
+	 */
+	public void setDeadline(long deadline) {
+		if(deadline >= 0) {
+			this.deadline = deadline;
+		} else {
+			throw new ParamException("Error: The deadline may not be negative");
+		}
+	}
+}
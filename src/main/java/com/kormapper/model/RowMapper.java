@@ -0,0 +1,175 @@
+package com.kormapper.model;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.exception.KORException;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+import com.kormapper.reflection.MetadataRegistry;
+import com.kormapper.reflection.PropertyAccessor;
+
+/**
+ * Mapping plan of the rows of a ResultSet onto a KORBridge-Class. <br>
+ * The plan is computed once per class and column layout of the ResultSet. It holds the index of every
+ * column with a corresponding Column annotated field together with the compiled accessor and the converter
+ * of the field, thus mapping a row does not look up any column name.
+ * @author leonhardmuellauer
+ * @param <T> the type of the mapped objects
+ */
+final class RowMapper<T> {
+	
+	/** Queries are usually built from a fixed set of strings, the limit only protects against ad hoc SQL */
+	private static final int MAX_PLANS = 1024;
+	private static final ConcurrentMap<List<Object>, RowMapper<?>> PLANS = new ConcurrentHashMap<>();
+	
+	private final Class<T> sample;
+	private final EntityMetadata metadata;
+	private final int[] indexes;
+	private final PropertyAccessor[] accessors;
+	private final TypeConverter<?>[] converters;
+	
+	private RowMapper(Class<T> sample, List<String> columnNames) {
+		this.sample = sample;
+		this.metadata = MetadataRegistry.of(sample);
+		List<Integer> indexes = new ArrayList<>();
+		List<PropertyAccessor> accessors = new ArrayList<>();
+		List<TypeConverter<?>> converters = new ArrayList<>();
+		for(int i = 0; i < columnNames.size(); i++) {
+			ColumnMetadata column = metadata.columnOf(columnNames.get(i));
+			if(column != null) {
+				indexes.add(i + 1);
+				accessors.add(column.getAccessor());
+				converters.add(column.getConverter());
+			}
+		}
+		this.indexes = new int[indexes.size()];
+		for(int i = 0; i < this.indexes.length; i++) {
+			this.indexes[i] = indexes.get(i);
+		}
+		this.accessors = accessors.toArray(new PropertyAccessor[0]);
+		this.converters = converters.toArray(new TypeConverter<?>[0]);
+	}
+	
+	/**
+	 * Returns the mapping plan of the given class for the column layout of the given ResultSet
+	 * @param sample the class of the mapped objects
+	 * @param rsmd the metadata of the ResultSet
+	 * @param <T> the type of the mapped objects
+	 * @return the cached or a new mapping plan
+	 * @throws SQLException when the column names could not be read
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RowMapper<T> of(Class<T> sample, ResultSetMetaData rsmd) throws SQLException {
+		List<String> columnNames = new ArrayList<>(rsmd.getColumnCount());
+		for(int i = 1; i <= rsmd.getColumnCount(); i++) {
+			columnNames.add(rsmd.getColumnName(i));
+		}
+		List<Object> key = new ArrayList<>(columnNames.size() + 1);
+		key.add(sample);
+		key.addAll(columnNames);
+		
+		RowMapper<T> plan = (RowMapper<T>)PLANS.get(key);
+		if(plan == null) {
+			plan = new RowMapper<>(sample, columnNames);
+			if(PLANS.size() < MAX_PLANS) {
+				RowMapper<T> cached = (RowMapper<T>)PLANS.putIfAbsent(key, plan);
+				plan = cached != null ? cached : plan;
+			}
+		}
+		return plan;
+	}
+	
+	/**
+	 * Says whether every Column annotated field of the class is read from the ResultSet
+	 * @return if the mapped objects are complete or not
+	 */
+	boolean isComplete() {
+		return indexes.length == metadata.getColumns().size();
+	}
+	
+	/**
+	 * Instantiates an object with the values of the current row of the given ResultSet.
+	 * Columns without a corresponding Column annotated field are ignored.
+	 * @param rs the ResultSet positioned on a row
+	 * @return the mapped object
+	 * @throws SQLException when a value could not be read
+	 * @throws KORException when the object could not be instantiated or a value could not be set
+	 */
+	T map(ResultSet rs) throws SQLException, KORException {
+		Object instance = metadata.newInstance(); //MappingConstructor forces the declaration of a standard constructor
+		for(int i = 0; i < indexes.length; i++) {
+			converters[i].readInto(rs, indexes[i], instance, accessors[i]);
+		}
+		return sample.cast(instance);
+	}
+	
+	/**
+	 * Returns the mapped values of the given object in the order of this plan, see map(Object[])
+	 * @param instance an object mapped by this plan
+	 * @return the values of the mapped fields
+	 * @throws KORException when a value could not be read
+	 */
+	Object[] values(T instance) throws KORException {
+		Object[] values = new Object[accessors.length];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = accessors[i].get(instance);
+		}
+		return values;
+	}
+	
+	/**
+	 * Instantiates an object with the given values, which have been read by values(T)
+	 * @param values the values of the mapped fields
+	 * @return the mapped object
+	 * @throws KORException when the object could not be instantiated or a value could not be set
+	 */
+	T map(Object[] values) throws KORException {
+		Object instance = metadata.newInstance();
+		for(int i = 0; i < values.length; i++) {
+			accessors[i].set(instance, values[i]);
+		}
+		return sample.cast(instance);
+	}
+	
+	/**
+	 * The rows of a query result held by the QueryCache
+	 * @param <T> the type of the mapped objects
+	 */
+	static final class Rows<T> {
+		
+		private final RowMapper<T> plan;
+		private final List<Object[]> values = new ArrayList<>();
+		
+		Rows(RowMapper<T> plan) {
+			this.plan = plan;
+		}
+		
+		boolean isComplete() {
+			return plan.isComplete();
+		}
+		
+		void add(T instance) throws KORException {
+			values.add(plan.values(instance));
+		}
+		
+		/**
+		 * Returns new objects of the cached rows
+		 * @return the mapped objects
+		 * @throws KORException when an object could not be instantiated
+		 */
+		List<T> map() throws KORException {
+			List<T> erg = new ArrayList<>(values.size());
+			for(Object[] row : values) {
+				erg.add(plan.map(row));
+			}
+			return erg;
+		}
+	}
+}
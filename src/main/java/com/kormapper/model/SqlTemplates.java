@@ -0,0 +1,258 @@
+package com.kormapper.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.reflection.ColumnMetadata;
+import com.kormapper.reflection.EntityMetadata;
+
+/**
+ * The parameterized SQL templates of a single entity class together with the converters of their
+ * placeholders, as well as the skeletons of the SQL strings with literal values. The templates are built
+ * once per class by the KORGenerator.
+ * @author leonhardmuellauer
+ */
+final class SqlTemplates {
+	
+	/** The number of column combinations of partial updates which are cached per class */
+	private static final int MAX_PARTIAL_UPDATES = 256;
+	
+	private final Map<Mode, String> inserts = new EnumMap<>(Mode.class);
+	private final Map<Mode, ConcurrentMap<Integer, String>> bulkInserts = new EnumMap<>(Mode.class);
+	private final String row;
+	private final String update;
+	private final String delete;
+	private final String select;
+	private final Map<Mode, String> literalInserts = new EnumMap<>(Mode.class);
+	private final String literalUpdate;
+	private final String literalDelete;
+	private final String[] literalAssignments;
+	private final String[] literalConditions;
+	private final TypeConverter<Object>[] insertConverters;
+	private final TypeConverter<Object>[] updateConverters;
+	private final TypeConverter<Object>[] deleteConverters;
+	private final ColumnMetadata[] insertColumns;
+	private final ColumnMetadata[] updateColumns;
+	private final ColumnMetadata[] deleteColumns;
+	private final ConcurrentMap<Integer, TypeConverter<Object>[]> bulkInsertConverters = new ConcurrentHashMap<>();
+	private final String where;
+	private final ConcurrentMap<BitSet, String> partialUpdates = new ConcurrentHashMap<>();
+	private final ConcurrentMap<BitSet, TypeConverter<Object>[]> partialUpdateConverters = new ConcurrentHashMap<>();
+	
+	SqlTemplates(EntityMetadata metadata) {
+		String table = metadata.getTableName();
+		List<ColumnMetadata> columns = metadata.getColumns();
+		
+		StringBuilder names = new StringBuilder();
+		StringBuilder placeholders = new StringBuilder();
+		StringBuilder assignments = new StringBuilder();
+		for(int i = 0; i < columns.size(); i++) {
+			String separator = i == 0 ? "" : ",";
+			names.append(separator).append(columns.get(i).getName());
+			placeholders.append(separator).append('?');
+			assignments.append(separator).append(columns.get(i).getName()).append(" = ?");
+		}
+		for(Mode mode : Mode.values()) {
+			inserts.put(mode, "INSERT "+mode.getValue()+" INTO "+table+"("+names+") VALUES("+placeholders+")");
+			literalInserts.put(mode, "INSERT "+mode.getValue()+" INTO "+table+"("+names+") VALUES(");
+			bulkInserts.put(mode, new ConcurrentHashMap<>());
+		}
+		this.row = "("+placeholders+")";
+		
+		this.where = whereClause(metadata.getPrimaryKeys());
+		this.update = "UPDATE "+table+" SET "+assignments+" WHERE "+where;
+		this.delete = "DELETE FROM "+table+" WHERE "+where;
+		this.select = "SELECT * FROM "+table+" WHERE "+where;
+		
+		List<ColumnMetadata> updateColumns = new ArrayList<>(columns);
+		updateColumns.addAll(metadata.getPrimaryKeys());
+		this.insertConverters = convertersOf(columns);
+		this.updateConverters = convertersOf(updateColumns);
+		this.deleteConverters = convertersOf(metadata.getPrimaryKeys());
+		this.insertColumns = columns.toArray(new ColumnMetadata[0]);
+		this.updateColumns = updateColumns.toArray(new ColumnMetadata[0]);
+		this.deleteColumns = metadata.getPrimaryKeys().toArray(new ColumnMetadata[0]);
+		
+		this.literalUpdate = "UPDATE "+table+" SET ";
+		this.literalDelete = "DELETE FROM "+table+" WHERE ";
+		this.literalAssignments = new String[columns.size()];
+		for(int i = 0; i < columns.size(); i++) {
+			literalAssignments[i] = columns.get(i).getName()+" = ";
+		}
+		this.literalConditions = new String[metadata.getPrimaryKeys().size()];
+		for(int i = 0; i < literalConditions.length; i++) {
+			literalConditions[i] = metadata.getPrimaryKeys().get(i).getName()+" = ";
+		}
+	}
+	
+	@SuppressWarnings("unchecked") //a generic array can not be created, every converter accepts the values of its column
+	private static TypeConverter<Object>[] convertersOf(List<ColumnMetadata> columns) {
+		TypeConverter<Object>[] converters = (TypeConverter<Object>[])new TypeConverter<?>[columns.size()];
+		for(int i = 0; i < converters.length; i++) {
+			converters[i] = columns.get(i).getConverter();
+		}
+		return converters;
+	}
+	
+	private static String whereClause(List<ColumnMetadata> primaryKeys) {
+		StringBuilder where = new StringBuilder();
+		for(int i = 0; i < primaryKeys.size(); i++) {
+			where.append(i == 0 ? "" : " AND ").append(primaryKeys.get(i).getName()).append(" = ?");
+		}
+		return where.toString();
+	}
+	
+	String insert(Mode mode) {
+		return inserts.get(mode);
+	}
+	
+	/**
+	 * Returns the INSERT template with a VALUES list of the given number of rows
+	 */
+	String bulkInsert(Mode mode, int rows) {
+		return bulkInserts.get(mode).computeIfAbsent(rows, key -> {
+			String insert = inserts.get(mode);
+			StringBuilder sql = new StringBuilder(insert.length() + rows * (row.length() + 1));
+			sql.append(insert, 0, insert.length() - row.length());
+			for(int i = 0; i < rows; i++) {
+				sql.append(i == 0 ? "" : ",").append(row);
+			}
+			return sql.toString();
+		});
+	}
+	
+	/**
+	 * Returns the converters of the INSERT template with a VALUES list of the given number of rows
+	 */
+	TypeConverter<Object>[] bulkInsertConverters(int rows) {
+		return bulkInsertConverters.computeIfAbsent(rows, key -> {
+			TypeConverter<Object>[] converters = Arrays.copyOf(insertConverters, rows * insertConverters.length);
+			for(int i = 1; i < rows; i++) {
+				System.arraycopy(insertConverters, 0, converters, i * insertConverters.length, insertConverters.length);
+			}
+			return converters;
+		});
+	}
+	
+	TypeConverter<Object>[] insertConverters() {
+		return insertConverters;
+	}
+	
+	TypeConverter<Object>[] updateConverters() {
+		return updateConverters;
+	}
+	
+	TypeConverter<Object>[] deleteConverters() {
+		return deleteConverters;
+	}
+	
+	/**
+	 * Returns the columns of the placeholders of a single row of the INSERT template
+	 */
+	ColumnMetadata[] insertColumns() {
+		return insertColumns;
+	}
+	
+	/**
+	 * Returns the columns of the placeholders of the UPDATE template, the primary keys of the WHERE clause included
+	 */
+	ColumnMetadata[] updateColumns() {
+		return updateColumns;
+	}
+	
+	/**
+	 * Returns the columns of the placeholders of the DELETE template
+	 */
+	ColumnMetadata[] deleteColumns() {
+		return deleteColumns;
+	}
+	
+	String update() {
+		return update;
+	}
+	
+	/**
+	 * Returns the UPDATE template which only sets the columns with the given indices
+	 */
+	String update(BitSet changed) {
+		String sql = partialUpdates.get(changed);
+		if(sql == null) {
+			StringBuilder sb = new StringBuilder(literalUpdate);
+			for(int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+				sb.append(sb.length() == literalUpdate.length() ? "" : ",").append(literalAssignments[i]).append('?');
+			}
+			sql = sb.append(" WHERE ").append(where).toString();
+			if(partialUpdates.size() < MAX_PARTIAL_UPDATES) {
+				partialUpdates.putIfAbsent((BitSet)changed.clone(), sql);
+			}
+		}
+		return sql;
+	}
+	
+	/**
+	 * Returns the converters of the UPDATE template which only sets the columns with the given indices
+	 */
+	@SuppressWarnings("unchecked") //a generic array can not be created, it only holds converters of the template
+	TypeConverter<Object>[] updateConverters(BitSet changed) {
+		TypeConverter<Object>[] converters = partialUpdateConverters.get(changed);
+		if(converters == null) {
+			converters = (TypeConverter<Object>[])new TypeConverter<?>[changed.cardinality() + deleteConverters.length];
+			int p = 0;
+			for(int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+				converters[p++] = insertConverters[i];
+			}
+			System.arraycopy(deleteConverters, 0, converters, p, deleteConverters.length);
+			if(partialUpdateConverters.size() < MAX_PARTIAL_UPDATES) {
+				partialUpdateConverters.putIfAbsent((BitSet)changed.clone(), converters);
+			}
+		}
+		return converters;
+	}
+	
+	String delete() {
+		return delete;
+	}
+	
+	/**
+	 * Returns the SELECT template of a single record by its primary keys, its converters equal the ones of delete
+	 */
+	String select() {
+		return select;
+	}
+	
+	/**
+	 * Returns the beginning of an INSERT statement with literal values up to the opening parenthesis of VALUES
+	 */
+	String literalInsert(Mode mode) {
+		return literalInserts.get(mode);
+	}
+	
+	String literalUpdate() {
+		return literalUpdate;
+	}
+	
+	String literalDelete() {
+		return literalDelete;
+	}
+	
+	/**
+	 * Returns the "column = " prefix of every column in declaration order
+	 */
+	String[] literalAssignments() {
+		return literalAssignments;
+	}
+	
+	/**
+	 * Returns the "primary key = " prefix of every primary key in declaration order
+	 */
+	String[] literalConditions() {
+		return literalConditions;
+	}
+}
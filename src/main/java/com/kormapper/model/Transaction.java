@@ -0,0 +1,63 @@
+package com.kormapper.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The buffer of a transaction of a KORMapper. <br>
+ * While a transaction is buffering the generated statements are collected instead of being executed, saveChanges
+ * executes them as a single database transaction. Every thread has its own transaction, a KORSession may
+ * additionally own one. A transaction is confined to its thread or session and is not thread-safe.
+ * @author leonhardmuellauer
+ */
+final class Transaction {
+	
+	private boolean isBuffering = false;
+	private List<BoundStatement> pending = new ArrayList<>();
+	
+	/**
+	 * Starts buffering
+	 */
+	void start() {
+		isBuffering = true;
+	}
+	
+	/**
+	 * Says whether statements are buffered
+	 * @return if statements are buffered or not
+	 */
+	boolean isBuffering() {
+		return isBuffering;
+	}
+	
+	/**
+	 * Sets whether statements are buffered, already buffered statements are kept
+	 * @param isBuffering the boolean value to be set
+	 */
+	void setBuffering(boolean isBuffering) {
+		this.isBuffering = isBuffering;
+	}
+	
+	/**
+	 * Buffers the given statements when this transaction is buffering
+	 * @param statements the generated statements
+	 * @return true when the statements have been buffered
+	 */
+	boolean buffer(List<BoundStatement> statements) {
+		if(isBuffering) {
+			pending.addAll(statements);
+		}
+		return isBuffering;
+	}
+	
+	/**
+	 * Ends buffering and returns the buffered statements, the buffer is emptied
+	 * @return the buffered statements in the order they were buffered
+	 */
+	List<BoundStatement> finish() {
+		List<BoundStatement> erg = pending;
+		pending = new ArrayList<>();
+		isBuffering = false;
+		return erg;
+	}
+}
@@ -0,0 +1,368 @@
+package com.kormapper.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * WriteBehindMapper - Group commit of the writes of a KORMapper <br>
+ * insert, update and delete generate the statements of an object immediately and enqueue them into a bounded
+ * queue. A background flusher collects the queued writes until the flush interval has elapsed or the batch
+ * size has been reached and executes them as a single transaction with JDBC batches, thus many small writes
+ * share one commit. When the queue is full the writing threads block until the flusher has made room. <br>
+ * The writes are not durable before they have been flushed: flush waits for all writes enqueued so far and
+ * close flushes the remaining writes before it returns. A failed flush rolls back all writes of its batch and
+ * passes the exception and the written objects to the failure handler. <br>
+ * The WriteBehindMapper is thread-safe. The underlying KORMapper stays usable for queries and is not closed.
+ * @author leonhardmuellauer
+ */
+public class WriteBehindMapper implements AutoCloseable {
+	
+	private static final Logger LOGGER = Logger.getLogger(WriteBehindMapper.class.getName());
+	
+	private final KORMapper mapper;
+	private final BlockingQueue<Write> queue;
+	private final int batchSize;
+	private final long flushInterval;
+	private final Thread flusher;
+	private final ReadWriteLock closing = new ReentrantReadWriteLock();
+	private final List<Write> markers = new ArrayList<>();
+	private boolean closed = false;
+	private volatile BiConsumer<KORException, List<Object>> failureHandler = (e, objects) ->
+		LOGGER.log(Level.WARNING, "Write-behind flush of "+objects.size()+" objects failed", e);
+	
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	
+	/**
+	 * A queued write or a marker of flush and close
+	 */
+	private static final class Write {
+		private final Object object;
+		private final List<BoundStatement> statements;
+		private final CountDownLatch flushed;
+		private final boolean stop;
+	
+		private Write(Object object, List<BoundStatement> statements, CountDownLatch flushed, boolean stop) {
+			this.object = object;
+			this.statements = statements;
+			this.flushed = flushed;
+			this.stop = stop;
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Instantiates a WriteBehindMapper and starts its flusher
+	 * @param mapper the KORMapper which generates and executes the statements
+	 * @param capacity the maximal number of queued writes
+	 * @param batchSize the maximal number of writes of a single transaction
+	 * @param flushInterval the maximal time in milliseconds a write waits for further writes of its batch
+	 */
+	public WriteBehindMapper(KORMapper mapper, int capacity, int batchSize, long flushInterval) {
+		if(mapper == null) {
+			throw new ParamException("Error: KORMapper may not be null");
+		}
+		if(capacity < 1 || batchSize < 1) {
+			throw new ParamException("Error: The capacity and the batch size must be greater than 0");
+		}
+		if(flushInterval < 0) {
+			throw new ParamException("Error: The flush interval may not be negative");
+		}
+		this.mapper = mapper;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.flusher = new Thread(this::run, "kormapper-write-behind");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Insert, Update, Delete											     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Enqueues the INSERT-Statements of the given object, later modifications of the object are not written
+	 * @param object the object to be inserted
+	 * @throws KORException when the statements could not be generated, the thread has been interrupted while
+	 * waiting for room in the queue or the WriteBehindMapper has been closed
+	 */
+	public void insert(Object object) throws KORException {
+		enqueue(object, mapper.getKORGenerator().insertStatements(object));
+	}
+	
+	/**
+	 * Enqueues the UPDATE-Statements of the given object, see insert
+	 * @param object on which the UPDATE-Statement should be generated
+	 * @throws KORException when the statements could not be generated or enqueued
+	 */
+	public void update(Object object) throws KORException {
+		enqueue(object, mapper.getKORGenerator().updateStatements(object));
+	}
+	
+	/**
+	 * Enqueues the DELETE-Statements of the given object, see insert
+	 * @param object on which the DELETE-Statement should be generated
+	 * @throws KORException when the statements could not be generated or enqueued
+	 */
+	public void delete(Object object) throws KORException {
+		enqueue(object, mapper.getKORGenerator().deleteStatements(object));
+	}
+	
+	/**
+	 * Waits until every write which has been enqueued before has been flushed
+	 * @throws KORException when the thread has been interrupted or the WriteBehindMapper has been closed
+	 */
+	public void flush() throws KORException {
+		CountDownLatch flushed = new CountDownLatch(1);
+		enqueue(new Write(null, null, flushed, false));
+		await(flushed);
+	}
+	
+	/**
+	 * Flushes the remaining writes and stops the flusher. Writes which are enqueued concurrently to close
+	 * are rejected.
+	 * @throws KORException when the thread has been interrupted while waiting for the flusher
+	 */
+	@Override
+	public void close() throws KORException {
+		CountDownLatch flushed = new CountDownLatch(1);
+		closing.writeLock().lock();
+		try {
+			if(closed) {
+				return;
+			}
+			put(new Write(null, null, flushed, true));
+			closed = true;
+		} finally {
+			closing.writeLock().unlock();
+		}
+		await(flushed);
+		try {
+			flusher.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KORException("Interrupted while waiting for the write-behind flusher");
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Flusher															     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private void run() {
+		List<Write> batch = new ArrayList<>(batchSize);
+		while(true) {
+			Write first;
+			try {
+				first = queue.take();
+			} catch(InterruptedException e) {
+				continue; //the flusher only stops by close
+			}
+			boolean stop = collect(first, batch);
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+			while(!stop && first.flushed == null && batch.size() < batchSize) {
+				long remaining = deadline - System.nanoTime();
+				Write next = null;
+				try {
+					next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+				} catch(InterruptedException e) {
+					//flush what has been collected so far
+				}
+				if(next == null) {
+					break;
+				}
+				stop = collect(next, batch);
+				if(next.flushed != null) {
+					break;
+				}
+			}
+			write(batch);
+			for(Write marker : markers) {
+				marker.flushed.countDown();
+			}
+			markers.clear();
+			batch.clear();
+			if(stop) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Adds the given write to the batch or remembers the given marker
+	 * @return true when the marker of close has been reached
+	 */
+	private boolean collect(Write write, List<Write> batch) {
+		if(write.flushed != null) {
+			markers.add(write);
+			return write.stop;
+		}
+		batch.add(write);
+		return false;
+	}
+	
+	/**
+	 * Executes the statements of the given writes as a single transaction
+	 */
+	private void write(List<Write> batch) {
+		if(batch.isEmpty()) {
+			return;
+		}
+		List<BoundStatement> statements = new ArrayList<>();
+		for(Write write : batch) {
+			statements.addAll(write.statements);
+		}
+		try {
+			mapper.execute(statements);
+			written.addAndGet(batch.size());
+		} catch(KORException | RuntimeException e) {
+			failed.addAndGet(batch.size());
+			List<Object> objects = new ArrayList<>(batch.size());
+			for(Write write : batch) {
+				objects.add(write.object);
+			}
+			KORException cause = e instanceof KORException ? (KORException)e : new KORException(e.getMessage());
+			try {
+				failureHandler.accept(cause, Collections.unmodifiableList(objects));
+			} catch(RuntimeException handlerFailure) {
+				LOGGER.log(Level.WARNING, "The failure handler of the write-behind flusher failed", handlerFailure);
+			}
+		}
+		flushes.incrementAndGet();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET- and SET Methods   											     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Sets the handler of failed flushes, it receives the exception and the objects of the rolled back batch.
+	 * The handler runs on the flusher thread. By default failures are logged.
+	 * @param failureHandler the handler to be set
+	 */
+	public void setFailureHandler(BiConsumer<KORException, List<Object>> failureHandler) {
+		if(failureHandler == null) {
+			throw new ParamException("Error: The failure handler may not be null");
+		}
+		this.failureHandler = failureHandler;
+	}
+	
+	/**
+	 * Returns the number of writes which wait in the queue
+	 * @return the number of queued writes
+	 */
+	public int getPendingCount() {
+		return queue.size();
+	}
+	
+	/**
+	 * Returns the number of executed transactions
+	 * @return the number of flushes
+	 */
+	public long getFlushCount() {
+		return flushes.get();
+	}
+	
+	/**
+	 * Returns the number of objects which have been written
+	 * @return the number of written objects
+	 */
+	public long getWrittenCount() {
+		return written.get();
+	}
+	
+	/**
+	 * Returns the number of objects whose flush has failed
+	 * @return the number of failed objects
+	 */
+	public long getFailedCount() {
+		return failed.get();
+	}
+	
+	/**
+	 * Returns the KORMapper which executes the writes
+	 * @return the KORMapper
+	 */
+	public KORMapper getKORMapper() {
+		return mapper;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private void enqueue(Object object, List<BoundStatement> statements) throws KORException {
+		if(!statements.isEmpty()) {
+			enqueue(new Write(object, statements, null, false));
+		}
+	}
+	
+	private void enqueue(Write write) throws KORException {
+		closing.readLock().lock();
+		try {
+			if(closed) {
+				throw new KORException("The WriteBehindMapper has been closed");
+			}
+			put(write);
+		} finally {
+			closing.readLock().unlock();
+		}
+	}
+	
+	private void put(Write write) throws KORException {
+		try {
+			queue.put(write);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KORException("Interrupted while waiting for room in the write-behind queue");
+		}
+	}
+	
+	private static void await(CountDownLatch flushed) throws KORException {
+		try {
+			flushed.await();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KORException("Interrupted while waiting for the write-behind flush");
+		}
+	}
+}
@@ -0,0 +1,370 @@
+package com.kormapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import com.kormapper.annotation.Column;
+import com.kormapper.annotation.MappingConstructor;
+import com.kormapper.annotation.OneToMany;
+import com.kormapper.annotation.OneToOne;
+import com.kormapper.annotation.Table;
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.reflection.GeneratedMapper;
+
+/**
+ * KORProcessor - Generates a GeneratedMapper for every KORBridge-Class at compile time <br>
+ * The mapper XxxKorMapper of the class Xxx is generated into the package of the class. It holds the
+ * annotations of the class as constants and reads and writes the fields with plain calls of their get- and
+ * set-methods, thus the MetadataRegistry neither reflects the annotations nor compiles MethodHandles for a
+ * class with a generated mapper. The mapper covers the metadata and the field access only: the SQL templates
+ * are still built once per class from the metadata by the KORGenerator, and the values are read and bound
+ * by the TypeConverters of the columns. <br>
+ * The processor is not registered as a service, it has to be enabled explicitly, e.g. with
+ * -processor com.kormapper.processor.KORProcessor or with the annotationProcessorPaths and
+ * annotationProcessors of the maven-compiler-plugin like the processor profile of the kormapper build. <br>
+ * A class is skipped with a warning when the generated mapper could not access it: the class, its default
+ * constructor or a mapped field without get- and set-method is private. Such a class is reflected at runtime.
+ * With the option -Akormapper.strict=true a skipped class is reported as error instead.
+ * @author leonhardmuellauer
+ */
+@SupportedAnnotationTypes({"com.kormapper.annotation.Table", "com.kormapper.annotation.Column",
+	"com.kormapper.annotation.OneToOne", "com.kormapper.annotation.OneToMany", "com.kormapper.annotation.MappingConstructor"})
+@SupportedOptions(KORProcessor.STRICT)
+public class KORProcessor extends AbstractProcessor {
+	
+	/** The option which turns skipped classes into errors */
+	public static final String STRICT = "kormapper.strict";
+	
+	private final Set<String> generated = new HashSet<>();
+	
+	/** The primitive types whose properties are read and written without boxing, see GeneratedMapper.getInt etc. */
+	private static final List<TypeKind> TYPED = Arrays.asList(TypeKind.INT, TypeKind.LONG, TypeKind.DOUBLE, TypeKind.BOOLEAN);
+	
+	/**
+	 * The expressions which read and write a mapped field, the typed setter assigns an unboxed value
+	 */
+	private static final class Property {
+		private final TypeKind kind;
+		private final String getter;
+		private final String setter;
+		private final String typedSetter;
+		
+		private Property(TypeKind kind, String getter, String setter, String typedSetter) {
+			this.kind = kind;
+			this.getter = getter;
+			this.setter = setter;
+			this.typedSetter = typedSetter;
+		}
+	}
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		Set<TypeElement> types = new LinkedHashSet<>();
+		for(Class<? extends Annotation> annotation : Arrays.asList(Table.class, Column.class,
+				OneToOne.class, OneToMany.class, MappingConstructor.class)) {
+			for(Element element : round.getElementsAnnotatedWith(annotation)) {
+				Element type = element.getKind().isClass() ? element : element.getEnclosingElement();
+				if(type.getKind() == ElementKind.CLASS) {
+					types.add((TypeElement)type);
+				}
+			}
+		}
+		for(TypeElement type : types) {
+			String name = mapperName(type);
+			if(generated.add(name)) {
+				generate(type, name);
+			}
+		}
+		return false;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Generation														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private void generate(TypeElement type, String name) {
+		String problem = inaccessible(type);
+		List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements());
+		List<Property> properties = new ArrayList<>();
+		List<String> columns = new ArrayList<>();
+		List<String> relations = new ArrayList<>();
+		for(VariableElement field : fields) {
+			AnnotationMirror column = mirrorOf(field, Column.class);
+			if(column != null) {
+				columns.add(column(field, column));
+				properties.add(property(type, field));
+			}
+		}
+		for(Class<?> relation : Arrays.asList(OneToOne.class, OneToMany.class)) {
+			for(VariableElement field : fields) {
+				AnnotationMirror mirror = mirrorOf(field, relation);
+				if(mirror != null) {
+					relations.add(relation(field, mirror, relation == OneToMany.class));
+					properties.add(property(type, field));
+				}
+			}
+		}
+		for(int i = 0; i < properties.size() && problem == null; i++) {
+			if(properties.get(i) == null) {
+				problem = "a mapped field is private and has no accessible get- and set-method";
+			}
+		}
+		if(problem != null) {
+			boolean strict = Boolean.parseBoolean(processingEnv.getOptions().get(STRICT));
+			processingEnv.getMessager().printMessage(strict ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING,
+					"No "+GeneratedMapper.class.getSimpleName()+" generated for "+type.getQualifiedName()+", "+problem, type);
+			return;
+		}
+		
+		String entity = type.getQualifiedName().toString();
+		String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String simpleName = name.substring(name.lastIndexOf('.') + 1);
+		AnnotationMirror table = mirrorOf(type, Table.class);
+		StringBuilder src = new StringBuilder();
+		if(!pkg.isEmpty()) {
+			src.append("package ").append(pkg).append(";\n\n");
+		}
+		src.append("import com.kormapper.reflection.GeneratedMapper;\n\n");
+		src.append("@javax.annotation.processing.Generated(\"").append(KORProcessor.class.getName()).append("\")\n");
+		src.append("public final class ").append(simpleName).append(" implements GeneratedMapper<").append(entity).append("> {\n\n");
+		src.append("\tprivate static final Column[] COLUMNS = {").append(join(columns)).append("};\n");
+		src.append("\tprivate static final Relation[] RELATIONS = {").append(join(relations)).append("};\n\n");
+		src.append("\t@Override\n\tpublic Class<").append(entity).append("> type() {\n\t\treturn ").append(entity).append(".class;\n\t}\n\n");
+		src.append("\t@Override\n\tpublic String tableName() {\n\t\treturn ")
+			.append(table != null ? literal(value(table, "name")) : "null").append(";\n\t}\n\n");
+		src.append("\t@Override\n\tpublic Column[] columns() {\n\t\treturn COLUMNS.clone();\n\t}\n\n");
+		src.append("\t@Override\n\tpublic Relation[] relations() {\n\t\treturn RELATIONS.clone();\n\t}\n\n");
+		src.append("\t@Override\n\tpublic ").append(entity).append(" newInstance() {\n\t\treturn new ").append(entity).append("();\n\t}\n\n");
+		src.append("\t@Override\n\tpublic Object get(").append(entity).append(" entity, int property) {\n\t\tswitch(property) {\n");
+		for(int i = 0; i < properties.size(); i++) {
+			src.append("\t\t\tcase ").append(i).append(": return entity.").append(properties.get(i).getter).append(";\n");
+		}
+		src.append("\t\t\tdefault: throw new IndexOutOfBoundsException(\"No property \"+property);\n\t\t}\n\t}\n\n");
+		src.append("\t@Override\n\t@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n\tpublic void set(").append(entity)
+			.append(" entity, int property, Object value) {\n\t\tswitch(property) {\n");
+		for(int i = 0; i < properties.size(); i++) {
+			src.append("\t\t\tcase ").append(i).append(": entity.").append(properties.get(i).setter).append("; break;\n");
+		}
+		src.append("\t\t\tdefault: throw new IndexOutOfBoundsException(\"No property \"+property);\n\t\t}\n\t}\n");
+		for(TypeKind kind : TYPED) {
+			appendTyped(src, entity, kind, properties);
+		}
+		src.append("}\n");
+		
+		try(Writer writer = processingEnv.getFiler().createSourceFile(name, type).openWriter()) {
+			writer.write(src.toString());
+		} catch(IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write "+name+": "+e.getMessage(), type);
+		}
+	}
+	
+	/**
+	 * Appends the typed get- and set-method of the given primitive type, which only know the properties of that type
+	 */
+	private static void appendTyped(StringBuilder src, String entity, TypeKind kind, List<Property> properties) {
+		String primitive = kind.name().toLowerCase();
+		String suffix = Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+		StringBuilder get = new StringBuilder();
+		StringBuilder set = new StringBuilder();
+		for(int i = 0; i < properties.size(); i++) {
+			if(properties.get(i).kind == kind) {
+				get.append("\t\t\tcase ").append(i).append(": return (").append(primitive).append(")entity.").append(properties.get(i).getter).append(";\n");
+				set.append("\t\t\tcase ").append(i).append(": entity.").append(properties.get(i).typedSetter).append("; break;\n");
+			}
+		}
+		if(get.length() == 0) {
+			return;
+		}
+		String noProperty = "\t\t\tdefault: throw new IllegalArgumentException(\"No "+primitive+" property \"+property);\n\t\t}\n\t}\n\n";
+		src.append("\n\t@Override\n\tpublic ").append(primitive).append(" get").append(suffix).append('(').append(entity)
+			.append(" entity, int property) {\n\t\tswitch(property) {\n").append(get).append(noProperty);
+		src.append("\t@Override\n\tpublic void set").append(suffix).append('(').append(entity).append(" entity, int property, ")
+			.append(primitive).append(" value) {\n\t\tswitch(property) {\n").append(set)
+			.append(noProperty, 0, noProperty.length() - 1);
+	}
+	
+	/**
+	 * Returns the construction of the Column description of the given field
+	 */
+	private String column(VariableElement field, AnnotationMirror column) {
+		TypeMirror converter = (TypeMirror)value(column, "converter");
+		String instance = processingEnv.getTypeUtils().erasure(converter).toString().equals(TypeConverter.class.getName())
+				? "null" : "new "+erasure(converter)+"()";
+		return "new Column("+literal(value(column, "name"))+", "+literal(field.getSimpleName().toString())+", "
+				+erasure(field.asType())+".class, "+value(column, "isPrimaryKey")+", "+instance+")";
+	}
+	
+	/**
+	 * Returns the construction of the Relation description of the given field
+	 */
+	private String relation(VariableElement field, AnnotationMirror relation, boolean oneToMany) {
+		return "new Relation("+literal(field.getSimpleName().toString())+", "+erasure(field.asType())+".class, "+oneToMany+", "
+				+erasure((TypeMirror)value(relation, "sample"))+".class, "+literal(value(relation, "columnName"))+", "
+				+literal(value(relation, "referencedColumnName"))+", com.kormapper.annotation.FetchType."
+				+((VariableElement)value(relation, "fetch")).getSimpleName()+")";
+	}
+	
+	/**
+	 * Returns the expressions which read and write the given field like the PropertyAccessor does: with the
+	 * get- and set-method whose name equals the field name ignoring the case, otherwise with the field itself
+	 * @return the property or null when the field is not accessible from the package of the class
+	 */
+	private Property property(TypeElement type, VariableElement field) {
+		String fieldName = field.getSimpleName().toString();
+		ExecutableElement get = method(type, "get"+fieldName, 0);
+		ExecutableElement set = method(type, "set"+fieldName, 1);
+		boolean fieldAccessible = !field.getModifiers().contains(Modifier.PRIVATE);
+		if(get == null && !fieldAccessible || set == null && (!fieldAccessible || field.getModifiers().contains(Modifier.FINAL))) {
+			return null;
+		}
+		String getter = get != null ? get.getSimpleName()+"()" : fieldName;
+		TypeMirror target = set != null ? set.getParameters().get(0).asType() : field.asType();
+		String cast = "("+(target.getKind().isPrimitive()
+				? processingEnv.getTypeUtils().boxedClass((PrimitiveType)target).getQualifiedName()
+				: erasure(target))+")value";
+		String setter = set != null ? set.getSimpleName()+"("+cast+")" : fieldName+" = "+cast;
+		String typedSetter = set != null ? set.getSimpleName()+"(value)" : fieldName+" = value";
+		return new Property(field.asType().getKind(), getter, setter, typedSetter);
+	}
+	
+	/**
+	 * Returns the first non-private method with the given name ignoring the case and number of parameters
+	 */
+	private static ExecutableElement method(TypeElement type, String name, int parameters) {
+		for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if(method.getParameters().size() == parameters && method.getSimpleName().toString().equalsIgnoreCase(name)
+					&& !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)) {
+				return method;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns why the generated mapper could not access the given class or null when it can
+	 */
+	private static String inaccessible(TypeElement type) {
+		if(!type.getTypeParameters().isEmpty()) {
+			return "the class is generic";
+		}
+		if(type.getModifiers().contains(Modifier.ABSTRACT)) {
+			return "the class is abstract";
+		}
+		for(Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+			if(e.getModifiers().contains(Modifier.PRIVATE)) {
+				return "the class is private";
+			}
+			if(((TypeElement)e).getNestingKind() == NestingKind.MEMBER && !e.getModifiers().contains(Modifier.STATIC)) {
+				return "the class is an inner class";
+			}
+			if(((TypeElement)e).getNestingKind() == NestingKind.LOCAL || ((TypeElement)e).getNestingKind() == NestingKind.ANONYMOUS) {
+				return "the class is local";
+			}
+		}
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if(constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return null;
+			}
+		}
+		return "the class declares no accessible default constructor";
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the qualified name of the mapper, the simple names of nested classes are joined by an underscore
+	 * like MetadataRegistry expects it
+	 */
+	private String mapperName(TypeElement type) {
+		String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+		int dot = name.lastIndexOf('.');
+		return name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + GeneratedMapper.SUFFIX;
+	}
+	
+	private static AnnotationMirror mirrorOf(Element element, Class<?> annotation) {
+		for(AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if(((TypeElement)mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation.getName())) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the value of the given annotation member including its default, e.g. a TypeMirror for a class
+	 */
+	private Object value(AnnotationMirror mirror, String member) {
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+				processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+		for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+			if(entry.getKey().getSimpleName().contentEquals(member)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+	
+	private String erasure(TypeMirror type) {
+		TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+		return erased.getKind() == TypeKind.DECLARED
+				? ((TypeElement)processingEnv.getTypeUtils().asElement(erased)).getQualifiedName().toString() : erased.toString();
+	}
+	
+	private String literal(Object value) {
+		return processingEnv.getElementUtils().getConstantExpression(value);
+	}
+	
+	private static String join(List<String> items) {
+		if(items.isEmpty()) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder();
+		for(String item : items) {
+			sb.append("\n\t\t").append(item).append(',');
+		}
+		return sb.append("\n\t").toString();
+	}
+}
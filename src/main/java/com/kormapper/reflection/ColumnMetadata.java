@@ -0,0 +1,191 @@
+package com.kormapper.reflection;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+
+import com.kormapper.annotation.Column;
+import com.kormapper.converter.ConverterRegistry;
+import com.kormapper.converter.ObjectConverter;
+import com.kormapper.converter.TypeConverter;
+import com.kormapper.exception.KORException;
+
+/**
+ * Immutable description of a single Column annotated field of a KORBridge-Class.
+ * @author leonhardmuellauer
+ */
+public final class ColumnMetadata {
+	
+	private final PropertyAccessor accessor;
+	private final String name;
+	private final boolean primaryKey;
+	private final TypeConverter<Object> converter;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	ColumnMetadata(Field field, Column column) {
+		this.accessor = PropertyAccessor.of(field);
+		this.name = column.name();
+		this.primaryKey = column.isPrimaryKey();
+		this.converter = converterOf(field, column);
+	}
+	
+	@SuppressWarnings("unchecked")
+	ColumnMetadata(PropertyAccessor accessor, GeneratedMapper.Column column) {
+		this.accessor = accessor;
+		this.name = column.getName();
+		this.primaryKey = column.isPrimaryKey();
+		this.converter = (TypeConverter<Object>)(column.getConverter() != null ? column.getConverter()
+				: ConverterRegistry.of(column.getType()));
+	}
+	
+	/**
+	 * Returns the converter declared by the Column annotation or the converter of the field type in the ConverterRegistry
+	 * @throws IllegalStateException when the declared converter could not be instantiated
+	 */
+	@SuppressWarnings("unchecked")
+	private static TypeConverter<Object> converterOf(Field field, Column column) {
+		if(column.converter() == TypeConverter.class) {
+			return (TypeConverter<Object>)ConverterRegistry.of(field.getType());
+		}
+		try {
+			return column.converter().getDeclaredConstructor().newInstance();
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not instantiate the converter "+column.converter().getName()
+					+" of the field "+field.getName()+": "+e.getMessage(), e);
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the annotated field
+	 * @return the annotated field
+	 */
+	public Field getField() {
+		return accessor.getField();
+	}
+	
+	/**
+	 * Returns the compiled accessor of the annotated field
+	 * @return the accessor of the field
+	 */
+	public PropertyAccessor getAccessor() {
+		return accessor;
+	}
+	
+	/**
+	 * Returns the column name declared by the Column annotation
+	 * @return the column name
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Says whether the column is a primary key or not
+	 * @return if it is a primary key or not
+	 */
+	public boolean isPrimaryKey() {
+		return primaryKey;
+	}
+	
+	/**
+	 * Returns the converter of the column values
+	 * @return the converter of the column
+	 */
+	public TypeConverter<Object> getConverter() {
+		return converter;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Conversion														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Converts a value given by the caller, e.g. a primary key passed to KORMapper.find, to the type of the field,
+	 * so it can be handed to the converter of the column. Numbers are converted without loss to the numeric
+	 * field types, Strings are parsed into numbers and enum constants. Values of field types without a
+	 * registered converter are passed unchanged to the JDBC driver.
+	 * @param value the value, not null
+	 * @return the value as an instance of the field type
+	 * @throws KORException when the value does not fit the field type
+	 */
+	public Object convert(Object value) throws KORException {
+		Class<?> type = MethodType.methodType(accessor.getType()).wrap().returnType();
+		if(type.isInstance(value)) {
+			return value;
+		}
+		try {
+			if(value instanceof Number || value instanceof String) {
+				Object converted = convertNumber(type, value);
+				if(converted != null) {
+					return converted;
+				}
+			}
+			if(type.isEnum() && value instanceof String) {
+				return convertEnum(type, (String)value);
+			}
+		} catch(ArithmeticException | IllegalArgumentException e) {
+			throw new KORException("The value "+value+" does not fit the column "+name+" of type "+type.getName()+": "+e.getMessage());
+		}
+		if(converter instanceof ObjectConverter) {
+			return value;
+		}
+		throw new KORException("A value of type "+value.getClass().getName()+" does not fit the column "+name
+				+" of type "+type.getName());
+	}
+	
+	/**
+	 * Converts a Number or a String to the given numeric type
+	 * @return the converted value or null when the type is not numeric
+	 * @throws ArithmeticException when the value would lose information
+	 * @throws NumberFormatException when the String is no number
+	 */
+	private static Object convertNumber(Class<?> type, Object value) {
+		if(type == Double.class) {
+			return value instanceof Number ? ((Number)value).doubleValue() : Double.valueOf((String)value);
+		}
+		if(type == Float.class) {
+			return value instanceof Number ? ((Number)value).floatValue() : Float.valueOf((String)value);
+		}
+		if(type != BigDecimal.class && type != Long.class && type != Integer.class && type != Short.class && type != Byte.class) {
+			return null;
+		}
+		BigDecimal decimal = new BigDecimal(value.toString().trim());
+		if(type == BigDecimal.class) {
+			return decimal;
+		}
+		if(type == Long.class) {
+			return decimal.longValueExact();
+		}
+		if(type == Integer.class) {
+			return decimal.intValueExact();
+		}
+		if(type == Short.class) {
+			return decimal.shortValueExact();
+		}
+		return decimal.byteValueExact();
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object convertEnum(Class<?> type, String name) {
+		return Enum.valueOf((Class)type, name);
+	}
+}
@@ -0,0 +1,279 @@
+package com.kormapper.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kormapper.annotation.Column;
+import com.kormapper.annotation.OneToMany;
+import com.kormapper.annotation.OneToOne;
+import com.kormapper.annotation.Table;
+import com.kormapper.exception.KORException;
+import com.kormapper.exception.ParamException;
+
+/**
+ * Immutable model of everything the KORMapper needs to know about a KORBridge-Class. <br>
+ * The model is built once per class by the MetadataRegistry, thus the annotations are only reflected
+ * on the first use of a class. A class with a GeneratedMapper is not reflected at all.
+ * @author leonhardmuellauer
+ */
+public final class EntityMetadata {
+	
+	private final Class<?> type;
+	private final String tableName;
+	private final List<ColumnMetadata> columns;
+	private final List<ColumnMetadata> primaryKeys;
+	private final List<RelationMetadata> oneToOnes;
+	private final List<RelationMetadata> oneToManys;
+	private final List<RelationMetadata> relations;
+	private final List<RelationMetadata> eagerRelations;
+	private final List<RelationMetadata> lazyRelations;
+	private final Map<String, ColumnMetadata> columnIndex;
+	private final Map<String, PropertyAccessor> accessors;
+	private final MethodHandle constructor;
+	private final GeneratedMapper<?> generated;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private EntityMetadata(Class<?> type, String tableName, List<ColumnMetadata> columns, List<RelationMetadata> oneToOnes,
+			List<RelationMetadata> oneToManys, GeneratedMapper<?> generated) {
+		this.type = type;
+		this.tableName = tableName;
+		List<ColumnMetadata> primaryKeys = new ArrayList<>();
+		Map<String, ColumnMetadata> columnIndex = new HashMap<>();
+		Map<String, PropertyAccessor> accessors = new HashMap<>();
+		for(ColumnMetadata column : columns) {
+			columnIndex.put(column.getName(), column);
+			accessors.put(column.getAccessor().getName(), column.getAccessor());
+			if(column.isPrimaryKey()) {
+				primaryKeys.add(column);
+			}
+		}
+		this.columns = Collections.unmodifiableList(columns);
+		this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+		this.oneToOnes = Collections.unmodifiableList(oneToOnes);
+		this.oneToManys = Collections.unmodifiableList(oneToManys);
+		List<RelationMetadata> relations = new ArrayList<>(oneToOnes);
+		relations.addAll(oneToManys);
+		this.relations = Collections.unmodifiableList(relations);
+		List<RelationMetadata> eagerRelations = new ArrayList<>();
+		List<RelationMetadata> lazyRelations = new ArrayList<>();
+		for(RelationMetadata relation : relations) {
+			(relation.isLazy() ? lazyRelations : eagerRelations).add(relation);
+			accessors.put(relation.getAccessor().getName(), relation.getAccessor());
+		}
+		this.eagerRelations = Collections.unmodifiableList(eagerRelations);
+		this.lazyRelations = Collections.unmodifiableList(lazyRelations);
+		this.columnIndex = Collections.unmodifiableMap(columnIndex);
+		this.accessors = Collections.unmodifiableMap(accessors);
+		this.generated = generated;
+		this.constructor = generated == null ? defaultConstructor(type) : null;
+	}
+	
+	/**
+	 * Reflects the annotations of the given class. The order of the columns equals the declaration
+	 * order of the fields.
+	 * @param type the KORBridge-Class to be described
+	 * @return the metadata of the class
+	 */
+	static EntityMetadata reflect(Class<?> type) {
+		Table table = type.getAnnotation(Table.class);
+		List<ColumnMetadata> columns = new ArrayList<>();
+		List<RelationMetadata> oneToOnes = new ArrayList<>();
+		List<RelationMetadata> oneToManys = new ArrayList<>();
+		for(Field field : type.getDeclaredFields()) {
+			if(field.isAnnotationPresent(Column.class)) {
+				columns.add(new ColumnMetadata(field, field.getAnnotation(Column.class)));
+			}
+			if(field.isAnnotationPresent(OneToOne.class)) {
+				oneToOnes.add(new RelationMetadata(field, field.getAnnotation(OneToOne.class)));
+			}
+			if(field.isAnnotationPresent(OneToMany.class)) {
+				oneToManys.add(new RelationMetadata(field, field.getAnnotation(OneToMany.class)));
+			}
+		}
+		return new EntityMetadata(type, table != null ? table.name() : null, columns, oneToOnes, oneToManys, null);
+	}
+	
+	/**
+	 * Takes the description of a class from its generated mapper, neither the annotations nor the accessors
+	 * are reflected
+	 * @param generated the generated mapper of the class
+	 * @return the metadata of the class
+	 */
+	static EntityMetadata generate(GeneratedMapper<?> generated) {
+		List<ColumnMetadata> columns = new ArrayList<>();
+		List<RelationMetadata> oneToOnes = new ArrayList<>();
+		List<RelationMetadata> oneToManys = new ArrayList<>();
+		int property = 0;
+		for(GeneratedMapper.Column column : generated.columns()) {
+			PropertyAccessor accessor = PropertyAccessor.of(generated, property++, column.getField(), column.getType());
+			columns.add(new ColumnMetadata(accessor, column));
+		}
+		for(GeneratedMapper.Relation relation : generated.relations()) {
+			PropertyAccessor accessor = PropertyAccessor.of(generated, property++, relation.getField(), relation.getType());
+			(relation.isOneToMany() ? oneToManys : oneToOnes).add(new RelationMetadata(accessor, relation));
+		}
+		return new EntityMetadata(generated.type(), generated.tableName(), columns, oneToOnes, oneToManys, generated);
+	}
+	
+	/**
+	 * Returns the compiled default constructor of the given class or null when the class declares none
+	 */
+	private static MethodHandle defaultConstructor(Class<?> type) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+			return lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+		} catch(NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Says whether the class is described and accessed by a mapper generated by the KORProcessor
+	 * @return if the class has a generated mapper or not
+	 */
+	public boolean isGenerated() {
+		return generated != null;
+	}
+	
+	/**
+	 * Returns the described KORBridge-Class
+	 * @return the described class
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the name value of the Table annotation
+	 * @return the name of the relation
+	 * @throws ParamException when the class is not annotated with the Table annotation
+	 */
+	public String getTableName() {
+		if(tableName == null) {
+			throw new ParamException("Error: "+type.getName()+" is not annotated with Table");
+		}
+		return tableName;
+	}
+	
+	/**
+	 * Returns all Column annotated fields in declaration order
+	 * @return a filled or empty List
+	 */
+	public List<ColumnMetadata> getColumns() {
+		return columns;
+	}
+	
+	/**
+	 * Returns all Column annotated fields which are declared as primary key in declaration order
+	 * @return a filled or empty List
+	 */
+	public List<ColumnMetadata> getPrimaryKeys() {
+		return primaryKeys;
+	}
+	
+	/**
+	 * Returns all OneToOne annotated fields in declaration order
+	 * @return a filled or empty List
+	 */
+	public List<RelationMetadata> getOneToOnes() {
+		return oneToOnes;
+	}
+	
+	/**
+	 * Returns all OneToMany annotated fields in declaration order
+	 * @return a filled or empty List
+	 */
+	public List<RelationMetadata> getOneToManys() {
+		return oneToManys;
+	}
+	
+	/**
+	 * Returns all OneToOne annotated fields followed by all OneToMany annotated fields
+	 * @return a filled or empty List
+	 */
+	public List<RelationMetadata> getRelations() {
+		return relations;
+	}
+	
+	/**
+	 * Returns all relations which are loaded together with the described class in the order of getRelations
+	 * @return a filled or empty List
+	 */
+	public List<RelationMetadata> getEagerRelations() {
+		return eagerRelations;
+	}
+	
+	/**
+	 * Returns all relations which are loaded on the first access of their field in the order of getRelations
+	 * @return a filled or empty List
+	 */
+	public List<RelationMetadata> getLazyRelations() {
+		return lazyRelations;
+	}
+	
+	/**
+	 * Instantiates the described class with its default constructor. The MappingConstructor annotation
+	 * enforces the declaration of this constructor.
+	 * @return a new instance of the described class
+	 * @throws KORException when the class declares no default constructor or the constructor throws an exception
+	 */
+	public Object newInstance() throws KORException {
+		if(generated != null) {
+			try {
+				return generated.newInstance();
+			} catch(RuntimeException e) {
+				throw new KORException("Could not instantiate "+type.getName()+": "+e);
+			}
+		}
+		if(constructor == null) {
+			throw new KORException("A MappingConstructor is missing in "+type.getName());
+		}
+		try {
+			return (Object)constructor.invokeExact();
+		} catch(Throwable e) {
+			throw new KORException("Could not instantiate "+type.getName()+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the column which corresponds to the given column name
+	 * @param colName the name of the column
+	 * @return the column or null
+	 */
+	public ColumnMetadata columnOf(String colName) {
+		return columnIndex.get(colName);
+	}
+	
+	/**
+	 * Returns the compiled accessor of the given field. Accessors of fields which are neither annotated
+	 * by Column, OneToOne nor OneToMany are resolved on every call.
+	 * @param field a field of the described class
+	 * @return the accessor of the field
+	 */
+	public PropertyAccessor accessorOf(Field field) {
+		PropertyAccessor accessor = field.getDeclaringClass() == type ? accessors.get(field.getName()) : null;
+		return accessor != null ? accessor : PropertyAccessor.of(field);
+	}
+}
@@ -0,0 +1,276 @@
+package com.kormapper.reflection;
+
+import com.kormapper.annotation.FetchType;
+import com.kormapper.converter.TypeConverter;
+
+/**
+ * A mapper of a KORBridge-Class which has been generated at compile time by the KORProcessor. <br>
+ * The mapper describes the annotations of the class and accesses its properties with plain method calls,
+ * thus the MetadataRegistry neither reflects the annotations nor compiles MethodHandles for a class with
+ * a generated mapper. A property is addressed by its index: the Column annotated fields in declaration order
+ * followed by the relations in the order of relations(). The int, long, double and boolean properties are
+ * additionally read and written by typed methods, which the converters of these types use to avoid boxing. <br>
+ * The MetadataRegistry finds the generated mapper XxxKorMapper of the class Xxx in the same package, the
+ * mapper of a nested class Outer.Inner is named Outer_InnerKorMapper. Mappers can also be registered
+ * explicitly with MetadataRegistry.register, which avoids the lookup by name, e.g. for native images.
+ * @author leonhardmuellauer
+ * @param <T> the described KORBridge-Class
+ */
+public interface GeneratedMapper<T> {
+	
+	/** The suffix of the name of a generated mapper */
+	String SUFFIX = "KorMapper";
+	
+	/**
+	 * Returns the described class
+	 * @return the described class
+	 */
+	Class<T> type();
+	
+	/**
+	 * Returns the name value of the Table annotation
+	 * @return the name of the relation or null when the class is not annotated with Table
+	 */
+	String tableName();
+	
+	/**
+	 * Returns the Column annotated fields in declaration order
+	 * @return the columns
+	 */
+	Column[] columns();
+	
+	/**
+	 * Returns the OneToOne annotated fields followed by the OneToMany annotated fields, both in declaration order
+	 * @return the relations
+	 */
+	Relation[] relations();
+	
+	/**
+	 * Instantiates the described class with its default constructor
+	 * @return the new instance
+	 */
+	T newInstance();
+	
+	/**
+	 * Returns the value of the given property
+	 * @param entity the object in which the value is read
+	 * @param property the index of the property
+	 * @return the value of the property
+	 */
+	Object get(T entity, int property);
+	
+	/**
+	 * Sets the value of the given property
+	 * @param entity the object in which the value is written
+	 * @param property the index of the property
+	 * @param value the value to be set, which is not null for primitive properties
+	 */
+	void set(T entity, int property, Object value);
+	
+	/**
+	 * Returns the value of the given int property without boxing it. Generated mappers override this method,
+	 * the default unboxes the value of get.
+	 * @param entity the object in which the value is read
+	 * @param property the index of a int property
+	 * @return the value of the property
+	 */
+	default int getInt(T entity, int property) {
+		return (Integer)get(entity, property);
+	}
+	
+	/**
+	 * Sets the value of the given int property without boxing it. Generated mappers override this method,
+	 * the default boxes the value for set.
+	 * @param entity the object in which the value is written
+	 * @param property the index of a int property
+	 * @param value the value to be set
+	 */
+	default void setInt(T entity, int property, int value) {
+		set(entity, property, value);
+	}
+	
+	/**
+	 * Returns the value of the given long property without boxing it. Generated mappers override this method,
+	 * the default unboxes the value of get.
+	 * @param entity the object in which the value is read
+	 * @param property the index of a long property
+	 * @return the value of the property
+	 */
+	default long getLong(T entity, int property) {
+		return (Long)get(entity, property);
+	}
+	
+	/**
+	 * Sets the value of the given long property without boxing it. Generated mappers override this method,
+	 * the default boxes the value for set.
+	 * @param entity the object in which the value is written
+	 * @param property the index of a long property
+	 * @param value the value to be set
+	 */
+	default void setLong(T entity, int property, long value) {
+		set(entity, property, value);
+	}
+	
+	/**
+	 * Returns the value of the given double property without boxing it. Generated mappers override this method,
+	 * the default unboxes the value of get.
+	 * @param entity the object in which the value is read
+	 * @param property the index of a double property
+	 * @return the value of the property
+	 */
+	default double getDouble(T entity, int property) {
+		return (Double)get(entity, property);
+	}
+	
+	/**
+	 * Sets the value of the given double property without boxing it. Generated mappers override this method,
+	 * the default boxes the value for set.
+	 * @param entity the object in which the value is written
+	 * @param property the index of a double property
+	 * @param value the value to be set
+	 */
+	default void setDouble(T entity, int property, double value) {
+		set(entity, property, value);
+	}
+	
+	/**
+	 * Returns the value of the given boolean property without boxing it. Generated mappers override this method,
+	 * the default unboxes the value of get.
+	 * @param entity the object in which the value is read
+	 * @param property the index of a boolean property
+	 * @return the value of the property
+	 */
+	default boolean getBoolean(T entity, int property) {
+		return (Boolean)get(entity, property);
+	}
+	
+	/**
+	 * Sets the value of the given boolean property without boxing it. Generated mappers override this method,
+	 * the default boxes the value for set.
+	 * @param entity the object in which the value is written
+	 * @param property the index of a boolean property
+	 * @param value the value to be set
+	 */
+	default void setBoolean(T entity, int property, boolean value) {
+		set(entity, property, value);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Descriptions														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * The description of a Column annotated field
+	 */
+	final class Column {
+		
+		private final String name;
+		private final String field;
+		private final Class<?> type;
+		private final boolean primaryKey;
+		private final TypeConverter<?> converter;
+		
+		/**
+		 * Instantiates the description of a Column annotated field
+		 * @param name the column name
+		 * @param field the name of the field
+		 * @param type the type of the field
+		 * @param primaryKey if the column is a primary key or not
+		 * @param converter the declared converter or null for the converter of the ConverterRegistry
+		 */
+		public Column(String name, String field, Class<?> type, boolean primaryKey, TypeConverter<?> converter) {
+			this.name = name;
+			this.field = field;
+			this.type = type;
+			this.primaryKey = primaryKey;
+			this.converter = converter;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public String getField() {
+			return field;
+		}
+		
+		public Class<?> getType() {
+			return type;
+		}
+		
+		public boolean isPrimaryKey() {
+			return primaryKey;
+		}
+		
+		public TypeConverter<?> getConverter() {
+			return converter;
+		}
+	}
+	
+	/**
+	 * The description of a OneToOne or OneToMany annotated field
+	 */
+	final class Relation {
+		
+		private final String field;
+		private final Class<?> type;
+		private final boolean oneToMany;
+		private final Class<?> sample;
+		private final String columnName;
+		private final String referencedColumnName;
+		private final FetchType fetchType;
+		
+		/**
+		 * Instantiates the description of a relation
+		 * @param field the name of the field
+		 * @param type the type of the field
+		 * @param oneToMany if the field is annotated with OneToMany or OneToOne
+		 * @param sample the sample class of the annotation
+		 * @param columnName the foreign key of the annotation
+		 * @param referencedColumnName the referenced key of the annotation
+		 * @param fetchType the fetch type of the annotation
+		 */
+		public Relation(String field, Class<?> type, boolean oneToMany, Class<?> sample, String columnName,
+				String referencedColumnName, FetchType fetchType) {
+			this.field = field;
+			this.type = type;
+			this.oneToMany = oneToMany;
+			this.sample = sample;
+			this.columnName = columnName;
+			this.referencedColumnName = referencedColumnName;
+			this.fetchType = fetchType;
+		}
+		
+		public String getField() {
+			return field;
+		}
+		
+		public Class<?> getType() {
+			return type;
+		}
+		
+		public boolean isOneToMany() {
+			return oneToMany;
+		}
+		
+		public Class<?> getSample() {
+			return sample;
+		}
+		
+		public String getColumnName() {
+			return columnName;
+		}
+		
+		public String getReferencedColumnName() {
+			return referencedColumnName;
+		}
+		
+		public FetchType getFetchType() {
+			return fetchType;
+		}
+	}
+}
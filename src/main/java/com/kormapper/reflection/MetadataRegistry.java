@@ -0,0 +1,80 @@
+package com.kormapper.reflection;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.kormapper.exception.ParamException;
+
+/**
+ * Holds the EntityMetadata of every KORBridge-Class that has been used so far. <br>
+ * The metadata of a class is built on its first use and shared by all threads afterwards. A class for which
+ * the KORProcessor has generated a mapper is described by the generated mapper, every other class is
+ * reflected.
+ * @author leonhardmuellauer
+ */
+public final class MetadataRegistry {
+	
+	private static final ConcurrentMap<Class<?>, EntityMetadata> METADATA = new ConcurrentHashMap<>();
+	
+	private MetadataRegistry() { }
+	
+	/**
+	 * Returns the metadata of the given class and builds it when the class is used for the first time
+	 * @param type the KORBridge-Class
+	 * @return the metadata of the class
+	 */
+	public static EntityMetadata of(Class<?> type) {
+		EntityMetadata metadata = METADATA.get(type);
+		if(metadata == null) {
+			metadata = METADATA.computeIfAbsent(type, MetadataRegistry::build);
+		}
+		return metadata;
+	}
+	
+	/**
+	 * Returns the metadata of the class of the given object
+	 * @param object an instance of a KORBridge-Class
+	 * @return the metadata of the class
+	 */
+	public static EntityMetadata of(Object object) {
+		return of(object.getClass());
+	}
+	
+	/**
+	 * Registers the given generated mapper, thus its class is not looked up by name. A mapper should be
+	 * registered before its class is used for the first time.
+	 * @param generated the generated mapper
+	 */
+	public static void register(GeneratedMapper<?> generated) {
+		if(generated == null) {
+			throw new ParamException("Error: The GeneratedMapper may not be null");
+		}
+		METADATA.put(generated.type(), EntityMetadata.generate(generated));
+	}
+	
+	private static EntityMetadata build(Class<?> type) {
+		GeneratedMapper<?> generated = generatedMapperOf(type);
+		return generated != null ? EntityMetadata.generate(generated) : EntityMetadata.reflect(type);
+	}
+	
+	/**
+	 * Returns the generated mapper of the given class or null when the KORProcessor has not generated one
+	 */
+	private static GeneratedMapper<?> generatedMapperOf(Class<?> type) {
+		String name = type.getName();
+		int dot = name.lastIndexOf('.');
+		name = name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + GeneratedMapper.SUFFIX;
+		try {
+			Class<?> mapper = Class.forName(name, true, type.getClassLoader());
+			if(!GeneratedMapper.class.isAssignableFrom(mapper)) {
+				return null;
+			}
+			GeneratedMapper<?> generated = (GeneratedMapper<?>)mapper.getDeclaredConstructor().newInstance();
+			return generated.type() == type ? generated : null;
+		} catch(ClassNotFoundException | LinkageError e) {
+			return null;
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not instantiate the generated mapper "+name+": "+e.getMessage(), e);
+		}
+	}
+}
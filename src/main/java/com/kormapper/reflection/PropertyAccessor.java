@@ -0,0 +1,342 @@
+package com.kormapper.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import com.kormapper.exception.KORException;
+
+/**
+ * Reads and writes the value of a single field of a KORBridge-Class. <br>
+ * The get- and set-method of the field are resolved once and compiled into MethodHandles. When a class
+ * does not declare such a method the field itself is accessed instead. The accessor of a class with a
+ * GeneratedMapper delegates to the mapper and only reflects the field when getField is called.
+ * @author leonhardmuellauer
+ */
+public final class PropertyAccessor {
+	
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	private final Class<?> declaringClass;
+	private final String name;
+	private final Class<?> type;
+	private volatile Field field;
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+	private final MethodHandle primitiveSetter;
+	private final MethodHandle primitiveGetter;
+	private final GeneratedMapper<Object> generated;
+	private final int property;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructor					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private PropertyAccessor(Field field, MethodHandle getter, MethodHandle setter, MethodHandle primitiveGetter, MethodHandle primitiveSetter) {
+		this.declaringClass = field.getDeclaringClass();
+		this.name = field.getName();
+		this.type = field.getType();
+		this.field = field;
+		this.getter = getter;
+		this.setter = setter;
+		this.primitiveGetter = primitiveGetter;
+		this.primitiveSetter = primitiveSetter;
+		this.generated = null;
+		this.property = -1;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private PropertyAccessor(GeneratedMapper<?> generated, int property, String name, Class<?> type) {
+		this.declaringClass = generated.type();
+		this.name = name;
+		this.type = type;
+		this.getter = null;
+		this.setter = null;
+		this.primitiveGetter = null;
+		this.primitiveSetter = null;
+		this.generated = (GeneratedMapper<Object>)generated;
+		this.property = property;
+	}
+	
+	/**
+	 * Resolves the get- and set-method of the given field. A method corresponds to the field when its name
+	 * is "get" or "set" followed by the field name, ignoring the case. Primitive fields additionally
+	 * get a getter which returns and a setter which takes the unboxed value.
+	 * @param field the field to be accessed
+	 * @return the accessor of the field
+	 * @throws IllegalStateException when neither the methods nor the field itself are accessible
+	 */
+	public static PropertyAccessor of(Field field) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+			Method get = findMethod(field, "get", 0);
+			Method set = findMethod(field, "set", 1);
+			MethodHandle getter = get != null ? lookup.unreflect(get) : lookup.unreflectGetter(field);
+			MethodHandle setter = set != null ? lookup.unreflect(set) : lookup.unreflectSetter(field);
+			MethodHandle primitiveGetter = field.getType().isPrimitive()
+					? getter.asType(MethodType.methodType(field.getType(), Object.class)) : null;
+			MethodHandle primitiveSetter = field.getType().isPrimitive()
+					? setter.asType(MethodType.methodType(void.class, Object.class, field.getType())) : null;
+			return new PropertyAccessor(field, getter.asType(GETTER_TYPE), setter.asType(SETTER_TYPE), primitiveGetter, primitiveSetter);
+		} catch(IllegalAccessException e) {
+			throw new IllegalStateException("Could not access the field "+field.getName()+": "+e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Returns an accessor which reads and writes the given property with the given generated mapper
+	 * @param generated the generated mapper of the declaring class
+	 * @param property the index of the property in the generated mapper
+	 * @param name the name of the field
+	 * @param type the type of the field
+	 * @return the accessor of the property
+	 */
+	static PropertyAccessor of(GeneratedMapper<?> generated, int property, String name, Class<?> type) {
+		return new PropertyAccessor(generated, property, name, type);
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Access methods													     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the value of the field in the given object
+	 * @param reference the object in which the value is read
+	 * @return the value of the field wrapped in a object
+	 * @throws KORException when the get-method throws an exception
+	 */
+	public Object get(Object reference) throws KORException {
+		try {
+			if(generated != null) {
+				return generated.get(reference, property);
+			}
+			return (Object)getter.invokeExact(reference);
+		} catch(Throwable e) {
+			throw new KORException("Could not get the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Sets the value of the field in the given object. A null value is ignored for primitive fields.
+	 * @param reference the object in which the value is written
+	 * @param value the value to be set
+	 * @throws KORException when the value does not match the type of the field or the set-method throws an exception
+	 */
+	public void set(Object reference, Object value) throws KORException {
+		if(value == null && type.isPrimitive()) {
+			return;
+		}
+		try {
+			if(generated != null) {
+				generated.set(reference, property, value);
+				return;
+			}
+			setter.invokeExact(reference, value);
+		} catch(Throwable e) {
+			throw new KORException("Could not set the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the value of an int field without boxing it
+	 * @param reference the object in which the value is read
+	 * @return the value of the field
+	 * @throws KORException when the field is no int field or the get-method throws an exception
+	 */
+	public int getInt(Object reference) throws KORException {
+		try {
+			if(generated != null) {
+				return generated.getInt(reference, property);
+			}
+			return (int)primitiveGetter.invokeExact(reference);
+		} catch(Throwable e) {
+			throw new KORException("Could not get the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the value of a long field without boxing it
+	 * @param reference the object in which the value is read
+	 * @return the value of the field
+	 * @throws KORException when the field is no long field or the get-method throws an exception
+	 */
+	public long getLong(Object reference) throws KORException {
+		try {
+			if(generated != null) {
+				return generated.getLong(reference, property);
+			}
+			return (long)primitiveGetter.invokeExact(reference);
+		} catch(Throwable e) {
+			throw new KORException("Could not get the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the value of a double field without boxing it
+	 * @param reference the object in which the value is read
+	 * @return the value of the field
+	 * @throws KORException when the field is no double field or the get-method throws an exception
+	 */
+	public double getDouble(Object reference) throws KORException {
+		try {
+			if(generated != null) {
+				return generated.getDouble(reference, property);
+			}
+			return (double)primitiveGetter.invokeExact(reference);
+		} catch(Throwable e) {
+			throw new KORException("Could not get the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the value of a boolean field without boxing it
+	 * @param reference the object in which the value is read
+	 * @return the value of the field
+	 * @throws KORException when the field is no boolean field or the get-method throws an exception
+	 */
+	public boolean getBoolean(Object reference) throws KORException {
+		try {
+			if(generated != null) {
+				return generated.getBoolean(reference, property);
+			}
+			return (boolean)primitiveGetter.invokeExact(reference);
+		} catch(Throwable e) {
+			throw new KORException("Could not get the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Sets the value of an int field without boxing it
+	 * @param reference the object in which the value is written
+	 * @param value the value to be set
+	 * @throws KORException when the field is no int field or the set-method throws an exception
+	 */
+	public void setInt(Object reference, int value) throws KORException {
+		try {
+			if(generated != null) {
+				generated.setInt(reference, property, value);
+				return;
+			}
+			primitiveSetter.invokeExact(reference, value);
+		} catch(Throwable e) {
+			throw new KORException("Could not set the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Sets the value of a long field without boxing it
+	 * @param reference the object in which the value is written
+	 * @param value the value to be set
+	 * @throws KORException when the field is no long field or the set-method throws an exception
+	 */
+	public void setLong(Object reference, long value) throws KORException {
+		try {
+			if(generated != null) {
+				generated.setLong(reference, property, value);
+				return;
+			}
+			primitiveSetter.invokeExact(reference, value);
+		} catch(Throwable e) {
+			throw new KORException("Could not set the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Sets the value of a double field without boxing it
+	 * @param reference the object in which the value is written
+	 * @param value the value to be set
+	 * @throws KORException when the field is no double field or the set-method throws an exception
+	 */
+	public void setDouble(Object reference, double value) throws KORException {
+		try {
+			if(generated != null) {
+				generated.setDouble(reference, property, value);
+				return;
+			}
+			primitiveSetter.invokeExact(reference, value);
+		} catch(Throwable e) {
+			throw new KORException("Could not set the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Sets the value of a boolean field without boxing it
+	 * @param reference the object in which the value is written
+	 * @param value the value to be set
+	 * @throws KORException when the field is no boolean field or the set-method throws an exception
+	 */
+	public void setBoolean(Object reference, boolean value) throws KORException {
+		try {
+			if(generated != null) {
+				generated.setBoolean(reference, property, value);
+				return;
+			}
+			primitiveSetter.invokeExact(reference, value);
+		} catch(Throwable e) {
+			throw new KORException("Could not set the value of the field "+name+": "+e);
+		}
+	}
+	
+	/**
+	 * Returns the accessed field, which is reflected on the first call when the accessor uses a generated mapper
+	 * @return the accessed field
+	 * @throws IllegalStateException when the field could not be reflected
+	 */
+	public Field getField() {
+		Field erg = field;
+		if(erg == null) {
+			try {
+				erg = declaringClass.getDeclaredField(name);
+			} catch(NoSuchFieldException e) {
+				throw new IllegalStateException("Could not reflect the field "+name+" of "+declaringClass.getName(), e);
+			}
+			field = erg;
+		}
+		return erg;
+	}
+	
+	/**
+	 * Returns the name of the accessed field
+	 * @return the field name
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the type of the accessed field
+	 * @return the field type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	private static Method findMethod(Field field, String prefix, int parameterCount) {
+		String name = prefix + field.getName();
+		for(Method method : field.getDeclaringClass().getDeclaredMethods()) {
+			if(method.getParameterCount() == parameterCount && method.getName().equalsIgnoreCase(name)) {
+				return method;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,147 @@
+package com.kormapper.reflection;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+
+import com.kormapper.annotation.FetchType;
+import com.kormapper.annotation.OneToMany;
+import com.kormapper.annotation.OneToOne;
+
+/**
+ * Immutable description of a OneToOne or OneToMany annotated field of a KORBridge-Class.
+ * @author leonhardmuellauer
+ */
+public final class RelationMetadata {
+	
+	private final PropertyAccessor accessor;
+	private final boolean oneToMany;
+	private volatile Annotation annotation;
+	private final Class<?> sample;
+	private final String columnName;
+	private final String referencedColumnName;
+	private final FetchType fetchType;
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Constructors					 									     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	RelationMetadata(Field field, OneToOne oneToOne) {
+		this.accessor = PropertyAccessor.of(field);
+		this.oneToMany = false;
+		this.annotation = oneToOne;
+		this.sample = oneToOne.sample();
+		this.columnName = oneToOne.columnName();
+		this.referencedColumnName = oneToOne.referencedColumnName();
+		this.fetchType = oneToOne.fetch();
+	}
+	
+	RelationMetadata(Field field, OneToMany oneToMany) {
+		this.accessor = PropertyAccessor.of(field);
+		this.oneToMany = true;
+		this.annotation = oneToMany;
+		this.sample = oneToMany.sample();
+		this.columnName = oneToMany.columnName();
+		this.referencedColumnName = oneToMany.referencedColumnName();
+		this.fetchType = oneToMany.fetch();
+	}
+	
+	RelationMetadata(PropertyAccessor accessor, GeneratedMapper.Relation relation) {
+		this.accessor = accessor;
+		this.oneToMany = relation.isOneToMany();
+		this.sample = relation.getSample();
+		this.columnName = relation.getColumnName();
+		this.referencedColumnName = relation.getReferencedColumnName();
+		this.fetchType = relation.getFetchType();
+	}
+	
+	
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * GET methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+	
+	
+	/**
+	 * Returns the annotated field
+	 * @return the annotated field
+	 */
+	public Field getField() {
+		return accessor.getField();
+	}
+	
+	/**
+	 * Returns the compiled accessor of the annotated field
+	 * @return the accessor of the field
+	 */
+	public PropertyAccessor getAccessor() {
+		return accessor;
+	}
+	
+	/**
+	 * Returns the OneToOne or OneToMany annotation of the field, which is reflected on the first call when
+	 * the class has a generated mapper
+	 * @return the relation annotation
+	 */
+	public Annotation getAnnotation() {
+		Annotation erg = annotation;
+		if(erg == null) {
+			Field field = getField();
+			erg = oneToMany ? field.getAnnotation(OneToMany.class) : field.getAnnotation(OneToOne.class);
+			annotation = erg;
+		}
+		return erg;
+	}
+	
+	/**
+	 * Says whether the relation is a OneToMany relation and the field therefore holds a List
+	 * @return if the relation is a OneToMany relation or not
+	 */
+	public boolean isOneToMany() {
+		return oneToMany;
+	}
+	
+	/**
+	 * Returns the sample class of the objects on the other side of the relation
+	 * @return the sample class
+	 */
+	public Class<?> getSample() {
+		return sample;
+	}
+	
+	/**
+	 * Returns the foreign key of the relation
+	 * @return the foreign key name
+	 */
+	public String getColumnName() {
+		return columnName;
+	}
+	
+	/**
+	 * Returns the referenced key of the relation
+	 * @return the referenced key name
+	 */
+	public String getReferencedColumnName() {
+		return referencedColumnName;
+	}
+	
+	/**
+	 * Returns the fetch type of the relation
+	 * @return the fetch type
+	 */
+	public FetchType getFetchType() {
+		return fetchType;
+	}
+	
+	/**
+	 * Says whether the relation is loaded on the first access of the field
+	 * @return if the relation is lazy or not
+	 */
+	public boolean isLazy() {
+		return fetchType == FetchType.LAZY;
+	}
+}
@@ -0,0 +1,106 @@
+package com.kormapper.ormapper;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import com.kormapper.model.KORMapper;
+
+import junit.framework.TestCase;
+
+public class BatchExecutorTest extends TestCase {
+
+	private File database;
+	private KORMapper mapper;
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Setup																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	@Override
+	protected void setUp() throws Exception {
+		database = File.createTempFile("kor-batch", ".db");
+		mapper = new KORMapper("jdbc:sqlite:"+database.getAbsolutePath());
+		mapper.executeUpdate("CREATE TABLE p_persons(p_name TEXT PRIMARY KEY, p_alter INTEGER)");
+		mapper.executeUpdate("CREATE TABLE l_letters(l_lettername TEXT PRIMARY KEY, l_p_personname TEXT, l_text TEXT, l_price INTEGER)");
+		//the triggers fail every statement which is executed before the one of its parent or after the ones of its children
+		mapper.executeUpdate("CREATE TRIGGER parent_first BEFORE INSERT ON l_letters"
+				+ " WHEN NOT EXISTS (SELECT 1 FROM p_persons WHERE p_name = NEW.l_p_personname)"
+				+ " BEGIN SELECT RAISE(ABORT, 'letter inserted before its person'); END");
+		mapper.executeUpdate("CREATE TRIGGER children_first BEFORE DELETE ON p_persons"
+				+ " WHEN EXISTS (SELECT 1 FROM l_letters WHERE l_p_personname = OLD.p_name)"
+				+ " BEGIN SELECT RAISE(ABORT, 'person deleted before its letters'); END");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		mapper.close();
+		database.delete();
+	}
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Tests																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	public void testInsertOfObjectGraphsWritesParentsFirst() throws Exception {
+		int[] counts = mapper.insertAsTransaction(
+				new Person("anna", 30, new Letter("a1", "anna", "hello", 1), new Letter("a2", "anna", "world", 2)),
+				new Person("ben", 40, new Letter("b1", "ben", "hi", 3)));
+		assertEquals("[1, 1, 1, 1, 1]", Arrays.toString(counts));
+		assertEquals(2, mapper.query("SELECT * FROM p_persons", Person.class).size());
+		assertEquals(3, mapper.query("SELECT * FROM l_letters", Letter.class).size());
+	}
+
+	public void testDeleteOfObjectGraphsWritesChildrenFirst() throws Exception {
+		mapper.insertAsTransaction(
+				new Person("anna", 30, new Letter("a1", "anna", "hello", 1), new Letter("a2", "anna", "world", 2)),
+				new Person("ben", 40, new Letter("b1", "ben", "hi", 3)));
+		List<Person> persons = mapper.query("SELECT * FROM p_persons ORDER BY p_name", Person.class);
+		int[] counts = mapper.deleteAsTransaction(persons.toArray());
+		assertEquals("[1, 1, 1, 1, 1]", Arrays.toString(counts));
+		assertTrue(mapper.query("SELECT * FROM p_persons", Person.class).isEmpty());
+		assertTrue(mapper.query("SELECT * FROM l_letters", Letter.class).isEmpty());
+	}
+
+	public void testPartialUpdatesOfTheSameRowKeepTheirOrder() throws Exception {
+		mapper.executeUpdate("INSERT INTO p_persons VALUES('anna', 30)");
+		mapper.executeUpdate("INSERT INTO l_letters VALUES('a1', 'anna', 'hello', 1)");
+		mapper.setDirtyTracking(true);
+		Letter first = mapper.find(Letter.class, "a1");
+		Letter second = mapper.find(Letter.class, "a1");
+		assertNotSame(first, second);
+
+		mapper.startTransaction();
+		first.setText("first");
+		mapper.update(first);
+		second.setText("second");
+		second.setPreis(5);
+		mapper.update(second);
+		first.setText("third");
+		mapper.update(first);
+		assertEquals("[1, 1, 1]", Arrays.toString(mapper.saveChanges()));
+
+		Letter letter = mapper.query("SELECT * FROM l_letters", Letter.class).get(0);
+		assertEquals("third", letter.getText());
+		assertEquals(5, letter.getPreis());
+	}
+
+	public void testUpdateCountsAreReturnedInCallerOrder() throws Exception {
+		mapper.executeUpdate("INSERT INTO p_persons VALUES('anna', 30)");
+		mapper.executeUpdate("INSERT INTO l_letters VALUES('a1', 'anna', 'hello', 1)");
+		Letter letter = mapper.find(Letter.class, "a1");
+		letter.setText("changed");
+		//the second person is executed together with the first one, ahead of the letter
+		int[] counts = mapper.updateAsTransaction(new Person("ghost", 1), letter, new Person("phantom", 2));
+		assertEquals("[0, 1, 0]", Arrays.toString(counts));
+		assertEquals("changed", mapper.find(Letter.class, "a1").getText());
+	}
+}
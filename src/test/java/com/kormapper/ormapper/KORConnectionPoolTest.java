@@ -0,0 +1,124 @@
+package com.kormapper.ormapper;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.kormapper.connection.KORConnectionPool;
+import com.kormapper.connection.PoolConfig;
+import com.kormapper.exception.CommunicationException;
+
+import junit.framework.TestCase;
+
+public class KORConnectionPoolTest extends TestCase {
+
+	private File database;
+	private PoolConfig config;
+	private KORConnectionPool pool;
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Setup																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	@Override
+	protected void setUp() throws Exception {
+		database = File.createTempFile("kor-pool", ".db");
+		config = new PoolConfig("jdbc:sqlite:"+database.getAbsolutePath());
+		config.setMinSize(0);
+		config.setMaxSize(1);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if(pool != null) {
+			pool.close();
+		}
+		database.delete();
+	}
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Tests																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	public void testAcquisitionTimesOutWhenExhausted() throws Exception {
+		config.setAcquisitionTimeout(200);
+		pool = new KORConnectionPool(config);
+		try(Connection conn = pool.getConnection()) {
+			long started = System.currentTimeMillis();
+			try {
+				pool.getConnection();
+				fail("A connection of an exhausted pool has been handed out");
+			} catch(CommunicationException e) {
+				assertTrue(System.currentTimeMillis() - started >= 150);
+			}
+		}
+		pool.getConnection().close();
+	}
+
+	public void testReturnRollsBackAndResetsAutoCommit() throws Exception {
+		pool = new KORConnectionPool(config);
+		try(Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("CREATE TABLE t(a INTEGER)");
+			conn.setAutoCommit(false);
+			stmt.executeUpdate("INSERT INTO t VALUES(1)");
+		}
+		try(Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+			ResultSet rs = stmt.executeQuery("SELECT count(*) FROM t"))
+		{
+			assertTrue(conn.getAutoCommit());
+			assertTrue(rs.next());
+			assertEquals(0, rs.getInt(1));
+		}
+	}
+
+	public void testIdleConnectionsAreEvicted() throws Exception {
+		config.setIdleTimeout(100);
+		pool = new KORConnectionPool(config);
+		pool.getConnection().close();
+		assertEquals(1, pool.getTotalConnections());
+		assertEquals(1, pool.getIdleConnections());
+		long deadline = System.currentTimeMillis() + 5000;
+		while(pool.getTotalConnections() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, pool.getTotalConnections());
+		assertEquals(0, pool.getIdleConnections());
+	}
+
+	public void testCloseFailsPendingBorrowers() throws Exception {
+		config.setAcquisitionTimeout(30000);
+		pool = new KORConnectionPool(config);
+		Connection conn = pool.getConnection();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Connection> pending = executor.submit(() -> pool.getConnection());
+			Thread.sleep(200);
+			assertFalse(pending.isDone());
+			pool.close();
+			try {
+				pending.get(5, TimeUnit.SECONDS);
+				fail("A connection of a closed pool has been handed out");
+			} catch(ExecutionException e) {
+				assertTrue(e.getCause() instanceof CommunicationException);
+			}
+		} finally {
+			executor.shutdownNow();
+			conn.close();
+		}
+		assertEquals(0, pool.getTotalConnections());
+	}
+}
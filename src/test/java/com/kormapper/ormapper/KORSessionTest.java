@@ -0,0 +1,97 @@
+package com.kormapper.ormapper;
+
+import java.io.File;
+import java.util.List;
+
+import com.kormapper.model.FetchStrategy;
+import com.kormapper.model.KORMapper;
+import com.kormapper.model.KORSession;
+
+import junit.framework.TestCase;
+
+public class KORSessionTest extends TestCase {
+
+	private File database;
+	private KORMapper mapper;
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Setup																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	@Override
+	protected void setUp() throws Exception {
+		database = File.createTempFile("kor-session", ".db");
+		mapper = new KORMapper("jdbc:sqlite:"+database.getAbsolutePath());
+		mapper.executeUpdate("CREATE TABLE p_persons(p_name TEXT PRIMARY KEY, p_alter INTEGER)");
+		mapper.executeUpdate("CREATE TABLE l_letters(l_lettername TEXT PRIMARY KEY, l_p_personname TEXT, l_text TEXT, l_price INTEGER)");
+		mapper.executeUpdate("INSERT INTO p_persons VALUES('anna', 30)");
+		mapper.executeUpdate("INSERT INTO l_letters VALUES('first', 'anna', 'hello', 1)");
+		mapper.executeUpdate("INSERT INTO l_letters VALUES('second', 'anna', 'world', 2)");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		mapper.close();
+		database.delete();
+	}
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Tests																 *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	public void testSelectKeepsRelationsOfKnownObjects() throws Exception {
+		assertRelationsKept(FetchStrategy.SELECT);
+	}
+
+	public void testBatchKeepsRelationsOfKnownObjects() throws Exception {
+		assertRelationsKept(FetchStrategy.BATCH);
+	}
+
+	public void testJoinKeepsRelationsOfKnownObjects() throws Exception {
+		assertRelationsKept(FetchStrategy.JOIN);
+	}
+
+	public void testJoinFillsRelationsOfNewObjects() throws Exception {
+		mapper.setFetchStrategy(FetchStrategy.JOIN);
+		try(KORSession session = mapper.openSession()) {
+			List<Person> persons = session.query("SELECT * FROM p_persons", Person.class);
+			assertEquals(1, persons.size());
+			assertEquals(2, persons.get(0).getLetters().size());
+		}
+	}
+
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * 																		 *
+	 * Help methods														     *
+	 * 																		 *
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+
+	/**
+	 * Loads a person, changes its letters in memory and queries it again within the same session
+	 */
+	private void assertRelationsKept(FetchStrategy fetchStrategy) throws Exception {
+		mapper.setFetchStrategy(fetchStrategy);
+		try(KORSession session = mapper.openSession()) {
+			Person person = session.find(Person.class, "anna");
+			List<Letter> letters = person.getLetters();
+			assertEquals(2, letters.size());
+			letters.add(new Letter("third", "anna", "unsaved", 3));
+
+			List<Person> persons = session.query("SELECT * FROM p_persons", Person.class);
+			assertEquals(1, persons.size());
+			assertSame(person, persons.get(0));
+			assertSame(letters, person.getLetters());
+			assertEquals(3, person.getLetters().size());
+		}
+	}
+}